@@ -0,0 +1,126 @@
+package com.snipper.cache;
+
+import com.snipper.config.CacheProperties;
+import com.snipper.util.WTinyLfuCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate second-level cache provider keeping every region in process, bounded per
+ * region by {@link CacheProperties.Hibernate}.
+ *
+ * Entity and query result regions evict with Window TinyLFU and expire after their time
+ * to live. The update timestamps region, which decides whether cached query results are
+ * still valid, is never evicted: losing a timestamp could let a stale result through.
+ * Each bounded region reports its lookups, evictions and size as metrics tagged with the
+ * region name.
+ */
+public class BoundedRegionFactory extends RegionFactoryTemplate {
+
+    private final CacheProperties.Hibernate settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, BoundedStorageAccess> regions = new ConcurrentHashMap<>();
+
+    /**
+     * @param settings region sizes and times to live
+     * @param meterRegistry registry for the region metrics
+     */
+    public BoundedRegionFactory(CacheProperties.Hibernate settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions options, Map<String, Object> configValues) {
+        // Regions are created as Hibernate asks for them
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(StorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return boundedRegion(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return boundedRegion(regionName);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new TimestampsStorageAccess();
+    }
+
+    private BoundedStorageAccess boundedRegion(String regionName) {
+        return regions.computeIfAbsent(regionName, name -> {
+            CacheProperties.Region region = settings.region(name);
+            BoundedStorageAccess storage = new BoundedStorageAccess(region.getMaxEntries(), region.getTtlMs());
+            WTinyLfuCache<Object, Object> cache = storage.getCache();
+            FunctionCounter.builder("snipper.hibernate.cache.gets", cache, WTinyLfuCache::getHitCount)
+                    .tags("region", name, "result", "hit").register(meterRegistry);
+            FunctionCounter.builder("snipper.hibernate.cache.gets", cache, WTinyLfuCache::getMissCount)
+                    .tags("region", name, "result", "miss").register(meterRegistry);
+            FunctionCounter.builder("snipper.hibernate.cache.evictions", cache, WTinyLfuCache::getEvictionCount)
+                    .tag("region", name).register(meterRegistry);
+            Gauge.builder("snipper.hibernate.cache.size", cache, WTinyLfuCache::size)
+                    .tag("region", name).register(meterRegistry);
+            return storage;
+        });
+    }
+
+    /**
+     * Unbounded storage of the last update time of each table
+     */
+    private static final class TimestampsStorageAccess implements StorageAccess {
+
+        private final Map<Object, Object> timestamps = new ConcurrentHashMap<>();
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return timestamps.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            timestamps.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return timestamps.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            timestamps.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            timestamps.remove(key);
+        }
+
+        @Override
+        public void release() {
+            timestamps.clear();
+        }
+    }
+}
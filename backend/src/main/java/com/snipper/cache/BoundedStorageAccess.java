@@ -0,0 +1,60 @@
+package com.snipper.cache;
+
+import com.snipper.util.WTinyLfuCache;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage of one Hibernate cache region, holding at most a fixed number of entries in a
+ * {@link WTinyLfuCache}. Entries also expire, which bounds how long another instance's
+ * writes go unseen.
+ */
+public class BoundedStorageAccess implements DomainDataStorageAccess {
+
+    private final WTinyLfuCache<Object, Object> cache;
+
+    /**
+     * @param maxEntries the most entries the region holds
+     * @param ttlMillis how long an entry lives after it was written
+     */
+    public BoundedStorageAccess(int maxEntries, long ttlMillis) {
+        this.cache = new WTinyLfuCache<>(maxEntries, maxEntries, value -> 1, ttlMillis);
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.getIfPresent(key) != null;
+    }
+
+    @Override
+    public void evictData() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void release() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the underlying cache, for metrics
+     */
+    public WTinyLfuCache<Object, Object> getCache() {
+        return cache;
+    }
+}
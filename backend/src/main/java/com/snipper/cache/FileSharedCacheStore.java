@@ -0,0 +1,136 @@
+package com.snipper.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Shared cache store keeping one file per entry in a local directory.
+ *
+ * A file is named after the SHA-256 of its key and holds the expiry time followed by the
+ * value. Writes go to a temporary file that is then moved into place, so readers see the
+ * old value or the new one, never a partial file. Instances sharing the directory (on one
+ * host, or on a shared volume) share the cache.
+ */
+public class FileSharedCacheStore implements SharedCacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSharedCacheStore.class);
+    private static final String SUFFIX = ".entry";
+
+    private final Path directory;
+
+    /**
+     * @param directory where entries are kept; created if missing
+     */
+    public FileSharedCacheStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cache directory " + directory, e);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Path file = fileFor(key);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (bytes.length < Long.BYTES || ByteBuffer.wrap(bytes).getLong() <= System.currentTimeMillis()) {
+            deleteQuietly(file);
+            return null;
+        }
+        byte[] value = new byte[bytes.length - Long.BYTES];
+        System.arraycopy(bytes, Long.BYTES, value, 0, value.length);
+        return value;
+    }
+
+    @Override
+    public void put(String key, byte[] value, long ttlMillis) {
+        ByteBuffer entry = ByteBuffer.allocate(Long.BYTES + value.length);
+        entry.putLong(System.currentTimeMillis() + ttlMillis).put(value);
+        Path file = fileFor(key);
+        try {
+            Path temp = Files.createTempFile(directory, "put", ".tmp");
+            try {
+                Files.write(temp, entry.array());
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (isExpired(file, now)) {
+                    deleteQuietly(file);
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to purge cache directory {}: {}", directory, e.getMessage());
+        }
+        return purged;
+    }
+
+    private boolean isExpired(Path file, long now) {
+        try (var channel = Files.newByteChannel(file)) {
+            ByteBuffer expiresAt = ByteBuffer.allocate(Long.BYTES);
+            return channel.read(expiresAt) < Long.BYTES || expiresAt.flip().getLong() <= now;
+        } catch (IOException e) {
+            // Deleted concurrently, or unreadable: either way not worth keeping
+            return true;
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete cache file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.snipper.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.config.CacheProperties;
+import com.snipper.dto.snippet.SnippetResponse;
+import com.snipper.dto.user.UserProfileResponse;
+import com.snipper.util.WTinyLfuCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * Caches of the snippet and user profile responses, keyed by snippet ID and username.
+ *
+ * Snippets get 90% of the in-process weight budget and profiles the rest. Writers evict
+ * the entries they change, and other instances evict theirs when they see the write in the
+ * cache change log; the L1 time to live is the backstop. A view only bumps counters and
+ * evicts nothing, so a cached snippet's counts are as old as the entry, up to the L2 time to
+ * live: readers overlay the live view count, and the unique-viewer estimate may trail by
+ * that much. When caching is disabled every read goes to its loader.
+ */
+public class ResponseCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final TwoLevelCache<SnippetResponse> snippets;
+    private final TwoLevelCache<UserProfileResponse> profiles;
+    private final SharedCacheStore shared;
+    private final Counter sharedPurges;
+
+    /**
+     * @param properties cache settings
+     * @param shared the shared level, or null to use the in-process level only
+     * @param objectMapper serializes values for the shared level
+     * @param meterRegistry registry for the cache metrics
+     */
+    public ResponseCache(CacheProperties properties, SharedCacheStore shared, ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            this.snippets = null;
+            this.profiles = null;
+            this.shared = null;
+            this.sharedPurges = null;
+            return;
+        }
+        CacheProperties.L1 l1 = properties.getL1();
+        long ttlMs = properties.getL2().getTtlMs();
+        long snippetWeight = l1.getMaxWeightBytes() * 9 / 10;
+        this.snippets = new TwoLevelCache<>("snippets",
+                new WTinyLfuCache<>(snippetWeight, l1.getExpectedEntries(), ResponseCache::weighSnippet, l1.getTtlMs()),
+                shared, ttlMs, objectMapper, SnippetResponse.class, meterRegistry);
+        this.profiles = new TwoLevelCache<>("profiles",
+                new WTinyLfuCache<>(Math.max(1, l1.getMaxWeightBytes() - snippetWeight), l1.getExpectedEntries(),
+                        ResponseCache::weighProfile, l1.getTtlMs()),
+                shared, ttlMs, objectMapper, UserProfileResponse.class, meterRegistry);
+        this.shared = shared;
+        this.sharedPurges = Counter.builder("snipper.cache.evictions")
+                .tags("cache", "all", "level", "l2", "cause", "expired").register(meterRegistry);
+    }
+
+    /**
+     * @param id the snippet ID
+     * @param loader loads the snippet on a miss
+     * @return the cached or loaded snippet
+     */
+    public SnippetResponse getSnippet(Long id, Supplier<SnippetResponse> loader) {
+        return snippets == null ? loader.get() : snippets.get(String.valueOf(id), loader);
+    }
+
+    /**
+     * Evict a snippet, after the current transaction commits if there is one
+     * @param id the snippet ID
+     */
+    public void evictSnippet(Long id) {
+        if (snippets != null) {
+            snippets.evict(String.valueOf(id));
+        }
+    }
+
+    /**
+     * @param username the username
+     * @param loader loads the profile on a miss
+     * @return the cached or loaded profile
+     */
+    public UserProfileResponse getProfile(String username, Supplier<UserProfileResponse> loader) {
+        return profiles == null ? loader.get() : profiles.get(username, loader);
+    }
+
+    /**
+     * Evict a profile, after the current transaction commits if there is one
+     * @param username the username
+     */
+    public void evictProfile(String username) {
+        if (profiles != null) {
+            profiles.evict(username);
+        }
+    }
+
+    /**
+     * Remove expired entries from the shared level
+     * @return number of entries removed
+     */
+    public int purgeExpired() {
+        if (shared == null) {
+            return 0;
+        }
+        int purged = shared.purgeExpired();
+        sharedPurges.increment(purged);
+        return purged;
+    }
+
+    private static int weighSnippet(SnippetResponse snippet) {
+        // Two bytes per char of the strings that can be large
+        return ENTRY_OVERHEAD_BYTES + 2 * (length(snippet.getContent()) + length(snippet.getTitle())
+                + length(snippet.getDescription()) + length(snippet.getTags()));
+    }
+
+    private static int weighProfile(UserProfileResponse profile) {
+        return ENTRY_OVERHEAD_BYTES + 2 * (length(profile.getUsername()) + length(profile.getEmail())
+                + length(profile.getFullName()) + length(profile.getBio()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,40 @@
+package com.snipper.cache;
+
+/**
+ * Second-level cache store shared by all application instances, holding serialized values.
+ *
+ * The default {@link FileSharedCacheStore} keeps entries on the local disk, so it works
+ * without outside services; a deployment running several instances can define its own
+ * SharedCacheStore bean (e.g. backed by a network cache) to replace it. Implementations
+ * must be thread-safe. Callers treat a runtime exception from any method as a miss.
+ */
+public interface SharedCacheStore {
+
+    /**
+     * @param key the namespaced key
+     * @return the stored value, or null if absent or expired
+     */
+    byte[] get(String key);
+
+    /**
+     * Store a value, replacing any previous one
+     * @param key the namespaced key
+     * @param value the serialized value
+     * @param ttlMillis how long the value may be served
+     */
+    void put(String key, byte[] value, long ttlMillis);
+
+    /**
+     * Drop a key
+     * @param key the namespaced key
+     */
+    void evict(String key);
+
+    /**
+     * Remove expired entries, for stores that do not expire them on their own
+     * @return number of entries removed
+     */
+    default int purgeExpired() {
+        return 0;
+    }
+}
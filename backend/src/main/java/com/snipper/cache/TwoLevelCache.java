@@ -0,0 +1,205 @@
+package com.snipper.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.util.WTinyLfuCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Read-through cache of one kind of response: an in-process {@link WTinyLfuCache} in front
+ * of an optional {@link SharedCacheStore}, in front of the database.
+ *
+ * A value loaded from the database fills both levels; one found in the shared store fills
+ * the local one. Evictions issued inside a transaction run once it commits, so a reader
+ * cannot cache the old row again between the eviction and the commit, and a load that
+ * started before an eviction does not store its result. Errors of the shared store are
+ * logged and treated as misses: the cache never fails a read the database could serve.
+ *
+ * Cached values are shared between callers and must not be modified.
+ */
+public class TwoLevelCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+    private static final long EVICTION_MEMORY_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int MAX_EVICTION_MARKS = 1024;
+
+    private final String name;
+    private final WTinyLfuCache<String, V> local;
+    private final SharedCacheStore shared;
+    private final long sharedTtlMillis;
+    private final ObjectMapper objectMapper;
+    private final Class<V> type;
+    private final Map<String, Long> evictedAt = new ConcurrentHashMap<>();
+
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+    private final Timer loadTimer;
+    private final Counter localInvalidations;
+    private final Counter sharedInvalidations;
+
+    /**
+     * @param name cache name, used as key prefix in the shared store and as metric tag
+     * @param local the in-process level
+     * @param shared the shared level, or null to use the local level only
+     * @param sharedTtlMillis how long values live in the shared level
+     * @param objectMapper serializes values for the shared level
+     * @param type the value type
+     * @param meterRegistry registry for the cache metrics
+     */
+    public TwoLevelCache(String name, WTinyLfuCache<String, V> local, SharedCacheStore shared, long sharedTtlMillis,
+                         ObjectMapper objectMapper, Class<V> type, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.sharedTtlMillis = sharedTtlMillis;
+        this.objectMapper = objectMapper;
+        this.type = type;
+
+        registerLevel(meterRegistry, "l1", local, WTinyLfuCache::getHitCount, WTinyLfuCache::getMissCount);
+        FunctionCounter.builder("snipper.cache.evictions", local, WTinyLfuCache::getEvictionCount)
+                .tags("cache", name, "level", "l1", "cause", "size").register(meterRegistry);
+        Gauge.builder("snipper.cache.size", local, WTinyLfuCache::size)
+                .tags("cache", name, "level", "l1").register(meterRegistry);
+        Gauge.builder("snipper.cache.weight", local, WTinyLfuCache::weightedSize)
+                .tags("cache", name, "level", "l1").baseUnit("bytes").register(meterRegistry);
+        this.localInvalidations = Counter.builder("snipper.cache.evictions")
+                .tags("cache", name, "level", "l1", "cause", "explicit").register(meterRegistry);
+        if (shared != null) {
+            registerLevel(meterRegistry, "l2", this, c -> c.sharedHits.sum(), c -> c.sharedMisses.sum());
+            this.sharedInvalidations = Counter.builder("snipper.cache.evictions")
+                    .tags("cache", name, "level", "l2", "cause", "explicit").register(meterRegistry);
+        } else {
+            this.sharedInvalidations = null;
+        }
+        this.loadTimer = Timer.builder("snipper.cache.load").tag("cache", name).register(meterRegistry);
+    }
+
+    /**
+     * Get a value, loading and caching it on a miss; exceptions of the loader propagate and nothing is cached
+     * @param key the key
+     * @param loader loads the value from the database
+     * @return the value
+     */
+    public V get(String key, Supplier<V> loader) {
+        V value = local.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        long startedAt = System.nanoTime();
+        value = getShared(key);
+        if (value != null) {
+            if (!evictedSince(key, startedAt)) {
+                local.put(key, value);
+            }
+            return value;
+        }
+
+        value = loadTimer.record(loader);
+        if (value != null && !evictedSince(key, startedAt)) {
+            local.put(key, value);
+            putShared(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Drop a key from both levels, after the current transaction commits if there is one
+     * @param key the key
+     */
+    public void evict(String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(key);
+                }
+            });
+        } else {
+            evictNow(key);
+        }
+    }
+
+    private void evictNow(String key) {
+        long now = System.nanoTime();
+        evictedAt.put(key, now);
+        local.invalidate(key);
+        localInvalidations.increment();
+        if (shared != null) {
+            try {
+                shared.evict(sharedKey(key));
+                sharedInvalidations.increment();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to evict {} from shared cache {}: {}", key, name, e.getMessage());
+            }
+        }
+        if (evictedAt.size() > MAX_EVICTION_MARKS) {
+            // No load runs for longer than this, so older marks can no longer stop one
+            evictedAt.values().removeIf(at -> now - at > EVICTION_MEMORY_NANOS);
+        }
+    }
+
+    private boolean evictedSince(String key, long startedAt) {
+        Long at = evictedAt.get(key);
+        return at != null && at - startedAt >= 0;
+    }
+
+    private V getShared(String key) {
+        if (shared == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = shared.get(sharedKey(key));
+            if (bytes != null) {
+                sharedHits.increment();
+                return objectMapper.readValue(bytes, type);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read {} from shared cache {}: {}", key, name, e.getMessage());
+        }
+        sharedMisses.increment();
+        return null;
+    }
+
+    private void putShared(String key, V value) {
+        if (shared == null) {
+            return;
+        }
+        try {
+            shared.put(sharedKey(key), objectMapper.writeValueAsBytes(value), sharedTtlMillis);
+        } catch (Exception e) {
+            logger.warn("Failed to write {} to shared cache {}: {}", key, name, e.getMessage());
+        }
+    }
+
+    private String sharedKey(String key) {
+        return name + ":" + key;
+    }
+
+    private <T> void registerLevel(MeterRegistry meterRegistry, String level, T source,
+                                   ToLongFunction<T> hits, ToLongFunction<T> misses) {
+        FunctionCounter.builder("snipper.cache.gets", source, s -> hits.applyAsLong(s))
+                .tags("cache", name, "level", level, "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("snipper.cache.gets", source, s -> misses.applyAsLong(s))
+                .tags("cache", name, "level", level, "result", "miss").register(meterRegistry);
+        Gauge.builder("snipper.cache.hit.ratio", source, s -> {
+            long hitCount = hits.applyAsLong(s);
+            long total = hitCount + misses.applyAsLong(s);
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }).tags("cache", name, "level", level).register(meterRegistry);
+    }
+}
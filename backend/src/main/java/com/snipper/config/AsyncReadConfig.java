@@ -0,0 +1,60 @@
+package com.snipper.config;
+
+import com.snipper.util.SingleFlight;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs asynchronous MVC handlers returning a Callable on a small bounded pool.
+ *
+ * Public read endpoints hand their query to this pool and release the request thread, so
+ * slow queries queue here instead of occupying Tomcat threads; the pool size caps how many
+ * run against the database at once. Work beyond the queue is rejected with a 503.
+ * The pool is deliberately not a bean, so it does not replace Boot's application task executor.
+ * The timeout suits these reads only; exports run on {@link PublicStreamExecutor}.
+ * Concurrent identical public reads are coalesced by a shared {@link SingleFlight}.
+ */
+@Configuration
+public class AsyncReadConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor publicReadExecutor;
+    private final long timeoutMillis;
+    private final long singleFlightTimeoutMillis;
+
+    @Autowired
+    public AsyncReadConfig(@Value("${snipper.public-read.threads:8}") int threads,
+                           @Value("${snipper.public-read.queue-capacity:500}") int queueCapacity,
+                           @Value("${snipper.public-read.timeout-ms:30000}") long timeoutMillis,
+                           @Value("${snipper.public-read.single-flight-timeout-ms:5000}") long singleFlightTimeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.singleFlightTimeoutMillis = singleFlightTimeoutMillis;
+        this.publicReadExecutor = new ThreadPoolTaskExecutor();
+        publicReadExecutor.setCorePoolSize(threads);
+        publicReadExecutor.setMaxPoolSize(threads);
+        publicReadExecutor.setQueueCapacity(queueCapacity);
+        publicReadExecutor.setThreadNamePrefix("public-read-");
+        publicReadExecutor.initialize();
+    }
+
+    @Bean
+    public SingleFlight publicReadSingleFlight() {
+        return new SingleFlight(singleFlightTimeoutMillis);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(publicReadExecutor);
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+
+    @Override
+    public void destroy() {
+        publicReadExecutor.shutdown();
+    }
+}
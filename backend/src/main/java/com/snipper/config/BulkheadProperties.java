@@ -0,0 +1,141 @@
+package com.snipper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulkhead settings bound from snipper.bulkhead.
+ *
+ * Groups are matched in order against the request method and path; the first match
+ * decides which concurrency budget a request draws from, and requests matching no group
+ * are not limited.
+ */
+@ConfigurationProperties(prefix = "snipper.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+    private double backoffRatio = 0.9;
+    private long retryAfterSeconds = 1;
+    private List<Group> groups = new ArrayList<>();
+
+    /**
+     * Concurrency budget for a class of endpoints
+     */
+    public static class Group {
+
+        private String name;
+        private List<String> paths = new ArrayList<>();
+        private List<String> methods = new ArrayList<>();
+        private int initialLimit = 10;
+        private int minLimit = 1;
+        private int maxLimit = 20;
+        private long latencyTargetMs = 500;
+
+        // Default constructor
+        public Group() {}
+
+        // Constructor for defining a group
+        public Group(String name, List<String> paths, List<String> methods, int initialLimit, int minLimit,
+                     int maxLimit, long latencyTargetMs) {
+            this.name = name;
+            this.paths = paths;
+            this.methods = methods;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTargetMs = latencyTargetMs;
+        }
+
+        // Getters and Setters
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public long getLatencyTargetMs() {
+            return latencyTargetMs;
+        }
+
+        public void setLatencyTargetMs(long latencyTargetMs) {
+            this.latencyTargetMs = latencyTargetMs;
+        }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<Group> groups) {
+        this.groups = groups;
+    }
+}
@@ -0,0 +1,49 @@
+package com.snipper.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.cache.FileSharedCacheStore;
+import com.snipper.cache.ResponseCache;
+import com.snipper.cache.SharedCacheStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Paths;
+
+/**
+ * Response cache wiring. The shared level is the file-backed store unless the application
+ * defines its own {@link SharedCacheStore} bean.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    private ResponseCache responseCache;
+
+    @Bean
+    public ResponseCache responseCache(CacheProperties cacheProperties, ObjectProvider<SharedCacheStore> sharedCacheStore,
+                                       ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry) {
+        SharedCacheStore shared = null;
+        if (cacheProperties.isEnabled() && cacheProperties.getL2().isEnabled()) {
+            shared = sharedCacheStore.getIfAvailable(
+                    () -> new FileSharedCacheStore(Paths.get(cacheProperties.getL2().getDirectory())));
+        }
+        responseCache = new ResponseCache(cacheProperties, shared, objectMapper,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        return responseCache;
+    }
+
+    /**
+     * Drop shared entries that expired without being read again
+     */
+    @Scheduled(fixedDelayString = "${snipper.cache.l2.purge-interval-ms:60000}")
+    public void purgeExpiredEntries() {
+        if (responseCache != null) {
+            responseCache.purgeExpired();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.snipper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Response cache settings bound from snipper.cache.
+ *
+ * The L1 budget is shared out per cache: snippets get most of it, profiles the rest. The
+ * L1 time to live bounds how long another instance's writes can go unseen should the
+ * cache change log fall behind; the L2 is invalidated directly and can keep entries longer. The hibernate section sizes the
+ * Hibernate second-level cache regions, per region with defaults for the rest.
+ */
+@ConfigurationProperties(prefix = "snipper.cache")
+public class CacheProperties {
+
+    private boolean enabled = true;
+    private L1 l1 = new L1();
+    private L2 l2 = new L2();
+    private Hibernate hibernate = new Hibernate();
+
+    /**
+     * In-process cache settings
+     */
+    public static class L1 {
+
+        private long maxWeightBytes = 64L * 1024 * 1024;
+        private int expectedEntries = 10000;
+        private long ttlMs = 30000;
+
+        // Getters and Setters
+        public long getMaxWeightBytes() {
+            return maxWeightBytes;
+        }
+
+        public void setMaxWeightBytes(long maxWeightBytes) {
+            this.maxWeightBytes = maxWeightBytes;
+        }
+
+        public int getExpectedEntries() {
+            return expectedEntries;
+        }
+
+        public void setExpectedEntries(int expectedEntries) {
+            this.expectedEntries = expectedEntries;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    /**
+     * Shared cache settings; directory applies to the default file-backed store only
+     */
+    public static class L2 {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/snipper-cache";
+        private long ttlMs = 600000;
+        private long purgeIntervalMs = 60000;
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        public long getPurgeIntervalMs() {
+            return purgeIntervalMs;
+        }
+
+        public void setPurgeIntervalMs(long purgeIntervalMs) {
+            this.purgeIntervalMs = purgeIntervalMs;
+        }
+    }
+
+    /**
+     * Hibernate second-level cache settings
+     */
+    public static class Hibernate {
+
+        private boolean enabled = true;
+        private Region defaults = new Region(10000, 30000L);
+        private Map<String, Region> regions = new HashMap<>();
+
+        /**
+         * @param name the region name
+         * @return the region's settings, falling back to the defaults
+         */
+        public Region region(String name) {
+            Region region = regions.get(name);
+            if (region == null) {
+                return defaults;
+            }
+            return new Region(region.getMaxEntries() != null ? region.getMaxEntries() : defaults.getMaxEntries(),
+                    region.getTtlMs() != null ? region.getTtlMs() : defaults.getTtlMs());
+        }
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Region getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(Region defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+    }
+
+    /**
+     * Size and time to live of a cache region; unset values fall back to the defaults
+     */
+    public static class Region {
+
+        private Integer maxEntries;
+        private Long ttlMs;
+
+        // Default constructor
+        public Region() {}
+
+        public Region(Integer maxEntries, Long ttlMs) {
+            this.maxEntries = maxEntries;
+            this.ttlMs = ttlMs;
+        }
+
+        // Getters and Setters
+        public Integer getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(Long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public L1 getL1() {
+        return l1;
+    }
+
+    public void setL1(L1 l1) {
+        this.l1 = l1;
+    }
+
+    public L2 getL2() {
+        return l2;
+    }
+
+    public void setL2(L2 l2) {
+        this.l2 = l2;
+    }
+
+    public Hibernate getHibernate() {
+        return hibernate;
+    }
+
+    public void setHibernate(Hibernate hibernate) {
+        this.hibernate = hibernate;
+    }
+}
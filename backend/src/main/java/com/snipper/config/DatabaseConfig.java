@@ -1,9 +1,14 @@
 package com.snipper.config;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
@@ -11,10 +16,15 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 @EnableJpaRepositories(basePackages = "com.snipper.repository")
 @EnableTransactionManagement
-public class DatabaseConfig {
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DatabaseConfig implements DisposableBean {
 
     @Value("${spring.datasource.url}")
     private String jdbcUrl;
@@ -28,6 +38,11 @@ public class DatabaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
 
+    @Autowired
+    private ReplicaProperties replicaProperties;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
     @Bean
     @ConfigurationProperties(prefix = "spring.datasource.hikari")
     public HikariConfig hikariConfig() {
@@ -59,8 +74,57 @@ public class DatabaseConfig {
         return config;
     }
 
+    /**
+     * The primary pool, or, when replicas are configured, a lazy proxy routing read-only
+     * transactions to them
+     */
     @Bean
     public DataSource dataSource() {
-        return new HikariDataSource(hikariConfig());
+        HikariDataSource primary = new HikariDataSource(hikariConfig());
+        List<ReplicaProperties.Replica> replicas = replicaProperties.getReplicas();
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+
+        Map<String, DataSource> replicaPools = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaPools.put("replica-" + i, replicaDataSource("replica-" + i, replicas.get(i)));
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicaPools, replicaProperties.getReadYourWritesMs());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Move reads off replicas that stopped answering, and back once they recover
+     */
+    @Scheduled(fixedDelayString = "${snipper.datasource.health-check-interval-ms:5000}")
+    public void checkReplicaHealth() {
+        if (routingDataSource != null) {
+            routingDataSource.checkHealth();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // The lazy proxy has no close(), so Spring cannot close the pools behind it
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+
+    private HikariDataSource replicaDataSource(String name, ReplicaProperties.Replica replica) {
+        HikariConfig config = new HikariConfig();
+        hikariConfig().copyStateTo(config);
+        config.setPoolName(name);
+        config.setJdbcUrl(replica.getUrl());
+        if (replica.getUsername() != null) {
+            config.setUsername(replica.getUsername());
+            config.setPassword(replica.getPassword());
+        }
+        config.setReadOnly(true);
+        // Start without a replica that is down, and give up on it quickly so reads fail over to the primary
+        config.setInitializationFailTimeout(-1);
+        config.setConnectionTimeout(Math.min(config.getConnectionTimeout(), 2000));
+        return new HikariDataSource(config);
     }
 }
\ No newline at end of file
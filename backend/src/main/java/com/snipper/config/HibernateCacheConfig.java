@@ -0,0 +1,37 @@
+package com.snipper.config;
+
+import com.snipper.cache.BoundedRegionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level and query cache, backed by {@link BoundedRegionFactory}. Only
+ * entities and queries that opt in are cached; see the users and snippets regions.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class HibernateCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheProperties cacheProperties,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        CacheProperties.Hibernate settings = cacheProperties.getHibernate();
+        return properties -> {
+            if (!settings.isEnabled()) {
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+                return;
+            }
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY,
+                    new BoundedRegionFactory(settings, meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.snipper.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs public snippet exports on their own small pool, apart from the public-read pool.
+ *
+ * An export writes for as long as the client keeps reading, so it must neither hold a
+ * read thread nor hit the 30 second default async timeout after its response is already
+ * committed. Exports therefore get a timeout of their own, none by default: a client that
+ * stops reading is cut off by the connector's write timeout instead. Exports beyond the
+ * queue are rejected with a 503 before anything is written. Like the public-read pool,
+ * the pool is not a bean, so it does not replace Boot's application task executor.
+ */
+@Component
+public class PublicStreamExecutor implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMillis;
+
+    @Autowired
+    public PublicStreamExecutor(@Value("${snipper.public-read.stream.threads:4}") int threads,
+                                @Value("${snipper.public-read.stream.queue-capacity:4}") int queueCapacity,
+                                @Value("${snipper.public-read.stream.timeout-ms:0}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("public-stream-");
+        executor.initialize();
+    }
+
+    /**
+     * Wrap a stream writer as an asynchronous handler result running on the export pool
+     * @param writer writes the response and returns when the export is complete
+     * @return the task to return from the handler
+     */
+    public WebAsyncTask<Void> task(Callable<Void> writer) {
+        // A timeout of 0 or less means none
+        return new WebAsyncTask<>(timeoutMillis, executor, writer);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,140 @@
+package com.snipper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting settings bound from snipper.rate-limit.
+ *
+ * Groups are matched in order against the request path; the first match decides the
+ * bucket size and refill rate, and requests matching no group are not limited.
+ */
+@ConfigurationProperties(prefix = "snipper.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long idleEvictionMs = 600000;
+    private int maxBuckets = 100000;
+    private final Shared shared = new Shared();
+    private List<Group> groups = new ArrayList<>();
+
+    /**
+     * Bucket settings for a class of endpoints
+     */
+    public static class Group {
+
+        private String name;
+        private List<String> paths = new ArrayList<>();
+        private long capacity;
+        private double refillPerSecond;
+
+        // Default constructor
+        public Group() {}
+
+        // Constructor for defining a group
+        public Group(String name, List<String> paths, long capacity, double refillPerSecond) {
+            this.name = name;
+            this.paths = paths;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        // Getters and Setters
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    /**
+     * Settings for buckets shared across replicas through the database
+     */
+    public static class Shared {
+
+        private boolean enabled = false;
+        private long syncIntervalMs = 1000;
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSyncIntervalMs() {
+            return syncIntervalMs;
+        }
+
+        public void setSyncIntervalMs(long syncIntervalMs) {
+            this.syncIntervalMs = syncIntervalMs;
+        }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Shared getShared() {
+        return shared;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<Group> groups) {
+        this.groups = groups;
+    }
+}
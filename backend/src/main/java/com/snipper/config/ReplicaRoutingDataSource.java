@@ -0,0 +1,243 @@
+package com.snipper.config;
+
+import com.snipper.security.CustomUserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource sending read-only transactions to healthy replicas, round robin, and
+ * everything else to the primary.
+ *
+ * The routing decision is made when a connection is requested, so this must sit behind a
+ * LazyConnectionDataSourceProxy: only then is the transaction's read-only flag known by
+ * the time the connection is fetched. A replica that fails to hand out a connection, or a
+ * health check, is skipped until a later health check succeeds; with no healthy replica
+ * reads go to the primary. After a signed-in user's read-write transaction commits, that
+ * user's reads stay on the primary for the read-your-writes window, so they see their own
+ * changes despite replication lag. Transactions whose writes the user never reads back,
+ * such as counting a view, opt out with {@link #skipReadYourWrites()}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * A replica pool and its last known health
+     */
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * A read-write transaction's read-your-writes entry, recorded once the transaction commits
+     */
+    private static class WriteRecord implements TransactionSynchronization {
+        private ReplicaRoutingDataSource routingDataSource;
+        private Long userId;
+        private boolean skipped;
+
+        @Override
+        public void afterCommit() {
+            if (routingDataSource != null && !skipped) {
+                routingDataSource.lastWriteByUser.put(userId, System.nanoTime());
+            }
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final long readYourWritesNanos;
+    private final Map<Long, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    /**
+     * @param primary the primary pool
+     * @param replicas replica pools by name
+     * @param readYourWritesMs how long a user's reads stay on the primary after their write, 0 to disable
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long readYourWritesMs) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                markUnhealthy(replica, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException e) {
+                markUnhealthy(replica, e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Probe every replica and update its health; also forgets expired read-your-writes entries
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    logger.info("Replica {} is healthy again", replica.name);
+                } else {
+                    logger.warn("Replica {} failed its health check", replica.name);
+                }
+                replica.healthy = healthy;
+            }
+        }
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesNanos);
+    }
+
+    /**
+     * @return number of replicas currently used for reads
+     */
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Close the primary and replica pools
+     */
+    @Override
+    public void close() {
+        closeQuietly(primary, "primary");
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource, replica.name);
+        }
+    }
+
+    /**
+     * Keep the current transaction's writes from pinning the signed-in user to the primary.
+     * For writes the user does not expect to read back; a no-op outside a transaction.
+     */
+    public static void skipReadYourWrites() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentWriteRecord().skipped = true;
+        }
+    }
+
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+            return null;
+        }
+        if (replicas.isEmpty() || readsOwnWrites()) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void recordWrite() {
+        Long userId = currentUserId();
+        if (userId == null || readYourWritesNanos <= 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWriteByUser.put(userId, System.nanoTime());
+            return;
+        }
+        WriteRecord record = currentWriteRecord();
+        record.routingDataSource = this;
+        record.userId = userId;
+    }
+
+    private boolean readsOwnWrites() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteByUser.get(userId);
+        return writtenAt != null && System.nanoTime() - writtenAt < readYourWritesNanos;
+    }
+
+    private void markUnhealthy(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            logger.warn("Replica {} unavailable, reading from primary: {}", replica.name, e.getMessage());
+            replica.healthy = false;
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource, String name) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close {} pool: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static WriteRecord currentWriteRecord() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WriteRecord record) {
+                return record;
+            }
+        }
+        WriteRecord record = new WriteRecord();
+        TransactionSynchronizationManager.registerSynchronization(record);
+        return record;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.snipper.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs that flush and maintain derived data
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
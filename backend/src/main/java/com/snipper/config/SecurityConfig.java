@@ -1,11 +1,25 @@
 package com.snipper.config;
 
+import com.snipper.security.BoundedPasswordEncoder;
+import com.snipper.security.BulkheadFilter;
+import com.snipper.security.ConcurrencyLimiter;
 import com.snipper.security.CustomUserDetailsService;
 import com.snipper.security.JwtAuthenticationEntryPoint;
 import com.snipper.security.JwtAuthenticationFilter;
+import com.snipper.security.RateLimitFilter;
+import com.snipper.security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -18,6 +32,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,22 +44,75 @@ import java.util.Arrays;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
+@EnableConfigurationProperties({RateLimitProperties.class, BulkheadProperties.class})
 public class SecurityConfig {
 
+    /**
+     * Read-only endpoints open to anonymous clients
+     */
+    static final String[] PUBLIC_READ_PATHS = {
+        "/api/snippets/public",
+        "/api/snippets/public/*",
+        "/api/snippets/search",
+        "/api/snippets/recent",
+        "/api/snippets/popular",
+        "/api/snippets/languages",
+        "/api/snippets/tags"
+    };
+
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
     @Autowired
     private JwtAuthenticationEntryPoint unauthorizedHandler;
 
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${snipper.security.password-hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${snipper.security.password-hashing.threads:2}")
+    private int hashingThreads;
+
+    @Value("${snipper.security.password-hashing.queue-limit:32}")
+    private int hashingQueueLimit;
+
+    @Value("${snipper.security.password-hashing.timeout-ms:2000}")
+    private long hashingTimeoutMillis;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
 
+    /**
+     * Keep the JWT filter bean out of the servlet container's own filter chain, so it only
+     * runs where the security chains place it
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // Hash off the request threads; stored hashes below the configured strength are upgraded on login
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), hashingThreads,
+                hashingQueueLimit, hashingTimeoutMillis, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Per endpoint group concurrency limits; shared by both security chains
+     */
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(BulkheadProperties bulkheadProperties) {
+        return new ConcurrencyLimiter(bulkheadProperties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     @Bean
@@ -50,6 +120,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(customUserDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         return authProvider;
     }
 
@@ -58,8 +129,33 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Minimal chain for anonymous public reads: no security context, session, request cache,
+     * anonymous principal or authorization checks, just headers, CORS and rate limiting.
+     * Requests carrying a token use the main chain, so signed-in viewers are still recognised.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicReadFilterChain(HttpSecurity http, ConcurrencyLimiter concurrencyLimiter) throws Exception {
+        http.securityMatcher(anonymousPublicReadMatcher())
+            .cors(cors -> cors.configurationSource(prebuiltCorsConfigurationSource()))
+            .csrf(AbstractHttpConfigurer::disable)
+            .securityContext(AbstractHttpConfigurer::disable)
+            .sessionManagement(AbstractHttpConfigurer::disable)
+            .requestCache(AbstractHttpConfigurer::disable)
+            .anonymous(AbstractHttpConfigurer::disable)
+            .servletApi(AbstractHttpConfigurer::disable)
+            .exceptionHandling(AbstractHttpConfigurer::disable)
+            .logout(AbstractHttpConfigurer::disable);
+
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(new BulkheadFilter(concurrencyLimiter), UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ConcurrencyLimiter concurrencyLimiter) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(AbstractHttpConfigurer::disable)
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
@@ -67,27 +163,56 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 .requestMatchers("/api/snippets/public/**").permitAll()
                 .requestMatchers("/api/snippets/search").permitAll()
+                .requestMatchers(HttpMethod.GET, PUBLIC_READ_PATHS).permitAll()
                 .anyRequest().authenticated()
             );
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Not a bean, so it only runs inside the security chain, after the JWT filter has identified the user
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), UsernamePasswordAuthenticationFilter.class);
+        // After rate limiting, so clients over their quota never take a bulkhead slot
+        http.addFilterAfter(new BulkheadFilter(concurrencyLimiter), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", corsConfiguration());
+        return source;
+    }
+
+    /**
+     * GET requests to the public read paths without an Authorization header
+     */
+    static RequestMatcher anonymousPublicReadMatcher() {
+        RequestMatcher paths = new OrRequestMatcher(Arrays.stream(PUBLIC_READ_PATHS)
+                .map(path -> (RequestMatcher) new AntPathRequestMatcher(path, HttpMethod.GET.name()))
+                .toList());
+        return request -> request.getHeader(HttpHeaders.AUTHORIZATION) == null && paths.matches(request);
+    }
+
+    /**
+     * CORS source resolving every request to one configuration built up front, skipping the path lookup
+     */
+    static CorsConfigurationSource prebuiltCorsConfigurationSource() {
+        CorsConfiguration configuration = corsConfiguration();
+        return request -> configuration;
+    }
+
+    private static CorsConfiguration corsConfiguration() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Browsers hide response headers from scripts unless listed; clients send ETag back in If-Match
+        configuration.setExposedHeaders(Arrays.asList(HttpHeaders.ETAG));
         configuration.setAllowCredentials(true);
-        
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", configuration);
-        return source;
+        return configuration;
     }
 }
\ No newline at end of file
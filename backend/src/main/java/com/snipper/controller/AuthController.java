@@ -1,14 +1,20 @@
 package com.snipper.controller;
 
 import com.snipper.dto.auth.AuthResponse;
+import com.snipper.dto.auth.AvailabilityResponse;
 import com.snipper.dto.auth.LoginRequest;
 import com.snipper.dto.auth.RefreshTokenRequest;
 import com.snipper.dto.auth.RegisterRequest;
+import com.snipper.exception.TooManyRequestsException;
+import com.snipper.exception.ValidationException;
 import com.snipper.service.AuthService;
+import com.snipper.service.UserAvailabilityService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -20,10 +26,12 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final UserAvailabilityService userAvailabilityService;
 
     @Autowired
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, UserAvailabilityService userAvailabilityService) {
         this.authService = authService;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     /**
@@ -36,6 +44,8 @@ public class AuthController {
         try {
             AuthResponse authResponse = authService.register(registerRequest);
             return ResponseEntity.ok(authResponse);
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Registration failed");
@@ -59,6 +69,8 @@ public class AuthController {
         try {
             AuthResponse authResponse = authService.login(loginRequest);
             return ResponseEntity.ok(authResponse);
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Authentication failed");
@@ -96,18 +108,42 @@ public class AuthController {
     }
 
     /**
-     * Logout endpoint (client-side token invalidation)
+     * Logout endpoint; revokes the bearer access token and, if given, the refresh token family
+     * @param authorization the Authorization header, if any
+     * @param refreshTokenRequest the refresh token to revoke, if any
      * @return ResponseEntity with success message
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // Since we're using stateless JWT tokens, logout is handled client-side
-        // by removing the token from storage
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        String refreshToken = refreshTokenRequest != null ? refreshTokenRequest.getRefreshToken() : null;
+        authService.logout(accessToken, refreshToken);
+
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logged out successfully");
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Check whether a username and/or email is still free, e.g. while the registration form is typed
+     * @param username the username to check, if any
+     * @param email the email to check, if any
+     * @return ResponseEntity with the availability of each value given
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> availability(@RequestParam(required = false) String username,
+                                                             @RequestParam(required = false) String email) {
+        if (!StringUtils.hasText(username) && !StringUtils.hasText(email)) {
+            throw new ValidationException("Username or email is required");
+        }
+        AvailabilityResponse response = new AvailabilityResponse(
+                username, StringUtils.hasText(username) ? userAvailabilityService.isUsernameAvailable(username) : null,
+                email, StringUtils.hasText(email) ? userAvailabilityService.isEmailAvailable(email) : null);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Health check endpoint for authentication service
      * @return ResponseEntity with status
@@ -119,4 +155,13 @@ public class AuthController {
         response.put("timestamp", java.time.Instant.now().toString());
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<?> tooManyRequests(TooManyRequestsException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Too many requests");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+}
@@ -0,0 +1,39 @@
+package com.snipper.controller;
+
+import com.snipper.security.SigningKeyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+@RestController
+public class JwksController {
+
+    private final SigningKeyManager signingKeyManager;
+
+    @Autowired
+    public JwksController(SigningKeyManager signingKeyManager) {
+        this.signingKeyManager = signingKeyManager;
+    }
+
+    /**
+     * Publish the public keys that verify our access tokens
+     * @param request the web request, for conditional GETs
+     * @return ResponseEntity with the JWK set, or 304 if the client's copy is current
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks(WebRequest request) {
+        String etag = signingKeyManager.getJwksEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(signingKeyManager.getJwksMaxAge()).cachePublic())
+                .eTag(etag)
+                .body(signingKeyManager.getJwks());
+    }
+}
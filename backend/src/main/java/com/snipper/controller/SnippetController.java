@@ -1,30 +1,60 @@
 package com.snipper.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.config.PublicStreamExecutor;
 import com.snipper.dto.common.PagedResponse;
 import com.snipper.dto.snippet.CreateSnippetRequest;
+import com.snipper.dto.snippet.PatchSnippetRequest;
 import com.snipper.dto.snippet.SnippetResponse;
+import com.snipper.dto.snippet.SnippetRevisionResponse;
+import com.snipper.dto.snippet.SnippetRevisionSummaryResponse;
 import com.snipper.dto.snippet.SnippetSummaryResponse;
+import com.snipper.dto.snippet.SnippetViewStatsResponse;
 import com.snipper.dto.snippet.UpdateSnippetRequest;
+import com.snipper.model.StatGranularity;
 import com.snipper.service.SnippetService;
+import com.snipper.util.VersionETags;
+import com.snipper.util.ViewerKeys;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/snippets")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class SnippetController {
 
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int STREAM_BATCH_SIZE = 500;
+
     private final SnippetService snippetService;
+    private final ObjectMapper objectMapper;
+    private final PublicStreamExecutor publicStreamExecutor;
 
     @Autowired
-    public SnippetController(SnippetService snippetService) {
+    public SnippetController(SnippetService snippetService, ObjectMapper objectMapper,
+                             PublicStreamExecutor publicStreamExecutor) {
         this.snippetService = snippetService;
+        this.objectMapper = objectMapper;
+        this.publicStreamExecutor = publicStreamExecutor;
     }
 
     /**
@@ -40,39 +70,147 @@ public class SnippetController {
     }
 
     /**
-     * Get snippet by ID (authenticated)
+     * Get snippet by ID (authenticated); the ETag carries the version to send back in If-Match
      */
     @GetMapping("/{id}")
     public ResponseEntity<SnippetResponse> getSnippet(
             @PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request) {
+        String username = authentication != null ? authentication.getName() : null;
+        SnippetResponse response = snippetService.getSnippetById(id, username, ViewerKeys.resolve(authentication, request));
+        return ResponseEntity.ok().eTag(VersionETags.of(response.getVersion())).body(response);
+    }
+
+    /**
+     * Get view statistics of a snippet, bucketed by hour, day or month (UTC)
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<SnippetViewStatsResponse> getSnippetStats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             Authentication authentication) {
         String username = authentication != null ? authentication.getName() : null;
-        SnippetResponse response = snippetService.getSnippetById(id, username);
+        SnippetViewStatsResponse response = snippetService.getSnippetViewStats(
+                id, username, StatGranularity.fromValue(granularity), from, to);
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Get public snippet by ID (no authentication required)
+     * Get public snippet by ID (no authentication required), served off the request thread
      */
     @GetMapping("/public/{id}")
-    public ResponseEntity<SnippetResponse> getPublicSnippet(@PathVariable Long id) {
-        SnippetResponse response = snippetService.getPublicSnippetById(id);
-        return ResponseEntity.ok(response);
+    public Callable<ResponseEntity<SnippetResponse>> getPublicSnippet(
+            @PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request) {
+        String viewerKey = ViewerKeys.resolve(authentication, request);
+        return () -> {
+            SnippetResponse response = snippetService.getPublicSnippetById(id, viewerKey);
+            return ResponseEntity.ok(response);
+        };
+    }
+
+    /**
+     * Stream all public snippets as newline-delimited JSON, optionally filtered by language.
+     * Batches are read only as fast as the client consumes them, on the export pool.
+     */
+    @GetMapping("/public/stream")
+    public WebAsyncTask<Void> streamPublicSnippets(
+            @RequestParam(required = false) String language,
+            HttpServletResponse response) {
+        return publicStreamExecutor.task(() -> {
+            response.setContentType(NDJSON.toString());
+            OutputStream out = response.getOutputStream();
+            snippetService.streamPublicSnippets(language, STREAM_BATCH_SIZE, batch -> {
+                try {
+                    for (SnippetSummaryResponse snippet : batch) {
+                        out.write(objectMapper.writeValueAsBytes(snippet));
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return null;
+        });
     }
 
     /**
-     * Update snippet
+     * Update snippet; with If-Match only if it is still at that version, 412 otherwise
      */
     @PutMapping("/{id}")
     public ResponseEntity<SnippetResponse> updateSnippet(
             @PathVariable Long id,
             @Valid @RequestBody UpdateSnippetRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
         String username = authentication.getName();
-        SnippetResponse response = snippetService.updateSnippet(id, request, username);
+        SnippetResponse response = snippetService.updateSnippet(id, request, username, VersionETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(VersionETags.of(response.getVersion())).body(response);
+    }
+
+    /**
+     * Partially update snippet with a JSON Merge Patch; only the members sent are changed.
+     * Honours If-Match like PUT and responds without the content.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<SnippetSummaryResponse> patchSnippet(
+            @PathVariable Long id,
+            @Valid @RequestBody PatchSnippetRequest patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        String username = authentication.getName();
+        Set<Long> expectedVersions = VersionETags.parseIfMatch(ifMatch);
+        SnippetSummaryResponse response = snippetService.patchSnippet(id, patch, username, expectedVersions);
+        return ResponseEntity.ok().eTag(VersionETags.of(response.getVersion())).body(response);
+    }
+
+    /**
+     * List the revisions of a snippet's content, newest first (owner only)
+     */
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<PagedResponse<SnippetRevisionSummaryResponse>> getSnippetRevisions(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        PagedResponse<SnippetRevisionSummaryResponse> response = snippetService.getSnippetRevisions(id, username, page, size);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get the content of one revision (owner only)
+     */
+    @GetMapping("/{id}/revisions/{revision}")
+    public ResponseEntity<SnippetRevisionResponse> getSnippetRevision(
+            @PathVariable Long id,
+            @PathVariable int revision,
+            Authentication authentication) {
+        String username = authentication.getName();
+        SnippetRevisionResponse response = snippetService.getSnippetRevision(id, revision, username);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Restore the content of an earlier revision; honours If-Match like PUT
+     */
+    @PostMapping("/{id}/revisions/{revision}/restore")
+    public ResponseEntity<SnippetResponse> restoreSnippetRevision(
+            @PathVariable Long id,
+            @PathVariable int revision,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        String username = authentication.getName();
+        Set<Long> expectedVersions = VersionETags.parseIfMatch(ifMatch);
+        SnippetResponse response = snippetService.restoreSnippetRevision(id, revision, username, expectedVersions);
+        return ResponseEntity.ok().eTag(VersionETags.of(response.getVersion())).body(response);
+    }
+
     /**
      * Delete snippet
      */
@@ -101,23 +239,25 @@ public class SnippetController {
     }
 
     /**
-     * Get public snippets with pagination and sorting
+     * Get public snippets with pagination and sorting, served off the request thread
      */
     @GetMapping("/public")
-    public ResponseEntity<PagedResponse<SnippetSummaryResponse>> getPublicSnippets(
+    public Callable<ResponseEntity<PagedResponse<SnippetSummaryResponse>>> getPublicSnippets(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
-        PagedResponse<SnippetSummaryResponse> response = snippetService.getPublicSnippets(page, size, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return () -> {
+            PagedResponse<SnippetSummaryResponse> response = snippetService.getPublicSnippets(page, size, sortBy, sortDir);
+            return ResponseEntity.ok(response);
+        };
     }
 
     /**
-     * Search public snippets with advanced filtering
+     * Search public snippets with advanced filtering, served off the request thread
      */
     @GetMapping("/search")
-    public ResponseEntity<PagedResponse<SnippetSummaryResponse>> searchPublicSnippets(
+    public Callable<ResponseEntity<PagedResponse<SnippetSummaryResponse>>> searchPublicSnippets(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String language,
             @RequestParam(required = false) String tags,
@@ -126,9 +266,11 @@ public class SnippetController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
-        PagedResponse<SnippetSummaryResponse> response = snippetService.searchSnippetsWithFilters(
-                q, language, tags, visibility, page, size, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return () -> {
+            PagedResponse<SnippetSummaryResponse> response = snippetService.searchSnippetsWithFilters(
+                    q, language, tags, visibility, page, size, sortBy, sortDir);
+            return ResponseEntity.ok(response);
+        };
     }
 
     /**
@@ -152,37 +294,44 @@ public class SnippetController {
     }
 
     /**
-     * Get snippets by programming language
+     * Get snippets by programming language, served off the request thread
      */
     @GetMapping("/language/{language}")
-    public ResponseEntity<PagedResponse<SnippetSummaryResponse>> getSnippetsByLanguage(
+    public Callable<ResponseEntity<PagedResponse<SnippetSummaryResponse>>> getSnippetsByLanguage(
             @PathVariable String language,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        PagedResponse<SnippetSummaryResponse> response = snippetService.getSnippetsByLanguage(language, page, size);
-        return ResponseEntity.ok(response);
+        return () -> {
+            PagedResponse<SnippetSummaryResponse> response = snippetService.getSnippetsByLanguage(language, page, size);
+            return ResponseEntity.ok(response);
+        };
     }
 
     /**
-     * Get most popular public snippets
+     * Get most popular public snippets, ranked by total views or unique viewers, served off the request thread
      */
     @GetMapping("/popular")
-    public ResponseEntity<PagedResponse<SnippetSummaryResponse>> getPopularSnippets(
+    public Callable<ResponseEntity<PagedResponse<SnippetSummaryResponse>>> getPopularSnippets(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        PagedResponse<SnippetSummaryResponse> response = snippetService.getMostPopularSnippets(page, size);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "views") String rankBy) {
+        return () -> {
+            PagedResponse<SnippetSummaryResponse> response = snippetService.getMostPopularSnippets(page, size, rankBy);
+            return ResponseEntity.ok(response);
+        };
     }
 
     /**
-     * Get recent public snippets
+     * Get recent public snippets, served off the request thread
      */
     @GetMapping("/recent")
-    public ResponseEntity<PagedResponse<SnippetSummaryResponse>> getRecentSnippets(
+    public Callable<ResponseEntity<PagedResponse<SnippetSummaryResponse>>> getRecentSnippets(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        PagedResponse<SnippetSummaryResponse> response = snippetService.getRecentSnippets(page, size);
-        return ResponseEntity.ok(response);
+        return () -> {
+            PagedResponse<SnippetSummaryResponse> response = snippetService.getRecentSnippets(page, size);
+            return ResponseEntity.ok(response);
+        };
     }
 
     /**
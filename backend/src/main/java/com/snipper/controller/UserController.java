@@ -4,7 +4,9 @@ import com.snipper.dto.common.PagedResponse;
 import com.snipper.dto.snippet.SnippetSummaryResponse;
 import com.snipper.dto.user.UpdateProfileRequest;
 import com.snipper.dto.user.UserDashboardResponse;
+import com.snipper.dto.user.UserOverviewResponse;
 import com.snipper.dto.user.UserProfileResponse;
+import com.snipper.service.UserOverviewService;
 import com.snipper.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +23,12 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserOverviewService userOverviewService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserOverviewService userOverviewService) {
         this.userService = userService;
+        this.userOverviewService = userOverviewService;
     }
 
     /**
@@ -49,6 +53,21 @@ public class UserController {
         return ResponseEntity.ok(profile);
     }
 
+    /**
+     * Get a user's profile page in one request: profile, public statistics, languages and
+     * the first page of public snippets
+     * @param username the username to look up
+     * @param size the snippet page size (default: 10)
+     * @return ResponseEntity containing the overview, possibly partial
+     */
+    @GetMapping("/{username}/overview")
+    public ResponseEntity<UserOverviewResponse> getUserOverview(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "10") int size) {
+        UserOverviewResponse overview = userOverviewService.getUserOverview(username, size);
+        return ResponseEntity.ok(overview);
+    }
+
     /**
      * Update current user's profile
      * @param request the update profile request
@@ -0,0 +1,101 @@
+package com.snipper.dto.snippet;
+
+import com.snipper.model.VisibilityType;
+import jakarta.validation.constraints.Size;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7386) of a snippet.
+ *
+ * Only members present in the document are applied; Jackson calls a setter only for those,
+ * so each setter records its field as present. An explicit null clears the field, which
+ * is allowed for description and tags only.
+ */
+public class PatchSnippetRequest {
+
+    @Size(max = 200, message = "Title must not exceed 200 characters")
+    private String title;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+
+    private String content;
+
+    @Size(max = 50, message = "Language must not exceed 50 characters")
+    private String language;
+
+    @Size(max = 500, message = "Tags must not exceed 500 characters")
+    private String tags;
+
+    private VisibilityType visibility;
+
+    private final Set<String> presentFields = new HashSet<>();
+
+    // Default constructor
+    public PatchSnippetRequest() {}
+
+    /**
+     * @param field the JSON member name
+     * @return whether the patch sets the field, possibly to null
+     */
+    public boolean isPresent(String field) {
+        return presentFields.contains(field);
+    }
+
+    // Getters and Setters
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        presentFields.add("title");
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        presentFields.add("description");
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        presentFields.add("content");
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+        presentFields.add("language");
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public void setTags(String tags) {
+        this.tags = tags;
+        presentFields.add("tags");
+    }
+
+    public VisibilityType getVisibility() {
+        return visibility;
+    }
+
+    public void setVisibility(VisibilityType visibility) {
+        this.visibility = visibility;
+        presentFields.add("visibility");
+    }
+}
@@ -13,6 +13,8 @@ public class SnippetResponse {
     private String tags;
     private VisibilityType visibility;
     private Long viewCount;
+    private Long uniqueViewers;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String authorUsername;
@@ -104,6 +106,22 @@ public class SnippetResponse {
         this.viewCount = viewCount;
     }
 
+    public Long getUniqueViewers() {
+        return uniqueViewers;
+    }
+
+    public void setUniqueViewers(Long uniqueViewers) {
+        this.uniqueViewers = uniqueViewers;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,58 @@
+package com.snipper.dto.snippet;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for one revision of a snippet, with its content rebuilt
+ */
+public class SnippetRevisionResponse {
+
+    private Long snippetId;
+    private Integer revision;
+    private String content;
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public SnippetRevisionResponse() {}
+
+    // Constructor with all fields
+    public SnippetRevisionResponse(Long snippetId, Integer revision, String content, LocalDateTime createdAt) {
+        this.snippetId = snippetId;
+        this.revision = revision;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getSnippetId() {
+        return snippetId;
+    }
+
+    public void setSnippetId(Long snippetId) {
+        this.snippetId = snippetId;
+    }
+
+    public Integer getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Integer revision) {
+        this.revision = revision;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.snipper.dto.snippet;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for an entry of a snippet's revision history, without the content
+ */
+public class SnippetRevisionSummaryResponse {
+
+    private Integer revision;
+    private Integer contentLength;
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public SnippetRevisionSummaryResponse() {}
+
+    // Constructor with all fields
+    public SnippetRevisionSummaryResponse(Integer revision, Integer contentLength, LocalDateTime createdAt) {
+        this.revision = revision;
+        this.contentLength = contentLength;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Integer getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Integer revision) {
+        this.revision = revision;
+    }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
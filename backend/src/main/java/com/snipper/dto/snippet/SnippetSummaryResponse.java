@@ -12,6 +12,7 @@ public class SnippetSummaryResponse {
     private String tags;
     private VisibilityType visibility;
     private Long viewCount;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String authorUsername;
@@ -95,6 +96,14 @@ public class SnippetSummaryResponse {
         this.viewCount = viewCount;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
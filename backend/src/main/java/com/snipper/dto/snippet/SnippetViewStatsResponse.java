@@ -0,0 +1,124 @@
+package com.snipper.dto.snippet;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for a snippet's time-bucketed view statistics
+ */
+public class SnippetViewStatsResponse {
+
+    private Long snippetId;
+    private String granularity;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    private long totalViews;
+    private List<Bucket> buckets;
+
+    // Default constructor
+    public SnippetViewStatsResponse() {}
+
+    // Constructor with all fields
+    public SnippetViewStatsResponse(Long snippetId, String granularity, LocalDateTime from, LocalDateTime to,
+                                    long totalViews, List<Bucket> buckets) {
+        this.snippetId = snippetId;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.totalViews = totalViews;
+        this.buckets = buckets;
+    }
+
+    // Getters and Setters
+    public Long getSnippetId() {
+        return snippetId;
+    }
+
+    public void setSnippetId(Long snippetId) {
+        this.snippetId = snippetId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public long getTotalViews() {
+        return totalViews;
+    }
+
+    public void setTotalViews(long totalViews) {
+        this.totalViews = totalViews;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Inner class for a single time bucket
+     */
+    public static class Bucket {
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime start;
+
+        private long views;
+
+        // Default constructor
+        public Bucket() {}
+
+        // Constructor with all fields
+        public Bucket(LocalDateTime start, long views) {
+            this.start = start;
+            this.views = views;
+        }
+
+        // Getters and Setters
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public void setStart(LocalDateTime start) {
+            this.start = start;
+        }
+
+        public long getViews() {
+            return views;
+        }
+
+        public void setViews(long views) {
+            this.views = views;
+        }
+    }
+}
@@ -58,6 +58,7 @@ public class UserDashboardResponse {
         private long privateSnippets;
         private long unlistedSnippets;
         private long totalViews;
+        private long uniqueViewers;
 
         @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
         private LocalDateTime lastActivity;
@@ -117,6 +118,14 @@ public class UserDashboardResponse {
             this.totalViews = totalViews;
         }
 
+        public long getUniqueViewers() {
+            return uniqueViewers;
+        }
+
+        public void setUniqueViewers(long uniqueViewers) {
+            this.uniqueViewers = uniqueViewers;
+        }
+
         public LocalDateTime getLastActivity() {
             return lastActivity;
         }
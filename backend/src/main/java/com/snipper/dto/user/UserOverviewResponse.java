@@ -0,0 +1,106 @@
+package com.snipper.dto.user;
+
+import com.snipper.dto.common.PagedResponse;
+import com.snipper.dto.snippet.SnippetSummaryResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response DTO for a user's public profile page: profile, public statistics, languages
+ * and the first page of public snippets. Sections that did not load in time are null
+ * and listed in missingSections.
+ */
+public class UserOverviewResponse {
+
+    private UserProfileResponse profile;
+    private PublicStatistics statistics;
+    private List<String> languages;
+    private PagedResponse<SnippetSummaryResponse> snippets;
+    private List<String> missingSections = new ArrayList<>();
+
+    // Default constructor
+    public UserOverviewResponse() {}
+
+    /**
+     * @return true if at least one section is missing
+     */
+    public boolean isPartial() {
+        return !missingSections.isEmpty();
+    }
+
+    // Getters and Setters
+    public UserProfileResponse getProfile() {
+        return profile;
+    }
+
+    public void setProfile(UserProfileResponse profile) {
+        this.profile = profile;
+    }
+
+    public PublicStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(PublicStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<String> languages) {
+        this.languages = languages;
+    }
+
+    public PagedResponse<SnippetSummaryResponse> getSnippets() {
+        return snippets;
+    }
+
+    public void setSnippets(PagedResponse<SnippetSummaryResponse> snippets) {
+        this.snippets = snippets;
+    }
+
+    public List<String> getMissingSections() {
+        return missingSections;
+    }
+
+    public void setMissingSections(List<String> missingSections) {
+        this.missingSections = missingSections;
+    }
+
+    /**
+     * Inner class for statistics over a user's public snippets
+     */
+    public static class PublicStatistics {
+        private long publicSnippets;
+        private long totalViews;
+
+        // Default constructor
+        public PublicStatistics() {}
+
+        // Constructor with all fields
+        public PublicStatistics(long publicSnippets, long totalViews) {
+            this.publicSnippets = publicSnippets;
+            this.totalViews = totalViews;
+        }
+
+        // Getters and Setters
+        public long getPublicSnippets() {
+            return publicSnippets;
+        }
+
+        public void setPublicSnippets(long publicSnippets) {
+            this.publicSnippets = publicSnippets;
+        }
+
+        public long getTotalViews() {
+            return totalViews;
+        }
+
+        public void setTotalViews(long totalViews) {
+            this.totalViews = totalViews;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.snipper.exception;
+
+/**
+ * Exception thrown when a conditional request's precondition, such as If-Match, does not hold
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,111 @@
+package com.snipper.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A write to a cached entity, recorded in the writing transaction so other instances can
+ * evict their copies. The cache key carries what the entity is cached by besides its ID,
+ * e.g. the username a profile was cached under.
+ */
+@Entity
+@Table(name = "cache_change_log", indexes = {
+    @Index(name = "idx_cache_change_log_created_at", columnList = "created_at")
+})
+public class CacheChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private CacheEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "entity_version")
+    private Long entityVersion;
+
+    @Column(name = "cache_key", length = 100)
+    private String cacheKey;
+
+    @Column(name = "origin", nullable = false, length = 36)
+    private String origin;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public CacheChangeLogEntry() {}
+
+    // Constructor for recording a change
+    public CacheChangeLogEntry(CacheEntityType entityType, Long entityId, Long entityVersion, String cacheKey, String origin) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.entityVersion = entityVersion;
+        this.cacheKey = cacheKey;
+        this.origin = origin;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public CacheEntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(CacheEntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getEntityVersion() {
+        return entityVersion;
+    }
+
+    public void setEntityVersion(Long entityVersion) {
+        this.entityVersion = entityVersion;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
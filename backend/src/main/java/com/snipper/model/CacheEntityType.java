@@ -0,0 +1,9 @@
+package com.snipper.model;
+
+/**
+ * Kinds of cached entity recorded in the cache change log
+ */
+public enum CacheEntityType {
+    SNIPPET,
+    USER
+}
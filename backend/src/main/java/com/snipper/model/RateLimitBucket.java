@@ -0,0 +1,58 @@
+package com.snipper.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Token bucket state shared across replicas, as of its last refill
+ */
+@Entity
+@Table(name = "rate_limit_buckets", indexes = {
+    @Index(name = "idx_rate_limit_buckets_refilled", columnList = "refilled_at_ms")
+})
+public class RateLimitBucket {
+
+    @Id
+    @Column(name = "bucket_key", length = 191)
+    private String bucketKey;
+
+    @Column(name = "tokens", nullable = false)
+    private double tokens;
+
+    @Column(name = "refilled_at_ms", nullable = false)
+    private long refilledAtMs;
+
+    // Default constructor
+    public RateLimitBucket() {}
+
+    // Constructor for creating a bucket
+    public RateLimitBucket(String bucketKey, double tokens, long refilledAtMs) {
+        this.bucketKey = bucketKey;
+        this.tokens = tokens;
+        this.refilledAtMs = refilledAtMs;
+    }
+
+    // Getters and Setters
+    public String getBucketKey() {
+        return bucketKey;
+    }
+
+    public void setBucketKey(String bucketKey) {
+        this.bucketKey = bucketKey;
+    }
+
+    public double getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(double tokens) {
+        this.tokens = tokens;
+    }
+
+    public long getRefilledAtMs() {
+        return refilledAtMs;
+    }
+
+    public void setRefilledAtMs(long refilledAtMs) {
+        this.refilledAtMs = refilledAtMs;
+    }
+}
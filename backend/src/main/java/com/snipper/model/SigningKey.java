@@ -0,0 +1,128 @@
+package com.snipper.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Asymmetric JWT signing key with its rotation schedule.
+ *
+ * A key is published from creation, signs new tokens between activateAt and retireAt,
+ * and stays published for verification until expireAt, after the last token it signed
+ * has expired. The private key is stored encrypted.
+ */
+@Entity
+@Table(name = "jwt_signing_keys", indexes = {
+    @Index(name = "idx_jwt_signing_keys_expire", columnList = "expire_at")
+})
+public class SigningKey {
+
+    @Id
+    @Column(name = "kid", length = 36)
+    private String kid;
+
+    @Column(name = "algorithm", nullable = false, length = 10)
+    private String algorithm;
+
+    // Base64 X.509 encoding
+    @Column(name = "public_key", nullable = false, columnDefinition = "TEXT")
+    private String publicKey;
+
+    // Base64 of IV followed by the AES-GCM encrypted PKCS#8 encoding
+    @Column(name = "private_key", nullable = false, columnDefinition = "TEXT")
+    private String privateKey;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "activate_at", nullable = false)
+    private LocalDateTime activateAt;
+
+    @Column(name = "retire_at", nullable = false)
+    private LocalDateTime retireAt;
+
+    @Column(name = "expire_at", nullable = false)
+    private LocalDateTime expireAt;
+
+    // Default constructor
+    public SigningKey() {}
+
+    // Constructor for a newly generated key
+    public SigningKey(String kid, String algorithm, String publicKey, String privateKey,
+                      LocalDateTime activateAt, LocalDateTime retireAt, LocalDateTime expireAt) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.activateAt = activateAt;
+        this.retireAt = retireAt;
+        this.expireAt = expireAt;
+    }
+
+    // Getters and Setters
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getActivateAt() {
+        return activateAt;
+    }
+
+    public void setActivateAt(LocalDateTime activateAt) {
+        this.activateAt = activateAt;
+    }
+
+    public LocalDateTime getRetireAt() {
+        return retireAt;
+    }
+
+    public void setRetireAt(LocalDateTime retireAt) {
+        this.retireAt = retireAt;
+    }
+
+    public LocalDateTime getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(LocalDateTime expireAt) {
+        this.expireAt = expireAt;
+    }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -18,6 +21,10 @@ import java.time.LocalDateTime;
     @Index(name = "idx_snippet_title", columnList = "title"),
     @Index(name = "idx_snippet_tags", columnList = "tags")
 })
+// Updates write only the changed columns, so metadata edits never rewrite the content
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "snippets")
 public class Snippet {
 
     @Id
@@ -54,6 +61,12 @@ public class Snippet {
     @Column(name = "view_count", nullable = false)
     private Long viewCount = 0L;
 
+    // Bumped on every edit; view counting uses bulk updates and leaves it alone.
+    // Null until persisted, which is how Spring Data tells new snippets apart.
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -144,6 +157,14 @@ public class Snippet {
         this.viewCount = viewCount;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,111 @@
+package com.snipper.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One revision of a snippet's content.
+ *
+ * A keyframe holds the full content; any other revision holds a MyersDiff delta against
+ * the revision before it, so a revision is rebuilt from the nearest keyframe at or below it.
+ */
+@Entity
+@Table(name = "snippet_revisions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_snippet_revisions_revision", columnNames = {"snippet_id", "revision"})
+})
+public class SnippetRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "snippet_id", nullable = false)
+    private Long snippetId;
+
+    @Column(name = "revision", nullable = false)
+    private Integer revision;
+
+    @Column(name = "keyframe", nullable = false)
+    private boolean keyframe;
+
+    @Column(name = "payload", columnDefinition = "LONGTEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public SnippetRevision() {}
+
+    // Constructor for recording a revision
+    public SnippetRevision(Long snippetId, Integer revision, boolean keyframe, String payload, Integer contentLength) {
+        this.snippetId = snippetId;
+        this.revision = revision;
+        this.keyframe = keyframe;
+        this.payload = payload;
+        this.contentLength = contentLength;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSnippetId() {
+        return snippetId;
+    }
+
+    public void setSnippetId(Long snippetId) {
+        this.snippetId = snippetId;
+    }
+
+    public Integer getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Integer revision) {
+        this.revision = revision;
+    }
+
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    public void setKeyframe(boolean keyframe) {
+        this.keyframe = keyframe;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
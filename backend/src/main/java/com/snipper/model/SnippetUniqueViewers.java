@@ -0,0 +1,71 @@
+package com.snipper.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted HyperLogLog sketch of the distinct viewers of a snippet
+ */
+@Entity
+@Table(name = "snippet_unique_viewers", indexes = {
+    @Index(name = "idx_unique_viewers_count", columnList = "unique_viewers")
+})
+public class SnippetUniqueViewers {
+
+    @Id
+    @Column(name = "snippet_id")
+    private Long snippetId;
+
+    @Column(name = "sketch", nullable = false, length = 3073)
+    private byte[] sketch;
+
+    @Column(name = "unique_viewers", nullable = false)
+    private Long uniqueViewers = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public SnippetUniqueViewers() {}
+
+    // Constructor for creating a new sketch row
+    public SnippetUniqueViewers(Long snippetId) {
+        this.snippetId = snippetId;
+    }
+
+    // Getters and Setters
+    public Long getSnippetId() {
+        return snippetId;
+    }
+
+    public void setSnippetId(Long snippetId) {
+        this.snippetId = snippetId;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    public Long getUniqueViewers() {
+        return uniqueViewers;
+    }
+
+    public void setUniqueViewers(Long uniqueViewers) {
+        this.uniqueViewers = uniqueViewers;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.snipper.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * One slot of a snippet's sharded view counter.
+ *
+ * Holds views not yet folded into snippets.view_count; the true count is the
+ * snippet's view count plus the deltas of all its shards.
+ */
+@Entity
+@Table(name = "snippet_view_counter_shards")
+public class SnippetViewCounterShard {
+
+    @EmbeddedId
+    private SnippetViewCounterShardId id;
+
+    @Column(name = "delta", nullable = false)
+    private Long delta = 0L;
+
+    // Default constructor
+    public SnippetViewCounterShard() {}
+
+    // Constructor for creating an empty shard
+    public SnippetViewCounterShard(SnippetViewCounterShardId id) {
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public SnippetViewCounterShardId getId() {
+        return id;
+    }
+
+    public void setId(SnippetViewCounterShardId id) {
+        this.id = id;
+    }
+
+    public Long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Long delta) {
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,49 @@
+package com.snipper.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite key of a view counter shard: (snippet, shard number)
+ */
+@Embeddable
+public class SnippetViewCounterShardId implements Serializable {
+
+    @Column(name = "snippet_id", nullable = false)
+    private Long snippetId;
+
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    // Default constructor
+    public SnippetViewCounterShardId() {}
+
+    public SnippetViewCounterShardId(Long snippetId, Integer shard) {
+        this.snippetId = snippetId;
+        this.shard = shard;
+    }
+
+    public Long getSnippetId() {
+        return snippetId;
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SnippetViewCounterShardId that = (SnippetViewCounterShardId) o;
+        return Objects.equals(snippetId, that.snippetId) && Objects.equals(shard, that.shard);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(snippetId, shard);
+    }
+}
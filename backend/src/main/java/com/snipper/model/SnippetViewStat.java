@@ -0,0 +1,46 @@
+package com.snipper.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * View count of a snippet within one time bucket
+ */
+@Entity
+@Table(name = "snippet_view_stats")
+public class SnippetViewStat {
+
+    @EmbeddedId
+    private SnippetViewStatId id;
+
+    @Column(name = "view_count", nullable = false)
+    private Long viewCount = 0L;
+
+    // Default constructor
+    public SnippetViewStat() {}
+
+    // Constructor for creating a new bucket
+    public SnippetViewStat(SnippetViewStatId id, Long viewCount) {
+        this.id = id;
+        this.viewCount = viewCount;
+    }
+
+    // Getters and Setters
+    public SnippetViewStatId getId() {
+        return id;
+    }
+
+    public void setId(SnippetViewStatId id) {
+        this.id = id;
+    }
+
+    public Long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Long viewCount) {
+        this.viewCount = viewCount;
+    }
+}
@@ -0,0 +1,63 @@
+package com.snipper.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Composite key of a view statistics bucket: (snippet, granularity, bucket start)
+ */
+@Embeddable
+public class SnippetViewStatId implements Serializable {
+
+    @Column(name = "snippet_id", nullable = false)
+    private Long snippetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private StatGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Default constructor
+    public SnippetViewStatId() {}
+
+    public SnippetViewStatId(Long snippetId, StatGranularity granularity, LocalDateTime bucketStart) {
+        this.snippetId = snippetId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getSnippetId() {
+        return snippetId;
+    }
+
+    public StatGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SnippetViewStatId that = (SnippetViewStatId) o;
+        return Objects.equals(snippetId, that.snippetId)
+                && granularity == that.granularity
+                && Objects.equals(bucketStart, that.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(snippetId, granularity, bucketStart);
+    }
+}
@@ -0,0 +1,76 @@
+package com.snipper.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes for per-snippet view statistics
+ */
+public enum StatGranularity {
+    /**
+     * Hourly buckets, written by the view flusher and expired after the retention window
+     */
+    HOUR(ChronoUnit.HOURS, 336),
+
+    /**
+     * Daily buckets, rolled up from hourly buckets
+     */
+    DAY(ChronoUnit.DAYS, 366),
+
+    /**
+     * Monthly buckets, rolled up from daily buckets
+     */
+    MONTH(ChronoUnit.MONTHS, 120);
+
+    private final ChronoUnit unit;
+    private final int maxBuckets;
+
+    StatGranularity(ChronoUnit unit, int maxBuckets) {
+        this.unit = unit;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * @return the maximum number of buckets a single stats query may span
+     */
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    /**
+     * Truncate a UTC timestamp to the start of its bucket
+     * @param time the timestamp
+     * @return the bucket start
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Get the start of the bucket following the given bucket start
+     * @param bucketStart the bucket start
+     * @return the next bucket start
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    /**
+     * Get StatGranularity from string value
+     * @param value the string value
+     * @return corresponding StatGranularity
+     * @throws IllegalArgumentException if value is not valid
+     */
+    public static StatGranularity fromValue(String value) {
+        for (StatGranularity granularity : StatGranularity.values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Invalid granularity: " + value);
+    }
+}
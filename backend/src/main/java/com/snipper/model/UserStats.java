@@ -0,0 +1,155 @@
+package com.snipper.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Materialized per-user snippet statistics backing the dashboard
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_snippets", nullable = false)
+    private long totalSnippets;
+
+    @Column(name = "public_snippets", nullable = false)
+    private long publicSnippets;
+
+    @Column(name = "private_snippets", nullable = false)
+    private long privateSnippets;
+
+    @Column(name = "unlisted_snippets", nullable = false)
+    private long unlistedSnippets;
+
+    @Column(name = "total_views", nullable = false)
+    private long totalViews;
+
+    @Column(name = "unique_viewers", nullable = false)
+    private long uniqueViewers;
+
+    @Convert(converter = LanguageCountsConverter.class)
+    @Column(name = "language_counts", columnDefinition = "TEXT", nullable = false)
+    private Map<String, Long> languageCounts = new TreeMap<>();
+
+    @Column(name = "last_activity")
+    private LocalDateTime lastActivity;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public UserStats() {}
+
+    // Constructor for creating an empty stats row
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Add or remove one snippet of the given visibility and language
+     */
+    public void adjustSnippet(VisibilityType visibility, String language, int delta) {
+        totalSnippets += delta;
+        switch (visibility) {
+            case PUBLIC -> publicSnippets += delta;
+            case PRIVATE -> privateSnippets += delta;
+            case UNLISTED -> unlistedSnippets += delta;
+        }
+        Map<String, Long> counts = new TreeMap<>(languageCounts);
+        long remaining = counts.getOrDefault(language, 0L) + delta;
+        if (remaining > 0) {
+            counts.put(language, remaining);
+        } else {
+            counts.remove(language);
+        }
+        // Replace rather than mutate so Hibernate sees the converted column as dirty
+        languageCounts = counts;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getTotalSnippets() {
+        return totalSnippets;
+    }
+
+    public void setTotalSnippets(long totalSnippets) {
+        this.totalSnippets = totalSnippets;
+    }
+
+    public long getPublicSnippets() {
+        return publicSnippets;
+    }
+
+    public void setPublicSnippets(long publicSnippets) {
+        this.publicSnippets = publicSnippets;
+    }
+
+    public long getPrivateSnippets() {
+        return privateSnippets;
+    }
+
+    public void setPrivateSnippets(long privateSnippets) {
+        this.privateSnippets = privateSnippets;
+    }
+
+    public long getUnlistedSnippets() {
+        return unlistedSnippets;
+    }
+
+    public void setUnlistedSnippets(long unlistedSnippets) {
+        this.unlistedSnippets = unlistedSnippets;
+    }
+
+    public long getTotalViews() {
+        return totalViews;
+    }
+
+    public void setTotalViews(long totalViews) {
+        this.totalViews = totalViews;
+    }
+
+    public long getUniqueViewers() {
+        return uniqueViewers;
+    }
+
+    public void setUniqueViewers(long uniqueViewers) {
+        this.uniqueViewers = uniqueViewers;
+    }
+
+    public Map<String, Long> getLanguageCounts() {
+        return languageCounts;
+    }
+
+    public void setLanguageCounts(Map<String, Long> languageCounts) {
+        this.languageCounts = new TreeMap<>(languageCounts);
+    }
+
+    public LocalDateTime getLastActivity() {
+        return lastActivity;
+    }
+
+    public void setLastActivity(LocalDateTime lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,50 @@
+package com.snipper.repository;
+
+import com.snipper.model.CacheChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CacheChangeLogRepository extends JpaRepository<CacheChangeLogEntry, Long> {
+
+    /**
+     * Find the highest entry ID
+     * @return the latest entry ID, empty if the log is empty
+     */
+    @Query("SELECT MAX(c.id) FROM CacheChangeLogEntry c")
+    Optional<Long> findLatestId();
+
+    /**
+     * Find entries after a position in the log
+     * @param afterId entries with a higher ID are returned
+     * @param pageable batch size
+     * @return entries ordered by ID
+     */
+    @Query("SELECT c FROM CacheChangeLogEntry c WHERE c.id > :afterId ORDER BY c.id")
+    List<CacheChangeLogEntry> findAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find entries by ID
+     * @param ids the entry IDs
+     * @return the entries that exist
+     */
+    List<CacheChangeLogEntry> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Delete entries older than a cutoff
+     * @param before entries created before this are deleted
+     * @return number of entries deleted
+     */
+    @Modifying
+    @Query("DELETE FROM CacheChangeLogEntry c WHERE c.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
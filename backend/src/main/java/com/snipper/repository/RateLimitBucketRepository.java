@@ -0,0 +1,34 @@
+package com.snipper.repository;
+
+import com.snipper.model.RateLimitBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String> {
+
+    /**
+     * Find a shared bucket and lock it, so replicas syncing the same bucket serialize
+     * @param bucketKey the bucket key
+     * @return optional bucket
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM RateLimitBucket b WHERE b.bucketKey = :bucketKey")
+    Optional<RateLimitBucket> findForUpdate(@Param("bucketKey") String bucketKey);
+
+    /**
+     * Delete buckets not refilled since a cut-off
+     * @param beforeMs cut-off in epoch milliseconds
+     * @return number of buckets deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RateLimitBucket b WHERE b.refilledAtMs < :beforeMs")
+    int deleteIdle(@Param("beforeMs") long beforeMs);
+}
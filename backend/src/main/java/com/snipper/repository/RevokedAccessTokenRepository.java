@@ -0,0 +1,32 @@
+package com.snipper.repository;
+
+import com.snipper.model.RevokedAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    /**
+     * Find revoked tokens that have not expired yet
+     * @param now the current time
+     * @return list of revoked tokens
+     */
+    @Query("SELECT t FROM RevokedAccessToken t WHERE t.expiresAt > :now")
+    List<RevokedAccessToken> findUnexpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Delete revocations of tokens that have expired anyway
+     * @param before expiry cut-off
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedAccessToken t WHERE t.expiresAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,40 @@
+package com.snipper.repository;
+
+import com.snipper.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    /**
+     * Find keys still published for verification, oldest activation first
+     * @param now the current time
+     * @return list of signing keys
+     */
+    @Query("SELECT k FROM SigningKey k WHERE k.expireAt > :now ORDER BY k.activateAt")
+    List<SigningKey> findPublished(@Param("now") LocalDateTime now);
+
+    /**
+     * Lock the key rotation row until the transaction ends, so only one instance generates keys at a time
+     * @return the lock row's ID, or empty if the row is missing
+     */
+    @Query(value = "SELECT id FROM jwt_signing_key_lock WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockRotation();
+
+    /**
+     * Delete keys no longer needed to verify any token
+     * @param before expiry cut-off
+     * @return number of keys deleted
+     */
+    @Modifying
+    @Query("DELETE FROM SigningKey k WHERE k.expireAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
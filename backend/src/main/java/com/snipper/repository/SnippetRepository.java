@@ -3,11 +3,14 @@ package com.snipper.repository;
 import com.snipper.model.Snippet;
 import com.snipper.model.User;
 import com.snipper.model.VisibilityType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,6 +20,11 @@ import java.util.Optional;
 @Repository
 public interface SnippetRepository extends JpaRepository<Snippet, Long> {
 
+    /**
+     * Query space of the view count updates; no cached query or region depends on it
+     */
+    String VIEW_COUNT_SPACE = "snippets_view_count";
+
     /**
      * Find all public snippets ordered by creation date
      * @param pageable pagination information
@@ -106,6 +114,16 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long> {
     @Query("SELECT s FROM Snippet s WHERE s.visibility = 'PUBLIC' ORDER BY s.viewCount DESC, s.createdAt DESC")
     Page<Snippet> findMostPopularPublicSnippets(Pageable pageable);
 
+    /**
+     * Get most popular public snippets by approximate unique viewers
+     * @param pageable pagination information
+     * @return page of popular snippets ordered by unique viewers
+     */
+    @Query(value = "SELECT s FROM Snippet s LEFT JOIN SnippetUniqueViewers u ON u.snippetId = s.id " +
+                   "WHERE s.visibility = 'PUBLIC' ORDER BY COALESCE(u.uniqueViewers, 0) DESC, s.createdAt DESC",
+           countQuery = "SELECT COUNT(s) FROM Snippet s WHERE s.visibility = 'PUBLIC'")
+    Page<Snippet> findMostPopularPublicSnippetsByUniqueViewers(Pageable pageable);
+
     /**
      * Get recent public snippets
      * @param pageable pagination information
@@ -115,10 +133,23 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long> {
     Page<Snippet> findRecentPublicSnippets(Pageable pageable);
 
     /**
-     * Get distinct languages from public snippets
+     * Find public snippets after a given ID, in ascending ID order, with their authors, for keyset-paged streaming
+     * @param afterId only IDs greater than this are returned
+     * @param language optional language filter, null for all
+     * @param pageable the batch size
+     * @return list of public snippets
+     */
+    @Query("SELECT s FROM Snippet s JOIN FETCH s.author WHERE s.visibility = 'PUBLIC' AND s.id > :afterId " +
+           "AND (:language IS NULL OR s.language = :language) ORDER BY s.id")
+    List<Snippet> findPublicSnippetsAfter(@Param("afterId") Long afterId, @Param("language") String language, Pageable pageable);
+
+    /**
+     * Get distinct languages from public snippets; cached until the snippets table changes
      * @return list of programming languages
      */
     @Query("SELECT DISTINCT s.language FROM Snippet s WHERE s.visibility = 'PUBLIC' ORDER BY s.language")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "snippet-facets")})
     List<String> findDistinctLanguagesFromPublicSnippets();
 
     /**
@@ -129,6 +160,48 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long> {
     @Query("SELECT DISTINCT s.language FROM Snippet s WHERE s.author = :author ORDER BY s.language")
     List<String> findDistinctLanguagesByAuthor(@Param("author") User author);
 
+    /**
+     * Get distinct languages from a user's public snippets
+     * @param username the author's username
+     * @return list of programming languages
+     */
+    @Query("SELECT DISTINCT s.language FROM Snippet s WHERE s.author.username = :username " +
+           "AND s.visibility = 'PUBLIC' ORDER BY s.language")
+    List<String> findDistinctPublicLanguagesByUsername(@Param("username") String username);
+
+    /**
+     * Count a user's public snippets
+     * @param username the author's username
+     * @return number of public snippets
+     */
+    @Query("SELECT COUNT(s) FROM Snippet s WHERE s.author.username = :username AND s.visibility = 'PUBLIC'")
+    long countPublicSnippetsByUsername(@Param("username") String username);
+
+    /**
+     * Sum the view counts of a user's public snippets
+     * @param username the author's username
+     * @return total views
+     */
+    @Query("SELECT COALESCE(SUM(s.viewCount), 0) FROM Snippet s WHERE s.author.username = :username " +
+           "AND s.visibility = 'PUBLIC'")
+    long sumPublicViewsByUsername(@Param("username") String username);
+
+    /**
+     * Count an author's snippets per language
+     * @param author the author
+     * @return list of [language, count] pairs
+     */
+    @Query("SELECT s.language, COUNT(s) FROM Snippet s WHERE s.author = :author GROUP BY s.language")
+    List<Object[]> countSnippetsByLanguageForAuthor(@Param("author") User author);
+
+    /**
+     * Find the author ID of a snippet without loading it
+     * @param snippetId the snippet ID
+     * @return optional author ID
+     */
+    @Query("SELECT s.author.id FROM Snippet s WHERE s.id = :snippetId")
+    Optional<Long> findAuthorIdById(@Param("snippetId") Long snippetId);
+
     /**
      * Count snippets by author
      * @param author the author
@@ -144,13 +217,37 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long> {
     long countByAuthorAndVisibility(User author, VisibilityType visibility);
 
     /**
-     * Increment view count for a snippet
+     * Increment view count for a snippet. Native with its own query space, so it neither
+     * empties the snippets cache region nor invalidates cached snippet queries, none of which
+     * read the view count; the caller evicts the one cached snippet.
      * @param snippetId the snippet ID
      */
     @Modifying
-    @Query("UPDATE Snippet s SET s.viewCount = s.viewCount + 1 WHERE s.id = :snippetId")
+    @Query(value = "UPDATE snippets SET view_count = view_count + 1 WHERE id = :snippetId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = VIEW_COUNT_SPACE))
     void incrementViewCount(@Param("snippetId") Long snippetId);
 
+    /**
+     * Add a batch of views to a snippet's view count; cached like {@link #incrementViewCount}
+     * @param snippetId the snippet ID
+     * @param delta number of views to add
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query(value = "UPDATE snippets SET view_count = view_count + :delta WHERE id = :snippetId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = VIEW_COUNT_SPACE))
+    int addViewCount(@Param("snippetId") Long snippetId, @Param("delta") long delta);
+
+    /**
+     * Read a snippet's view count including the views still held in its counter shards, in
+     * one statement so a concurrent compaction is neither missed nor counted twice
+     * @param snippetId the snippet ID
+     * @return current view count, empty if the snippet does not exist
+     */
+    @Query("SELECT s.viewCount + COALESCE((SELECT SUM(c.delta) FROM SnippetViewCounterShard c " +
+           "WHERE c.id.snippetId = s.id), 0) FROM Snippet s WHERE s.id = :snippetId")
+    Optional<Long> findCurrentViewCount(@Param("snippetId") Long snippetId);
+
     /**
      * Find snippet by ID and author (for ownership verification)
      * @param id the snippet ID
@@ -159,6 +256,14 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long> {
      */
     Optional<Snippet> findByIdAndAuthor(Long id, User author);
 
+    /**
+     * Find the IDs of an author's snippets
+     * @param authorId the author's user ID
+     * @return snippet IDs
+     */
+    @Query("SELECT s.id FROM Snippet s WHERE s.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
     /**
      * Find public or unlisted snippet by ID (for public access)
      * @param id the snippet ID
@@ -182,10 +287,12 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long> {
     Object[] getSnippetStatisticsByAuthor(@Param("author") User author);
 
     /**
-     * Get distinct tags from public snippets
+     * Get distinct tags from public snippets; cached until the snippets table changes
      * @return list of unique tags (comma-separated values will need to be processed in service)
      */
     @Query("SELECT DISTINCT s.tags FROM Snippet s WHERE s.visibility = 'PUBLIC' AND s.tags IS NOT NULL AND s.tags != '' ORDER BY s.tags")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "snippet-facets")})
     List<String> findDistinctTagsFromPublicSnippets();
 
     /**
@@ -0,0 +1,63 @@
+package com.snipper.repository;
+
+import com.snipper.dto.snippet.SnippetRevisionSummaryResponse;
+import com.snipper.model.SnippetRevision;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SnippetRevisionRepository extends JpaRepository<SnippetRevision, Long> {
+
+    /**
+     * Find the highest revision number of a snippet
+     * @param snippetId the snippet ID
+     * @return the latest revision number, empty if the snippet has no history
+     */
+    @Query("SELECT MAX(r.revision) FROM SnippetRevision r WHERE r.snippetId = :snippetId")
+    Optional<Integer> findLatestRevision(@Param("snippetId") Long snippetId);
+
+    /**
+     * List a snippet's revisions, newest first, without loading their payloads
+     * @param snippetId the snippet ID
+     * @param pageable pagination information
+     * @return page of revision summaries
+     */
+    @Query(value = "SELECT new com.snipper.dto.snippet.SnippetRevisionSummaryResponse(r.revision, r.contentLength, r.createdAt) " +
+                   "FROM SnippetRevision r WHERE r.snippetId = :snippetId ORDER BY r.revision DESC",
+           countQuery = "SELECT COUNT(r) FROM SnippetRevision r WHERE r.snippetId = :snippetId")
+    Page<SnippetRevisionSummaryResponse> findSummariesBySnippetId(@Param("snippetId") Long snippetId, Pageable pageable);
+
+    /**
+     * Find the keyframe a revision is rebuilt from
+     * @param snippetId the snippet ID
+     * @param revision the revision to rebuild
+     * @return the nearest keyframe at or below the revision
+     */
+    Optional<SnippetRevision> findTopBySnippetIdAndKeyframeTrueAndRevisionLessThanEqualOrderByRevisionDesc(
+            Long snippetId, Integer revision);
+
+    /**
+     * Find a run of revisions in order
+     * @param snippetId the snippet ID
+     * @param from first revision, inclusive
+     * @param to last revision, inclusive
+     * @return revisions ordered by revision number
+     */
+    List<SnippetRevision> findBySnippetIdAndRevisionBetweenOrderByRevisionAsc(Long snippetId, Integer from, Integer to);
+
+    /**
+     * Delete a snippet's whole history
+     * @param snippetId the snippet ID
+     */
+    @Modifying
+    @Query("DELETE FROM SnippetRevision r WHERE r.snippetId = :snippetId")
+    void deleteBySnippetId(@Param("snippetId") Long snippetId);
+}
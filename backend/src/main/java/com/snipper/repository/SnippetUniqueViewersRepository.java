@@ -0,0 +1,41 @@
+package com.snipper.repository;
+
+import com.snipper.model.SnippetUniqueViewers;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SnippetUniqueViewersRepository extends JpaRepository<SnippetUniqueViewers, Long> {
+
+    /**
+     * Find a snippet's sketch and lock it for a read-modify-write merge
+     * @param snippetId the snippet ID
+     * @return optional sketch row
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM SnippetUniqueViewers u WHERE u.snippetId = :snippetId")
+    Optional<SnippetUniqueViewers> findForUpdate(@Param("snippetId") Long snippetId);
+
+    /**
+     * Get the stored unique-viewer estimate for a snippet
+     * @param snippetId the snippet ID
+     * @return optional estimate
+     */
+    @Query("SELECT u.uniqueViewers FROM SnippetUniqueViewers u WHERE u.snippetId = :snippetId")
+    Optional<Long> findUniqueViewersBySnippetId(@Param("snippetId") Long snippetId);
+
+    /**
+     * Sum the unique-viewer estimates over all of an author's snippets
+     * @param authorId the author ID
+     * @return sum of per-snippet estimates
+     */
+    @Query("SELECT COALESCE(SUM(u.uniqueViewers), 0) FROM SnippetUniqueViewers u " +
+           "WHERE u.snippetId IN (SELECT s.id FROM Snippet s WHERE s.author.id = :authorId)")
+    long sumUniqueViewersByAuthorId(@Param("authorId") Long authorId);
+}
@@ -0,0 +1,69 @@
+package com.snipper.repository;
+
+import com.snipper.model.SnippetViewCounterShard;
+import com.snipper.model.SnippetViewCounterShardId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SnippetViewCounterShardRepository extends JpaRepository<SnippetViewCounterShard, SnippetViewCounterShardId> {
+
+    /**
+     * Add one view to a shard
+     * @param snippetId the snippet ID
+     * @param shard the shard number
+     * @return number of rows updated (0 if the shard does not exist)
+     */
+    @Modifying
+    @Query("UPDATE SnippetViewCounterShard c SET c.delta = c.delta + 1 " +
+           "WHERE c.id.snippetId = :snippetId AND c.id.shard = :shard")
+    int incrementShard(@Param("snippetId") Long snippetId, @Param("shard") int shard);
+
+    /**
+     * Subtract folded views from a shard, leaving views added concurrently in place
+     * @param snippetId the snippet ID
+     * @param shard the shard number
+     * @param amount number of views to subtract
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE SnippetViewCounterShard c SET c.delta = c.delta - :amount " +
+           "WHERE c.id.snippetId = :snippetId AND c.id.shard = :shard")
+    int subtractFromShard(@Param("snippetId") Long snippetId, @Param("shard") int shard, @Param("amount") long amount);
+
+    /**
+     * Sum the views held in a snippet's shards
+     * @param snippetId the snippet ID
+     * @return views not yet folded into the snippet
+     */
+    @Query("SELECT COALESCE(SUM(c.delta), 0) FROM SnippetViewCounterShard c WHERE c.id.snippetId = :snippetId")
+    long sumDeltaBySnippetId(@Param("snippetId") Long snippetId);
+
+    /**
+     * Find all shards of a snippet
+     * @param snippetId the snippet ID
+     * @return list of shards
+     */
+    @Query("SELECT c FROM SnippetViewCounterShard c WHERE c.id.snippetId = :snippetId")
+    List<SnippetViewCounterShard> findBySnippetId(@Param("snippetId") Long snippetId);
+
+    /**
+     * Find snippets whose shards hold views not yet folded
+     * @return list of snippet IDs
+     */
+    @Query("SELECT DISTINCT c.id.snippetId FROM SnippetViewCounterShard c WHERE c.delta <> 0")
+    List<Long> findSnippetIdsWithPendingViews();
+
+    /**
+     * Delete all shards of a snippet
+     * @param snippetId the snippet ID
+     */
+    @Modifying
+    @Query("DELETE FROM SnippetViewCounterShard c WHERE c.id.snippetId = :snippetId")
+    void deleteBySnippetId(@Param("snippetId") Long snippetId);
+}
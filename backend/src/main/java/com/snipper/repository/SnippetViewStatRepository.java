@@ -0,0 +1,97 @@
+package com.snipper.repository;
+
+import com.snipper.model.SnippetViewStat;
+import com.snipper.model.SnippetViewStatId;
+import com.snipper.model.StatGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SnippetViewStatRepository extends JpaRepository<SnippetViewStat, SnippetViewStatId> {
+
+    /**
+     * Add views to an existing bucket
+     * @param snippetId the snippet ID
+     * @param granularity the bucket granularity
+     * @param bucketStart the bucket start
+     * @param delta number of views to add
+     * @return number of rows updated (0 if the bucket does not exist yet)
+     */
+    @Modifying
+    @Query("UPDATE SnippetViewStat v SET v.viewCount = v.viewCount + :delta " +
+           "WHERE v.id.snippetId = :snippetId AND v.id.granularity = :granularity AND v.id.bucketStart = :bucketStart")
+    int addViews(@Param("snippetId") Long snippetId,
+                 @Param("granularity") StatGranularity granularity,
+                 @Param("bucketStart") LocalDateTime bucketStart,
+                 @Param("delta") long delta);
+
+    /**
+     * Overwrite the view count of an existing bucket
+     * @param snippetId the snippet ID
+     * @param granularity the bucket granularity
+     * @param bucketStart the bucket start
+     * @param viewCount the new view count
+     * @return number of rows updated (0 if the bucket does not exist yet)
+     */
+    @Modifying
+    @Query("UPDATE SnippetViewStat v SET v.viewCount = :viewCount " +
+           "WHERE v.id.snippetId = :snippetId AND v.id.granularity = :granularity AND v.id.bucketStart = :bucketStart")
+    int setViews(@Param("snippetId") Long snippetId,
+                 @Param("granularity") StatGranularity granularity,
+                 @Param("bucketStart") LocalDateTime bucketStart,
+                 @Param("viewCount") long viewCount);
+
+    /**
+     * Sum views per snippet over a range of buckets (used by rollups)
+     * @param granularity the source granularity
+     * @param from inclusive range start
+     * @param to exclusive range end
+     * @return rows of [snippetId, totalViews]
+     */
+    @Query("SELECT v.id.snippetId, SUM(v.viewCount) FROM SnippetViewStat v " +
+           "WHERE v.id.granularity = :granularity AND v.id.bucketStart >= :from AND v.id.bucketStart < :to " +
+           "GROUP BY v.id.snippetId")
+    List<Object[]> sumViewsBySnippet(@Param("granularity") StatGranularity granularity,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Find a snippet's buckets within a range, served by the primary key
+     * @param snippetId the snippet ID
+     * @param granularity the bucket granularity
+     * @param from inclusive range start
+     * @param to exclusive range end
+     * @return buckets ordered by start
+     */
+    @Query("SELECT v FROM SnippetViewStat v " +
+           "WHERE v.id.snippetId = :snippetId AND v.id.granularity = :granularity " +
+           "AND v.id.bucketStart >= :from AND v.id.bucketStart < :to ORDER BY v.id.bucketStart")
+    List<SnippetViewStat> findBuckets(@Param("snippetId") Long snippetId,
+                                      @Param("granularity") StatGranularity granularity,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    /**
+     * Delete buckets older than a cutoff
+     * @param granularity the bucket granularity
+     * @param cutoff buckets starting before this are removed
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM SnippetViewStat v WHERE v.id.granularity = :granularity AND v.id.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("granularity") StatGranularity granularity, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Delete all buckets of a snippet
+     * @param snippetId the snippet ID
+     */
+    @Modifying
+    @Query("DELETE FROM SnippetViewStat v WHERE v.id.snippetId = :snippetId")
+    void deleteBySnippetId(@Param("snippetId") Long snippetId);
+}
@@ -1,21 +1,29 @@
 package com.snipper.repository;
 
 import com.snipper.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Find user by username
+     * Find user by username; cached until the users table changes
      * @param username the username to search for
      * @return Optional containing the user if found
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-lookups")})
     Optional<User> findByUsername(String username);
 
     /**
@@ -78,4 +86,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT COUNT(s), COALESCE(SUM(s.viewCount), 0) FROM User u LEFT JOIN u.snippets s WHERE u.id = :userId")
     Object[] getUserStatistics(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Find user IDs after a given ID, in ascending order, for batched scans
+     * @param afterId only IDs greater than this are returned
+     * @param pageable the batch size
+     * @return list of user IDs
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find usernames and emails after a given user ID, in ascending ID order, for batched scans
+     * @param afterId only users with IDs greater than this are returned
+     * @param pageable the batch size
+     * @return rows of user ID, username and email
+     */
+    @Query("SELECT u.id, u.username, u.email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findLoginsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find the token state of users whose tokens differ from the default, i.e. bumped or deactivated
+     * @return rows of user ID, token version and active flag
+     */
+    @Query("SELECT u.id, u.tokenVersion, u.isActive FROM User u WHERE u.tokenVersion > 0 OR u.isActive = false")
+    List<Object[]> findNonDefaultTokenStates();
+
+    /**
+     * Replace a user's password hash
+     * @param userId the user ID
+     * @param password the new password hash
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
+    int updatePassword(@Param("userId") Long userId, @Param("password") String password);
+}
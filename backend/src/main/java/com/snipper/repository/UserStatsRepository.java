@@ -0,0 +1,45 @@
+package com.snipper.repository;
+
+import com.snipper.model.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    /**
+     * Find a user's stats and lock them for a read-modify-write update
+     * @param userId the user ID
+     * @return optional stats row
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.userId = :userId")
+    Optional<UserStats> findForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Add folded views to a user's total
+     * @param userId the user ID
+     * @param delta number of views to add
+     * @return number of rows updated (0 if the user has no stats row yet)
+     */
+    @Modifying
+    @Query("UPDATE UserStats s SET s.totalViews = s.totalViews + :delta WHERE s.userId = :userId")
+    int addViews(@Param("userId") Long userId, @Param("delta") long delta);
+
+    /**
+     * Adjust a user's summed unique-viewer estimate
+     * @param userId the user ID
+     * @param delta change of the estimate
+     * @return number of rows updated (0 if the user has no stats row yet)
+     */
+    @Modifying
+    @Query("UPDATE UserStats s SET s.uniqueViewers = s.uniqueViewers + :delta WHERE s.userId = :userId")
+    int addUniqueViewers(@Param("userId") Long userId, @Param("delta") long delta);
+}
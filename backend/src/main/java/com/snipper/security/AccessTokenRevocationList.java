@@ -0,0 +1,118 @@
+package com.snipper.security;
+
+import com.snipper.model.RevokedAccessToken;
+import com.snipper.repository.RevokedAccessTokenRepository;
+import com.snipper.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of access tokens revoked before expiry, checked on every request.
+ *
+ * A Bloom filter answers the common case (token not revoked) without touching the exact
+ * set; only possible hits are confirmed against it. Revocations are persisted so other
+ * instances pick them up on their next reload, and expired ones are dropped when the
+ * filter is rebuilt.
+ */
+@Component
+public class AccessTokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenRevocationList.class);
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int expectedSize;
+    private final double falsePositiveRate;
+
+    private record State(BloomFilter filter, Map<String, Long> expiryByJti) {}
+
+    private volatile State state;
+
+    @Autowired
+    public AccessTokenRevocationList(RevokedAccessTokenRepository revokedAccessTokenRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${snipper.security.revoked-tokens.expected-size:10000}") int expectedSize,
+                                     @Value("${snipper.security.revoked-tokens.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.state = new State(new BloomFilter(expectedSize, falsePositiveRate), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Check whether an access token has been revoked
+     * @param jti the token's JWT ID
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String jti) {
+        State current = state;
+        return current.filter().mightContain(jti) && current.expiryByJti().containsKey(jti);
+    }
+
+    /**
+     * Revoke an access token until it expires; must run in a read-write transaction
+     * @param jti the token's JWT ID
+     * @param expiresAt the token's expiry
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        revokedAccessTokenRepository.save(new RevokedAccessToken(jti, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())));
+        add(jti, expiresAt.toEpochMilli());
+    }
+
+    /**
+     * Rebuild the filter from persisted revocations, dropping expired ones
+     */
+    @Scheduled(fixedDelayString = "${snipper.security.revoked-tokens.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, Long> persisted = new ConcurrentHashMap<>();
+            for (RevokedAccessToken revoked : revokedAccessTokenRepository.findUnexpired(now)) {
+                persisted.put(revoked.getJti(), revoked.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            rebuild(persisted);
+            transactionTemplate.executeWithoutResult(status -> revokedAccessTokenRepository.deleteExpired(now));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reload revoked access tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of revoked tokens held, including expired ones not yet purged
+     */
+    public int size() {
+        return state.expiryByJti().size();
+    }
+
+    private synchronized void add(String jti, long expiresAtMillis) {
+        State current = state;
+        current.expiryByJti().put(jti, expiresAtMillis);
+        current.filter().add(jti);
+    }
+
+    private synchronized void rebuild(Map<String, Long> persisted) {
+        long now = System.currentTimeMillis();
+        // Keep local revocations the reload did not see yet; revocations are never undone
+        state.expiryByJti().forEach((jti, expiry) -> {
+            if (expiry > now) {
+                persisted.putIfAbsent(jti, expiry);
+            }
+        });
+        BloomFilter filter = new BloomFilter(Math.max(expectedSize, persisted.size() * 2), falsePositiveRate);
+        persisted.keySet().forEach(filter::add);
+        state = new State(filter, persisted);
+    }
+}
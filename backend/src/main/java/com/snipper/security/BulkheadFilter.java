@@ -0,0 +1,128 @@
+package com.snipper.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Security filter holding each request in its endpoint group's bulkhead for as long as it
+ * runs, including the asynchronous part of Callable and streaming handlers.
+ *
+ * Requests over the group's current limit are shed with a 503 and Retry-After before any
+ * work is done. Server errors and timeouts count as overload and lower the limit.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BulkheadFilter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter.Bulkhead bulkhead = concurrencyLimiter.resolve(request.getMethod(), request.getServletPath());
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire(bulkhead)) {
+            reject(request, response, bulkhead);
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(bulkhead, startedAt, released));
+            } else if (released.compareAndSet(false, true)) {
+                bulkhead.release(startedAt, failed);
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, ConcurrencyLimiter.Bulkhead bulkhead)
+            throws IOException {
+        logger.debug("Shed request to {} from bulkhead {} at limit {}", request.getServletPath(),
+                bulkhead.group().getName(), bulkhead.limit().getLimit());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(concurrencyLimiter.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", "Server is busy, please retry later");
+        body.put("path", request.getServletPath());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Releases the slot once an asynchronous request completes, errors or times out
+     */
+    private static class ReleasingListener implements AsyncListener {
+
+        private final ConcurrencyLimiter.Bulkhead bulkhead;
+        private final long startedAt;
+        private final AtomicBoolean released;
+
+        ReleasingListener(ConcurrencyLimiter.Bulkhead bulkhead, long startedAt, AtomicBoolean released) {
+            this.bulkhead = bulkhead;
+            this.startedAt = startedAt;
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(response != null && response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle, should the handler start one
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(boolean failed) {
+            // onTimeout and onError are followed by onComplete; only the first counts
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release(startedAt, failed);
+            }
+        }
+    }
+}
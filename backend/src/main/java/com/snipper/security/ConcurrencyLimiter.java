@@ -0,0 +1,109 @@
+package com.snipper.security;
+
+import com.snipper.config.BulkheadProperties;
+import com.snipper.util.AdaptiveLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkheads giving each endpoint group (e.g. search, feed reads, writes, auth) its own
+ * adaptive concurrency limit, so a slow class of requests cannot take every request thread
+ * and database connection from the others.
+ *
+ * Limits are exported as snipper.bulkhead.limit and snipper.bulkhead.inflight gauges and
+ * rejections as the snipper.bulkhead.rejected counter, all tagged with the group name.
+ */
+public class ConcurrencyLimiter {
+
+    private final BulkheadProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    /**
+     * A group's limit and rejection counter
+     * @param group the group settings
+     * @param limit the adaptive limit
+     * @param rejected counter of shed requests
+     */
+    public record Bulkhead(BulkheadProperties.Group group, AdaptiveLimit limit, Counter rejected) {
+
+        /**
+         * Give back a slot taken by {@link ConcurrencyLimiter#tryAcquire}
+         * @param startedAt System.nanoTime() when the slot was taken
+         * @param failed whether the request failed in a way that suggests overload
+         */
+        public void release(long startedAt, boolean failed) {
+            limit.release(System.nanoTime() - startedAt, failed);
+        }
+    }
+
+    public ConcurrencyLimiter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (BulkheadProperties.Group group : properties.getGroups()) {
+            AdaptiveLimit limit = new AdaptiveLimit(group.getInitialLimit(), group.getMinLimit(), group.getMaxLimit(),
+                    properties.getBackoffRatio(), TimeUnit.MILLISECONDS.toNanos(group.getLatencyTargetMs()));
+            Gauge.builder("snipper.bulkhead.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("group", group.getName()).register(meterRegistry);
+            Gauge.builder("snipper.bulkhead.inflight", limit, AdaptiveLimit::getInFlight)
+                    .tag("group", group.getName()).register(meterRegistry);
+            Counter rejected = Counter.builder("snipper.bulkhead.rejected")
+                    .tag("group", group.getName()).register(meterRegistry);
+            bulkheads.put(group.getName(), new Bulkhead(group, limit, rejected));
+        }
+    }
+
+    /**
+     * Find the bulkhead a request draws from
+     * @param method the HTTP method
+     * @param path the request path
+     * @return the bulkhead, or null if the request is not limited
+     */
+    public Bulkhead resolve(String method, String path) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            BulkheadProperties.Group group = bulkhead.group();
+            if (!group.getMethods().isEmpty() && !group.getMethods().contains(method)) {
+                continue;
+            }
+            for (String pattern : group.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return bulkhead;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take a slot in a bulkhead
+     * @param bulkhead the bulkhead
+     * @return true if the request may proceed, false if it must be shed
+     */
+    public boolean tryAcquire(Bulkhead bulkhead) {
+        if (bulkhead.limit().tryAcquire()) {
+            return true;
+        }
+        bulkhead.rejected().increment();
+        return false;
+    }
+
+    /**
+     * @param name the group name
+     * @return the group's bulkhead, or null if there is none
+     */
+    public Bulkhead getBulkhead(String name) {
+        return bulkheads.get(name);
+    }
+
+    public long getRetryAfterSeconds() {
+        return properties.getRetryAfterSeconds();
+    }
+}
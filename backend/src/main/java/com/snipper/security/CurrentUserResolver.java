@@ -0,0 +1,67 @@
+package com.snipper.security;
+
+import com.snipper.model.User;
+import com.snipper.repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Reuses the principal resolved by the authentication filter for the rest of the request,
+ * so services can refer to the current user without querying the users table.
+ */
+@Component
+public class CurrentUserResolver {
+
+    private final UserRepository userRepository;
+
+    @Autowired
+    public CurrentUserResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Get the principal of the current request
+     * @return optional principal, empty for anonymous requests
+     */
+    public Optional<CustomUserPrincipal> currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof CustomUserPrincipal principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get an uninitialized reference to the named user if it is the current principal
+     * @param username the username
+     * @return optional user reference usable as a query parameter or association; empty if the
+     *         name does not belong to the current principal
+     */
+    public Optional<User> referenceFor(String username) {
+        return currentPrincipal()
+                .filter(principal -> principal.getUsername().equals(username))
+                .map(principal -> userRepository.getReferenceById(principal.getId()));
+    }
+
+    /**
+     * Get a user's username, answering from the current principal when the entity is an
+     * uninitialized proxy of that user
+     * @param user the user entity or proxy
+     * @return the username
+     */
+    public String usernameOf(User user) {
+        if (!Hibernate.isInitialized(user)) {
+            Optional<CustomUserPrincipal> principal = currentPrincipal();
+            if (principal.isPresent() && principal.get().getId().equals(user.getId())) {
+                return principal.get().getUsername();
+            }
+        }
+        return user.getUsername();
+    }
+}
@@ -4,40 +4,81 @@ import com.snipper.model.User;
 import com.snipper.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    /**
+     * Load a user for login; always reads the database and refreshes the principal cache
+     */
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         // Try to find user by username first
         User user = userRepository.findByUsernameAndIsActiveTrue(usernameOrEmail)
                 .orElse(null);
-        
+
         // If not found by username, try to find by email
         if (user == null) {
             user = userRepository.findByEmailAndIsActiveTrue(usernameOrEmail)
                     .orElse(null);
         }
-        
+
         // If still not found, throw exception
         if (user == null) {
             throw new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail);
         }
 
-        return CustomUserPrincipal.create(user);
+        CustomUserPrincipal principal = CustomUserPrincipal.create(user);
+        principalCache.put(principal);
+        return principal;
+    }
+
+    /**
+     * Load the principal named by an already verified token, served from the principal cache when possible
+     */
+    public UserDetails loadAuthenticatedUser(String usernameOrEmail) throws UsernameNotFoundException {
+        CustomUserPrincipal cached = principalCache.getByLogin(usernameOrEmail);
+        if (cached != null) {
+            return cached;
+        }
+        return loadUserByUsername(usernameOrEmail);
     }
 
     public UserDetails loadUserById(Long id) {
+        CustomUserPrincipal cached = principalCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
 
-        return CustomUserPrincipal.create(user);
+        CustomUserPrincipal principal = CustomUserPrincipal.create(user);
+        if (Boolean.TRUE.equals(user.getIsActive())) {
+            principalCache.put(principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Store a password rehashed on login, e.g. after the BCrypt cost factor was raised
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserPrincipal principal = (CustomUserPrincipal) user;
+        userRepository.updatePassword(principal.getId(), newPassword);
+        principalCache.evict(principal.getId());
+        return new CustomUserPrincipal(principal.getId(), principal.getUsername(), principal.getEmail(), newPassword,
+                principal.isEnabled(), principal.getTokenVersion(), principal.getAuthorities());
     }
-}
\ No newline at end of file
+}
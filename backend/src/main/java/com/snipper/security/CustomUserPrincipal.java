@@ -5,8 +5,10 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 public class CustomUserPrincipal implements UserDetails {
@@ -15,14 +17,20 @@ public class CustomUserPrincipal implements UserDetails {
     private String email;
     private String password;
     private Boolean isActive;
+    private int tokenVersion;
     private Collection<? extends GrantedAuthority> authorities;
 
     public CustomUserPrincipal(Long id, String username, String email, String password, Boolean isActive, Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, isActive, 0, authorities);
+    }
+
+    public CustomUserPrincipal(Long id, String username, String email, String password, Boolean isActive, int tokenVersion, Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.isActive = isActive;
+        this.tokenVersion = tokenVersion;
         this.authorities = authorities;
     }
 
@@ -37,10 +45,22 @@ public class CustomUserPrincipal implements UserDetails {
                 user.getEmail(),
                 user.getPassword(),
                 user.getIsActive(),
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0,
                 authorities
         );
     }
 
+    /**
+     * Build a principal from the claims of a verified token, without email or password
+     */
+    public static CustomUserPrincipal fromToken(Long id, String username, Collection<String> roles, int tokenVersion) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return new CustomUserPrincipal(id, username, null, null, true, tokenVersion, authorities);
+    }
+
     public Long getId() {
         return id;
     }
@@ -49,6 +69,10 @@ public class CustomUserPrincipal implements UserDetails {
         return email;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getUsername() {
         return username;
@@ -1,5 +1,7 @@
 package com.snipper.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,9 +10,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -28,22 +33,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private TokenVerifier tokenVerifier;
+
+    @Autowired
+    private AccessTokenRevocationList revocationList;
+
+    // Lets async dispatches, which skip this filter, see the authentication of the original request
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
-
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (StringUtils.hasText(jwt)) {
+                UserDetails userDetails = resolvePrincipal(tokenVerifier.verify(jwt));
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContext context = SecurityContextHolder.getContext();
+                    context.setAuthentication(authentication);
+                    securityContextRepository.saveContext(context, request, response);
+                }
             }
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.debug("Rejected invalid JWT: {}", ex.getMessage());
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
         }
@@ -51,6 +72,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Build the principal straight from self-contained claims, checking revocation against the
+     * in-memory revocation list and version map; older tokens and a not yet loaded map fall back
+     * to a user lookup
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        if (claims.getId() != null && revocationList.isRevoked(claims.getId())) {
+            return null;
+        }
+        CustomUserPrincipal fromClaims = jwtUtil.toPrincipal(claims);
+        if (fromClaims == null) {
+            return customUserDetailsService.loadAuthenticatedUser(claims.getSubject());
+        }
+        if (tokenVersionRegistry.isLoaded()) {
+            return tokenVersionRegistry.isCurrent(fromClaims.getId(), fromClaims.getTokenVersion()) ? fromClaims : null;
+        }
+        UserDetails loaded = customUserDetailsService.loadUserById(fromClaims.getId());
+        if (loaded instanceof CustomUserPrincipal principal && principal.isEnabled()
+                && principal.getTokenVersion() <= fromClaims.getTokenVersion()) {
+            return principal;
+        }
+        return null;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,28 +1,108 @@
 package com.snipper.security;
 
+import com.snipper.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    // Claims of self-contained tokens, from which the principal is rebuilt without a user lookup
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${spring.security.jwt.secret}")
     private String secret;
 
     @Value("${spring.security.jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // HS256 tokens without a key ID are accepted only if issued before this instant, the deploy
+    // that moved to ES256, and only until one token lifetime after it; unset rejects them all
+    @Value("${snipper.security.jwt.legacy-hmac-cutoff:}")
+    private String legacyHmacCutoff;
+
+    @Autowired
+    private SigningKeyManager signingKeyManager;
+
+    // Built once on first use, after field injection: the legacy key needs the secret and
+    // the parser resolves ES256 keys through the signing key manager
+    private volatile SecretKey legacyHmacKey;
+    private volatile JwtParser parser;
+
+    private SecretKey getLegacyHmacKey() {
+        SecretKey key = legacyHmacKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            legacyHmacKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            return resolveVerificationKey(header, claims);
+                        }
+                    })
+                    .build();
+            parser = jwtParser;
+        }
+        return jwtParser;
+    }
+
+    private Key resolveVerificationKey(JwsHeader<?> header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid != null) {
+            Key key = signingKeyManager.verificationKey(kid);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown signing key: " + kid);
+            }
+            return key;
+        }
+        if (SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm()) && isLegacyHmacAccepted(claims)) {
+            return getLegacyHmacKey();
+        }
+        throw new UnsupportedJwtException("Token has no key ID");
+    }
+
+    private boolean isLegacyHmacAccepted(Claims claims) {
+        if (!StringUtils.hasText(legacyHmacCutoff)) {
+            return false;
+        }
+        Instant cutoff;
+        try {
+            cutoff = Instant.parse(legacyHmacCutoff.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("Invalid snipper.security.jwt.legacy-hmac-cutoff: " + legacyHmacCutoff, e);
+        }
+        // Claims are not verified yet, but a forged issue time still fails the signature check
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null
+                && issuedAt.toInstant().isBefore(cutoff)
+                && Instant.now().isBefore(cutoff.plusMillis(expiration));
     }
 
     public String extractUsername(String token) {
@@ -39,34 +119,82 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verify a token and return its claims in a single parse
+     * @param token the token
+     * @return the verified claims
+     * @throws JwtException if the signature is invalid or the token has expired
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    /**
+     * Get the token version a token was issued with
+     * @param token the token
+     * @return the version, or null for tokens issued without one
+     */
+    public Integer extractTokenVersion(String token) {
+        Number version = extractClaim(token, claims -> claims.get(CLAIM_TOKEN_VERSION, Number.class));
+        return version != null ? version.intValue() : null;
+    }
+
+    /**
+     * Rebuild the principal carried by verified claims
+     * @param claims the verified claims
+     * @return the principal, or null if the token predates self-contained claims
+     */
+    @SuppressWarnings("unchecked")
+    public CustomUserPrincipal toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number version = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        List<String> roles = claims.get(CLAIM_ROLES, List.class);
+        if (userId == null || version == null || roles == null) {
+            return null;
+        }
+        return CustomUserPrincipal.fromToken(userId.longValue(), claims.getSubject(), roles, version.intValue());
+    }
+
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof CustomUserPrincipal principal) {
+            claims.put(CLAIM_USER_ID, principal.getId());
+            claims.put(CLAIM_ROLES, principal.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList());
+            claims.put(CLAIM_TOKEN_VERSION, principal.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
+    public String generateToken(User user) {
+        return generateToken(CustomUserPrincipal.create(user));
+    }
+
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, username);
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        SigningKeyManager.Key key = signingKeyManager.signingKey();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
+                .signWith(key.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
@@ -77,10 +205,7 @@ public class JwtUtil {
 
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            getParser().parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,132 @@
+package com.snipper.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, time-limited cache of authenticated principals keyed by user ID, with a
+ * secondary index from username and email to ID.
+ *
+ * Reads are lock-free. Entries expire after a fixed TTL and are evicted explicitly when
+ * a user's profile changes.
+ */
+@Component
+public class PrincipalCache {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<Long, Entry> principalsById = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByLogin = new ConcurrentHashMap<>();
+
+    private record Entry(CustomUserPrincipal principal, long expiresAt) {}
+
+    @Autowired
+    public PrincipalCache(@Value("${snipper.security.principal-cache.ttl-ms:60000}") long ttlMillis,
+                          @Value("${snipper.security.principal-cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get a cached principal by username or email
+     * @param login the username or email
+     * @return the principal, or null if absent or expired
+     */
+    public CustomUserPrincipal getByLogin(String login) {
+        Long id = idsByLogin.get(login);
+        if (id == null) {
+            return null;
+        }
+        CustomUserPrincipal principal = getById(id);
+        // The mapping may be stale after a username or email change
+        if (principal == null || !(login.equals(principal.getUsername()) || login.equals(principal.getEmail()))) {
+            idsByLogin.remove(login, id);
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Get a cached principal by user ID
+     * @param id the user ID
+     * @return the principal, or null if absent or expired
+     */
+    public CustomUserPrincipal getById(Long id) {
+        Entry entry = principalsById.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() > 0) {
+            principalsById.remove(id, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    /**
+     * Cache a principal under its ID, username and email
+     * @param principal the principal to cache
+     */
+    public void put(CustomUserPrincipal principal) {
+        if (principal == null || principal.getId() == null || maxSize <= 0) {
+            return;
+        }
+        if (principalsById.size() >= maxSize) {
+            evictToFit();
+        }
+        principalsById.put(principal.getId(), new Entry(principal, System.nanoTime() + ttlNanos));
+        idsByLogin.put(principal.getUsername(), principal.getId());
+        if (principal.getEmail() != null) {
+            idsByLogin.put(principal.getEmail(), principal.getId());
+        }
+    }
+
+    /**
+     * Drop a user's cached principal
+     * @param id the user ID
+     */
+    public void evict(Long id) {
+        Entry entry = principalsById.remove(id);
+        if (entry != null) {
+            idsByLogin.remove(entry.principal().getUsername(), id);
+            if (entry.principal().getEmail() != null) {
+                idsByLogin.remove(entry.principal().getEmail(), id);
+            }
+        }
+    }
+
+    /**
+     * Drop all cached principals
+     */
+    public void clear() {
+        principalsById.clear();
+        idsByLogin.clear();
+    }
+
+    /**
+     * @return number of cached principals, including expired ones not yet purged
+     */
+    public int size() {
+        return principalsById.size();
+    }
+
+    private void evictToFit() {
+        long now = System.nanoTime();
+        principalsById.entrySet().removeIf(e -> now - e.getValue().expiresAt() > 0);
+        if (principalsById.size() >= maxSize) {
+            // Still full of live entries: drop an arbitrary tenth rather than tracking recency on every read
+            Iterator<Long> ids = principalsById.keySet().iterator();
+            int toDrop = principalsById.size() - maxSize + Math.max(1, maxSize / 10);
+            while (toDrop-- > 0 && ids.hasNext()) {
+                ids.next();
+                ids.remove();
+            }
+        }
+        idsByLogin.values().removeIf(id -> !principalsById.containsKey(id));
+    }
+}
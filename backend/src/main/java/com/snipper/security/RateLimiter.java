@@ -0,0 +1,193 @@
+package com.snipper.security;
+
+import com.snipper.config.RateLimitProperties;
+import com.snipper.model.RateLimitBucket;
+import com.snipper.repository.RateLimitBucketRepository;
+import com.snipper.util.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter keyed by endpoint group and client (user ID, or IP address
+ * for anonymous requests).
+ *
+ * Buckets live in a concurrent map and are consumed with compare-and-set, so the request
+ * path takes no locks; idle buckets are evicted periodically. When shared buckets are
+ * enabled, each replica periodically pushes what it consumed to a locked database row and
+ * lowers its local bucket to the global balance, so limits hold across replicas to within
+ * one sync interval.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final RateLimitProperties properties;
+    private final RateLimitBucketRepository rateLimitBucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Outcome of a rate-limited request
+     * @param allowed whether the request may proceed
+     * @param limit bucket capacity
+     * @param remaining tokens left after this request
+     * @param resetSeconds seconds until the bucket is full again
+     * @param retryAfterSeconds seconds until the next token, zero when allowed
+     * @param policy the RateLimit-Policy header value
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds,
+                           long retryAfterSeconds, String policy) {}
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties,
+                       RateLimitBucketRepository rateLimitBucketRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.rateLimitBucketRepository = rateLimitBucketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Take a token for a request
+     * @param path the request path
+     * @param clientKey the client identity, e.g. "user:42" or "ip:203.0.113.7"
+     * @return the decision, or null if the path is not rate limited
+     */
+    public Decision tryAcquire(String path, String clientKey) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        RateLimitProperties.Group group = resolveGroup(path);
+        if (group == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = bucket(group.getName() + ":" + clientKey, group, now);
+        boolean allowed = bucket.tryConsume(now);
+        long window = (long) Math.ceil(group.getCapacity() / group.getRefillPerSecond());
+        return new Decision(allowed, group.getCapacity(), (long) Math.floor(bucket.getTokens(now)),
+                toSeconds(bucket.nanosUntilFull(now)), allowed ? 0 : Math.max(1, toSeconds(bucket.nanosUntilAvailable(now))),
+                group.getCapacity() + ";w=" + window);
+    }
+
+    /**
+     * Find the first group whose paths match
+     * @param path the request path
+     * @return the group, or null if none matches
+     */
+    public RateLimitProperties.Group resolveGroup(String path) {
+        for (RateLimitProperties.Group group : properties.getGroups()) {
+            for (String pattern : group.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drop buckets that are full again and nobody has used within the idle period
+     */
+    @Scheduled(fixedDelayString = "${snipper.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long cutoff = now - TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+        buckets.values().removeIf(bucket -> bucket.getLastAccess() - cutoff < 0 && bucket.nanosUntilFull(now) == 0);
+        if (properties.getShared().isEnabled()) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        rateLimitBucketRepository.deleteIdle(System.currentTimeMillis() - properties.getIdleEvictionMs()));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to purge idle shared rate limit buckets: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Push local consumption to the shared buckets and adopt the global balances
+     */
+    @Scheduled(fixedDelayString = "${snipper.rate-limit.shared.sync-interval-ms:1000}")
+    public void syncShared() {
+        if (!properties.isEnabled() || !properties.getShared().isEnabled()) {
+            return;
+        }
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            TokenBucket bucket = entry.getValue();
+            long consumed = bucket.drainConsumed();
+            if (consumed == 0) {
+                continue;
+            }
+            try {
+                double global = transactionTemplate.execute(status -> pushConsumption(entry.getKey(), bucket, consumed));
+                bucket.limitTokens(global, System.nanoTime());
+            } catch (RuntimeException e) {
+                // Typically two replicas creating the same row; the next sync pushes this consumption again
+                bucket.restoreConsumed(consumed);
+                logger.debug("Failed to sync rate limit bucket {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return number of buckets held in memory
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private double pushConsumption(String key, TokenBucket bucket, long consumed) {
+        long nowMs = System.currentTimeMillis();
+        RateLimitBucket row = rateLimitBucketRepository.findForUpdate(key)
+                .orElseGet(() -> new RateLimitBucket(key, bucket.getCapacity(), nowMs));
+        double elapsedSeconds = Math.max(0, nowMs - row.getRefilledAtMs()) / 1000d;
+        double refilled = Math.min(bucket.getCapacity(), row.getTokens() + elapsedSeconds * bucket.getRefillPerSecond());
+        row.setTokens(Math.max(0, refilled - consumed));
+        row.setRefilledAtMs(nowMs);
+        rateLimitBucketRepository.save(row);
+        return row.getTokens();
+    }
+
+    private TokenBucket bucket(String key, RateLimitProperties.Group group, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxBuckets()) {
+            evictToFit(now);
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(group.getCapacity(), group.getRefillPerSecond(), now));
+    }
+
+    private void evictToFit(long now) {
+        // Full buckets carry no state worth keeping
+        buckets.values().removeIf(bucket -> bucket.nanosUntilFull(now) == 0);
+        if (buckets.size() >= properties.getMaxBuckets()) {
+            // Still full of active clients: drop an arbitrary tenth rather than tracking recency
+            Iterator<String> keys = buckets.keySet().iterator();
+            int toDrop = buckets.size() - properties.getMaxBuckets() + Math.max(1, properties.getMaxBuckets() / 10);
+            while (toDrop-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+}
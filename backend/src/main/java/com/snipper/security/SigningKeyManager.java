@@ -0,0 +1,382 @@
+package com.snipper.security;
+
+import com.snipper.model.SigningKey;
+import com.snipper.repository.SigningKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Manages the rotating ES256 key pairs that sign access tokens and publishes their public
+ * halves as a JWK set.
+ *
+ * Each key is published one pre-publication window before it starts signing, so verifiers
+ * that cache the JWK set already know it, signs for one rotation interval, and stays
+ * published until every token it signed has expired. Keys are shared between instances
+ * through the jwt_signing_keys table, with private keys encrypted under the JWT secret.
+ * Keys are generated only under the jwt_signing_key_lock row, after re-reading the table,
+ * so instances starting together agree on one key. A token naming a key this instance has
+ * not loaded yet triggers a reload, at most once per unknown-kid-reload interval.
+ */
+@Component
+public class SigningKeyManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyManager.class);
+
+    public static final String ALGORITHM = "ES256";
+
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SecretKeySpec encryptionKey;
+    private final Duration tokenLifetime;
+    private final Duration rotationInterval;
+    private final Duration prepublishWindow;
+    private final long unknownKidReloadNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong lastUnknownKidReload;
+
+    /**
+     * A loaded key; the private key is null if it could not be decrypted
+     */
+    public record Key(String kid, PublicKey publicKey, PrivateKey privateKey,
+                      LocalDateTime activateAt, LocalDateTime retireAt, LocalDateTime expireAt) {}
+
+    private record KeySet(Map<String, Key> byKid, Map<String, Object> jwks, String etag) {}
+
+    // Serializes reloads and rotations within this instance; the lock row does so across instances
+    private final ReentrantLock keyLock = new ReentrantLock();
+
+    private volatile KeySet keySet = new KeySet(Map.of(), Map.of("keys", List.of()), "\"empty\"");
+
+    @Autowired
+    public SigningKeyManager(SigningKeyRepository signingKeyRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${spring.security.jwt.secret}") String secret,
+                             @Value("${spring.security.jwt.expiration}") long tokenLifetimeMillis,
+                             @Value("${snipper.security.jwt.keys.rotation-interval-ms:604800000}") long rotationIntervalMillis,
+                             @Value("${snipper.security.jwt.keys.prepublish-ms:3600000}") long prepublishMillis,
+                             @Value("${snipper.security.jwt.keys.unknown-kid-reload-ms:5000}") long unknownKidReloadMillis) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encryptionKey = new SecretKeySpec(sha256(secret), "AES");
+        this.tokenLifetime = Duration.ofMillis(tokenLifetimeMillis);
+        this.rotationInterval = Duration.ofMillis(rotationIntervalMillis);
+        this.prepublishWindow = Duration.ofMillis(prepublishMillis);
+        this.unknownKidReloadNanos = Duration.ofMillis(unknownKidReloadMillis).toNanos();
+        this.lastUnknownKidReload = new AtomicLong(System.nanoTime() - unknownKidReloadNanos);
+    }
+
+    /**
+     * Get the key new tokens are signed with, generating the first key if there is none
+     * @return the active signing key
+     */
+    public Key signingKey() {
+        Key key = findActive();
+        if (key == null) {
+            // Typically the first token after startup, before the first refresh has run
+            try {
+                rotateIfDue();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to load JWT signing keys: {}", e.getMessage());
+            }
+            key = findActive();
+            if (key == null) {
+                throw new IllegalStateException("No active JWT signing key");
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Get the public key for a key ID, reloading the stored keys if the ID is unknown
+     * @param kid the key ID from the token header
+     * @return the public key, or null if unknown or expired
+     */
+    public PublicKey verificationKey(String kid) {
+        Key key = keySet.byKid().get(kid);
+        if (key == null && reloadForUnknownKid()) {
+            key = keySet.byKid().get(kid);
+        }
+        return key != null && key.expireAt().isAfter(LocalDateTime.now()) ? key.publicKey() : null;
+    }
+
+    /**
+     * @return the published JWK set
+     */
+    public Map<String, Object> getJwks() {
+        return keySet.jwks();
+    }
+
+    /**
+     * @return entity tag of the published JWK set
+     */
+    public String getJwksEtag() {
+        return keySet.etag();
+    }
+
+    /**
+     * @return how long verifiers may cache the JWK set; half the pre-publication window, so new keys are seen before use
+     */
+    public Duration getJwksMaxAge() {
+        return prepublishWindow.dividedBy(2);
+    }
+
+    /**
+     * Reload the published keys from the database, then rotate if the next key is due
+     */
+    @Scheduled(fixedDelayString = "${snipper.security.jwt.keys.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            reload();
+            rotateIfDue();
+            transactionTemplate.executeWithoutResult(status -> signingKeyRepository.deleteExpired(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh JWT signing keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Generate the next key once the newest one retires within the pre-publication window
+     */
+    public void rotateIfDue() {
+        keyLock.lock();
+        try {
+            rotateIfDueLocked();
+        } finally {
+            keyLock.unlock();
+        }
+    }
+
+    private void rotateIfDueLocked() {
+        if (latestRetireIfDue(keySet.byKid()) == null) {
+            return;
+        }
+        Map<String, Key> keys = transactionTemplate.execute(status -> {
+            if (signingKeyRepository.lockRotation().isEmpty()) {
+                throw new IllegalStateException("JWT signing key lock row is missing");
+            }
+            // Another instance may have rotated while we waited for the lock
+            Map<String, Key> stored = loadStored();
+            LocalDateTime latestRetire = latestRetireIfDue(stored);
+            if (latestRetire == null) {
+                return stored;
+            }
+
+            // Without a usable key there is nothing to overlap with, so the first key activates immediately
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime activateAt = latestRetire.isAfter(now) ? latestRetire : now;
+            LocalDateTime retireAt = activateAt.plus(rotationInterval);
+            Key key = generate(activateAt, retireAt, retireAt.plus(tokenLifetime));
+            signingKeyRepository.save(toEntity(key));
+            logger.info("Generated JWT signing key {} active from {}", key.kid(), activateAt);
+            stored.put(key.kid(), key);
+            return stored;
+        });
+        publish(keys);
+    }
+
+    /**
+     * @return the latest retirement of a usable key (LocalDateTime.MIN if there is none) if it
+     *         falls within the pre-publication window, or null if no new key is due
+     */
+    private LocalDateTime latestRetireIfDue(Map<String, Key> keys) {
+        LocalDateTime latestRetire = keys.values().stream()
+                .filter(key -> key.privateKey() != null)
+                .map(Key::retireAt)
+                .max(Comparator.naturalOrder())
+                .orElse(LocalDateTime.MIN);
+        return latestRetire.isAfter(LocalDateTime.now().plus(prepublishWindow)) ? null : latestRetire;
+    }
+
+    private boolean reloadForUnknownKid() {
+        long last = lastUnknownKidReload.get();
+        long now = System.nanoTime();
+        if (now - last < unknownKidReloadNanos || !lastUnknownKidReload.compareAndSet(last, now)) {
+            return false;
+        }
+        try {
+            reload();
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reload JWT signing keys: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private Key findActive() {
+        LocalDateTime now = LocalDateTime.now();
+        Key active = null;
+        for (Key key : keySet.byKid().values()) {
+            if (key.privateKey() != null && !key.activateAt().isAfter(now) && key.retireAt().isAfter(now)
+                    && (active == null || key.activateAt().isAfter(active.activateAt()))) {
+                active = key;
+            }
+        }
+        return active;
+    }
+
+    private void reload() {
+        keyLock.lock();
+        try {
+            reloadLocked();
+        } finally {
+            keyLock.unlock();
+        }
+    }
+
+    private void reloadLocked() {
+        publish(loadStored());
+    }
+
+    private Map<String, Key> loadStored() {
+        Map<String, Key> keys = new HashMap<>();
+        for (SigningKey entity : signingKeyRepository.findPublished(LocalDateTime.now())) {
+            try {
+                keys.put(entity.getKid(), fromEntity(entity));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                logger.warn("Skipping unreadable JWT signing key {}: {}", entity.getKid(), e.getMessage());
+            }
+        }
+        return keys;
+    }
+
+    private void publish(Map<String, Key> keys) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Key> published = new ArrayList<>(keys.values());
+        published.removeIf(key -> !key.expireAt().isAfter(now));
+        published.sort(Comparator.comparing(Key::activateAt));
+
+        List<Map<String, Object>> jwks = new ArrayList<>(published.size());
+        StringBuilder kids = new StringBuilder();
+        Map<String, Key> byKid = new HashMap<>();
+        for (Key key : published) {
+            byKid.put(key.kid(), key);
+            jwks.add(toJwk(key));
+            kids.append(key.kid()).append(',');
+        }
+        String etag = "\"" + HexFormat.of().formatHex(sha256(kids.toString())).substring(0, 16) + "\"";
+        keySet = new KeySet(Map.copyOf(byKid), Map.of("keys", List.copyOf(jwks)), etag);
+    }
+
+    private Map<String, Object> toJwk(Key key) {
+        ECPublicKey ecKey = (ECPublicKey) key.publicKey();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", key.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", ALGORITHM);
+        jwk.put("x", base64Url(ecKey.getW().getAffineX()));
+        jwk.put("y", base64Url(ecKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    private Key generate(LocalDateTime activateAt, LocalDateTime retireAt, LocalDateTime expireAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+            KeyPair pair = generator.generateKeyPair();
+            return new Key(UUID.randomUUID().toString(), pair.getPublic(), pair.getPrivate(), activateAt, retireAt, expireAt);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("EC key generation not available", e);
+        }
+    }
+
+    private SigningKey toEntity(Key key) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return new SigningKey(key.kid(), ALGORITHM,
+                encoder.encodeToString(key.publicKey().getEncoded()),
+                encoder.encodeToString(encrypt(key.privateKey().getEncoded())),
+                key.activateAt(), key.retireAt(), key.expireAt());
+    }
+
+    private Key fromEntity(SigningKey entity) throws GeneralSecurityException {
+        KeyFactory factory = KeyFactory.getInstance("EC");
+        Base64.Decoder decoder = Base64.getDecoder();
+        PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(decoder.decode(entity.getPublicKey())));
+        PrivateKey privateKey = null;
+        try {
+            privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(decoder.decode(entity.getPrivateKey()))));
+        } catch (GeneralSecurityException e) {
+            // Encrypted under a different secret: still usable for verification
+            logger.warn("Cannot decrypt JWT signing key {}; using it for verification only", entity.getKid());
+        }
+        return new Key(entity.getKid(), publicKey, privateKey, entity.getActivateAt(), entity.getRetireAt(), entity.getExpireAt());
+    }
+
+    private byte[] encrypt(byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plain);
+            return ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt JWT signing key", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, stored, 0, GCM_IV_BYTES));
+        return cipher.doFinal(stored, GCM_IV_BYTES, stored.length - GCM_IV_BYTES);
+    }
+
+    private static String base64Url(BigInteger coordinate) {
+        // JWK coordinates are fixed-length unsigned big-endian
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[32];
+        int copy = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - copy, fixed, 32 - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
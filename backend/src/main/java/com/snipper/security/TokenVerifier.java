@@ -0,0 +1,89 @@
+package com.snipper.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies bearer tokens once and remembers the verified claims until the token expires,
+ * so clients repeating the same token skip the parse and signature check on later requests.
+ *
+ * Entries are keyed by the token's signature segment, which is computed over the header
+ * and payload; a hit still requires the whole token to match. Revocation is not
+ * cached here and is checked by the caller on every request.
+ */
+@Component
+public class TokenVerifier {
+
+    private final JwtUtil jwtUtil;
+    private final int maxSize;
+    private final Map<String, Entry> verified = new ConcurrentHashMap<>();
+
+    private record Entry(String token, Claims claims, long expiresAtMillis) {}
+
+    @Autowired
+    public TokenVerifier(JwtUtil jwtUtil,
+                         @Value("${snipper.security.verified-tokens.max-size:10000}") int maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Verify a token, answering from the cache of recently verified tokens when possible
+     * @param token the token
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the signature is invalid or the token has expired
+     */
+    public Claims verify(String token) {
+        String key = signatureOf(token);
+        Entry entry = key != null ? verified.get(key) : null;
+        if (entry != null) {
+            if (entry.token().equals(token) && System.currentTimeMillis() < entry.expiresAtMillis()) {
+                return entry.claims();
+            }
+            verified.remove(key, entry);
+        }
+
+        Claims claims = jwtUtil.parseClaims(token);
+        Date expiration = claims.getExpiration();
+        if (key != null && expiration != null && maxSize > 0) {
+            if (verified.size() >= maxSize) {
+                evictToFit();
+            }
+            verified.put(key, new Entry(token, claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    /**
+     * @return number of cached tokens, including expired ones not yet purged
+     */
+    public int size() {
+        return verified.size();
+    }
+
+    private String signatureOf(String token) {
+        int lastDot = token.lastIndexOf('.');
+        return lastDot >= 0 && lastDot < token.length() - 1 ? token.substring(lastDot + 1) : null;
+    }
+
+    private void evictToFit() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(e -> now >= e.expiresAtMillis());
+        if (verified.size() >= maxSize) {
+            // Still full of live tokens: drop an arbitrary tenth, as the principal cache does
+            Iterator<String> keys = verified.keySet().iterator();
+            int toDrop = verified.size() - maxSize + Math.max(1, maxSize / 10);
+            while (toDrop-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+}
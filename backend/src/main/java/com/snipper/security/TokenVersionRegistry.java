@@ -0,0 +1,108 @@
+package com.snipper.security;
+
+import com.snipper.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory map of current token versions, used to revoke self-contained tokens without
+ * reading the users table on every request.
+ *
+ * Only users whose version was bumped or who were deactivated are held; every other user is
+ * implicitly at version 0. The map is reloaded periodically so changes made by other instances
+ * take effect within one refresh interval. Bumps made on this instance apply immediately and
+ * are kept on top of reloaded data until the database catches up with them.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+
+    private volatile Map<Long, Integer> versions = Map.of();
+    private volatile boolean loaded;
+
+    // Versions bumped on this instance that the last reload did not yet reflect
+    private final Map<Long, Integer> localBumps = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenVersionRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @return true once the map has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Check whether a token version is still current for a user
+     * @param userId the user ID
+     * @param tokenVersion the version carried by the token
+     * @return true if the token has not been revoked; always false before the first load
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        if (!loaded) {
+            return false;
+        }
+        Integer bumped = localBumps.get(userId);
+        if (bumped != null && tokenVersion < bumped) {
+            return false;
+        }
+        int current = versions.getOrDefault(userId, 0);
+        return current != REVOKED && tokenVersion >= current;
+    }
+
+    /**
+     * Record a user's new token version, after the surrounding transaction commits if there is one
+     * @param userId the user ID
+     * @param tokenVersion the new version
+     */
+    public void bump(Long userId, int tokenVersion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    localBumps.merge(userId, tokenVersion, Math::max);
+                }
+            });
+        } else {
+            localBumps.merge(userId, tokenVersion, Math::max);
+        }
+    }
+
+    /**
+     * Reload token versions from the users table
+     */
+    @Scheduled(fixedDelayString = "${snipper.security.token-versions.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            Map<Long, Integer> reloaded = new HashMap<>();
+            for (Object[] row : userRepository.findNonDefaultTokenStates()) {
+                Long userId = ((Number) row[0]).longValue();
+                int version = ((Number) row[1]).intValue();
+                reloaded.put(userId, Boolean.TRUE.equals(row[2]) ? version : REVOKED);
+                // Drop local bumps the database has caught up with
+                localBumps.computeIfPresent(userId, (id, bumped) -> version >= bumped ? null : bumped);
+            }
+            versions = reloaded;
+            loaded = true;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reload token versions: {}", e.getMessage());
+        }
+    }
+}
@@ -3,11 +3,18 @@ package com.snipper.service;
 import com.snipper.dto.auth.AuthResponse;
 import com.snipper.dto.auth.LoginRequest;
 import com.snipper.dto.auth.RegisterRequest;
+import com.snipper.exception.DuplicateResourceException;
+import com.snipper.exception.TooManyRequestsException;
 import com.snipper.model.User;
 import com.snipper.repository.UserRepository;
+import com.snipper.security.AccessTokenRevocationList;
 import com.snipper.security.CustomUserPrincipal;
 import com.snipper.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,6 +23,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
+
 @Service
 @Transactional
 public class AuthService {
@@ -24,35 +33,37 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocationList revocationList;
+    private final UserAvailabilityService userAvailabilityService;
+    private final UserStatsService userStatsService;
 
     @Autowired
     public AuthService(UserRepository userRepository, 
                       PasswordEncoder passwordEncoder, 
                       JwtUtil jwtUtil,
-                      AuthenticationManager authenticationManager) {
+                      AuthenticationManager authenticationManager,
+                      RefreshTokenService refreshTokenService,
+                      AccessTokenRevocationList revocationList,
+                      UserAvailabilityService userAvailabilityService,
+                      UserStatsService userStatsService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
+        this.userAvailabilityService = userAvailabilityService;
+        this.userStatsService = userStatsService;
     }
 
     /**
      * Register a new user
      * @param registerRequest the registration request
      * @return AuthResponse with JWT token and user details
-     * @throws RuntimeException if username or email already exists
+     * @throws DuplicateResourceException if username or email already exists
      */
     public AuthResponse register(RegisterRequest registerRequest) {
-        // Check if username already exists
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new RuntimeException("Username is already taken");
-        }
-
-        // Check if email already exists
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new RuntimeException("Email is already registered");
-        }
-
         // Create new user
         User user = new User();
         user.setUsername(registerRequest.getUsername());
@@ -61,12 +72,19 @@ public class AuthService {
         user.setFullName(registerRequest.getFullName());
         user.setIsActive(true);
 
-        // Save user
-        User savedUser = userRepository.save(user);
+        // Save user; the unique constraints reject taken usernames and emails in the same round trip
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUser(e);
+        }
+        userStatsService.recordUserCreated(savedUser.getId());
+        userAvailabilityService.markTaken(savedUser.getUsername(), savedUser.getEmail());
 
         // Generate JWT tokens
-        String token = jwtUtil.generateToken(savedUser.getUsername());
-        String refreshToken = jwtUtil.generateToken(savedUser.getUsername()); // For now, same as access token
+        String token = jwtUtil.generateToken(savedUser);
+        String refreshToken = refreshTokenService.issue(savedUser.getId());
 
         return new AuthResponse(token, refreshToken, savedUser.getId(), savedUser.getUsername(), savedUser.getEmail());
     }
@@ -95,47 +113,85 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found or inactive"));
 
             // Generate JWT tokens
-            String token = jwtUtil.generateToken(user.getUsername());
-            String refreshToken = jwtUtil.generateToken(user.getUsername()); // For now, same as access token
+            String token = jwtUtil.generateToken(user);
+            String refreshToken = refreshTokenService.issue(user.getId());
 
             return new AuthResponse(token, refreshToken, user.getId(), user.getUsername(), user.getEmail());
 
         } catch (AuthenticationException e) {
+            // Shedding during the user lookup surfaces wrapped in an authentication exception
+            if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                throw tooManyRequests;
+            }
             throw new RuntimeException("Invalid username or password");
         }
     }
 
     /**
-     * Refresh JWT token
-     * @param token the current JWT token
-     * @return AuthResponse with new JWT token
-     * @throws RuntimeException if token is invalid or user not found
+     * Exchange a refresh token for a new access token and a rotated refresh token
+     * @param refreshToken the current refresh token
+     * @return AuthResponse with new tokens
+     * @throws RuntimeException if the refresh token is invalid, reused or the user is inactive
      */
-    public AuthResponse refreshToken(String token) {
+    public AuthResponse refreshToken(String refreshToken) {
         try {
-            // Validate current token
-            if (!jwtUtil.validateToken(token)) {
-                throw new RuntimeException("Invalid token");
-            }
-
-            // Extract username from token
-            String username = jwtUtil.extractUsername(token);
+            // Rotate first; a reused token revokes its family even though this call fails
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
 
             // Get user details
-            User user = userRepository.findByUsernameAndIsActiveTrue(username)
+            User user = userRepository.findById(rotation.userId())
+                .filter(User::getIsActive)
                 .orElseThrow(() -> new RuntimeException("User not found or inactive"));
 
-            // Generate new JWT tokens
-            String newToken = jwtUtil.generateToken(user.getUsername());
-            String newRefreshToken = jwtUtil.generateToken(user.getUsername()); // For now, same as access token
+            // Generate new access token
+            String newToken = jwtUtil.generateToken(user);
 
-            return new AuthResponse(newToken, newRefreshToken, user.getId(), user.getUsername(), user.getEmail());
+            return new AuthResponse(newToken, rotation.refreshToken(), user.getId(), user.getUsername(), user.getEmail());
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to refresh token: " + e.getMessage());
         }
     }
 
+    /**
+     * Log out by revoking the presented access token and the refresh token family
+     * @param accessToken the access token, may be null
+     * @param refreshToken the refresh token, may be null
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtUtil.parseClaims(accessToken);
+                if (claims.getId() != null && claims.getExpiration() != null) {
+                    revocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired tokens are already unusable
+            }
+        }
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    /**
+     * Map a unique constraint violation on users to the field it was raised for
+     */
+    private DuplicateResourceException duplicateUser(DataIntegrityViolationException e) {
+        String violated = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : String.valueOf(e.getMostSpecificCause().getMessage());
+        // Some drivers append the offending row, which must not be mistaken for the column name
+        int values = violated.toUpperCase(Locale.ROOT).indexOf(" VALUES");
+        if (values >= 0) {
+            violated = violated.substring(0, values);
+        }
+        if (violated.toLowerCase(Locale.ROOT).contains("email")) {
+            return new DuplicateResourceException("Email is already registered", e);
+        }
+        return new DuplicateResourceException("Username is already taken", e);
+    }
+
     /**
      * Validate if user exists and is active
      * @param username the username to validate
@@ -0,0 +1,171 @@
+package com.snipper.service;
+
+import com.snipper.cache.ResponseCache;
+import com.snipper.model.CacheChangeLogEntry;
+import com.snipper.model.CacheEntityType;
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.repository.CacheChangeLogRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service keeping cached snippets and users consistent across instances.
+ *
+ * Writers evict their own caches and append a row to the cache change log in the writing
+ * transaction. Every instance tails the log and evicts what other instances changed from
+ * its response cache and Hibernate second-level cache, so a write is seen everywhere
+ * within about one poll interval of its commit.
+ *
+ * Log IDs are assigned at insert but become visible at commit, so a row can appear behind
+ * the position already read. Skipped IDs are therefore remembered and looked up again
+ * until gap-timeout passes, after which they are taken to be rolled back; the caches'
+ * own time to live covers anything committed later still.
+ */
+@Service
+@Transactional
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+    private static final int MAX_GAPS = 10000;
+    private static final String SNIPPET_FACETS_REGION = "snippet-facets";
+    private static final String USER_LOOKUPS_REGION = "user-lookups";
+
+    private final CacheChangeLogRepository changeLogRepository;
+    private final ResponseCache responseCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final long retentionMillis;
+    private final String origin = UUID.randomUUID().toString();
+
+    // Only touched by the poller
+    private Long position;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    @Autowired
+    public CacheInvalidationService(CacheChangeLogRepository changeLogRepository, ResponseCache responseCache,
+                                    EntityManagerFactory entityManagerFactory,
+                                    @Value("${snipper.cache.change-log.batch-size:500}") int batchSize,
+                                    @Value("${snipper.cache.change-log.gap-timeout-ms:30000}") long gapTimeoutMillis,
+                                    @Value("${snipper.cache.change-log.retention-ms:3600000}") long retentionMillis) {
+        this.changeLogRepository = changeLogRepository;
+        this.responseCache = responseCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Record a write to a snippet; must run in the writing transaction
+     * @param snippetId the snippet ID
+     * @param version the snippet's version after the write, null if deleted or unknown
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void snippetChanged(Long snippetId, Long version) {
+        responseCache.evictSnippet(snippetId);
+        changeLogRepository.save(new CacheChangeLogEntry(CacheEntityType.SNIPPET, snippetId, version, null, origin));
+    }
+
+    /**
+     * Record a write to a user; must run in the writing transaction
+     * @param userId the user ID
+     * @param username the username the profile was cached under, before any rename
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userChanged(Long userId, String username) {
+        responseCache.evictProfile(username);
+        changeLogRepository.save(new CacheChangeLogEntry(CacheEntityType.USER, userId, null, username, origin));
+    }
+
+    /**
+     * Evict what other instances changed since the last poll
+     * @return number of log entries applied
+     */
+    @Scheduled(fixedDelayString = "${snipper.cache.change-log.poll-interval-ms:1000}")
+    public int pollChanges() {
+        if (position == null) {
+            // Nothing is cached yet, so earlier changes do not matter
+            position = changeLogRepository.findLatestId().orElse(0L);
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        List<CacheChangeLogEntry> entries = new ArrayList<>();
+        gaps.values().removeIf(noticedAt -> now - noticedAt > gapTimeoutNanos);
+        if (!gaps.isEmpty()) {
+            for (CacheChangeLogEntry entry : changeLogRepository.findByIdIn(gaps.keySet())) {
+                gaps.remove(entry.getId());
+                entries.add(entry);
+            }
+        }
+
+        List<CacheChangeLogEntry> batch;
+        do {
+            batch = changeLogRepository.findAfter(position, PageRequest.of(0, batchSize));
+            for (CacheChangeLogEntry entry : batch) {
+                for (long skipped = position + 1; skipped < entry.getId() && gaps.size() < MAX_GAPS; skipped++) {
+                    gaps.put(skipped, now);
+                }
+                position = entry.getId();
+            }
+            entries.addAll(batch);
+        } while (batch.size() == batchSize);
+
+        int applied = 0;
+        for (CacheChangeLogEntry entry : entries) {
+            if (!origin.equals(entry.getOrigin())) {
+                evict(entry);
+                applied++;
+            }
+        }
+        if (applied > 0) {
+            logger.debug("Applied {} cache changes from other instances", applied);
+        }
+        return applied;
+    }
+
+    /**
+     * Delete log entries every instance has had time to poll
+     */
+    @Scheduled(cron = "${snipper.cache.change-log.purge-cron:0 */10 * * * *}")
+    public void purgeOldEntries() {
+        int deleted = changeLogRepository.deleteOlderThan(LocalDateTime.now().minus(Duration.ofMillis(retentionMillis)));
+        logger.debug("Purged {} cache change log entries", deleted);
+    }
+
+    private void evict(CacheChangeLogEntry entry) {
+        Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (entry.getEntityType() == CacheEntityType.SNIPPET) {
+            responseCache.evictSnippet(entry.getEntityId());
+            secondLevelCache.evict(Snippet.class, entry.getEntityId());
+            secondLevelCache.evictQueryRegion(SNIPPET_FACETS_REGION);
+        } else {
+            if (entry.getCacheKey() != null) {
+                responseCache.evictProfile(entry.getCacheKey());
+            }
+            secondLevelCache.evict(User.class, entry.getEntityId());
+            secondLevelCache.evictQueryRegion(USER_LOOKUPS_REGION);
+        }
+    }
+}
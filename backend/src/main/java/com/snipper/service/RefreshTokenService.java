@@ -0,0 +1,134 @@
+package com.snipper.service;
+
+import com.snipper.exception.InvalidTokenException;
+import com.snipper.model.RefreshToken;
+import com.snipper.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Service issuing and rotating opaque refresh tokens.
+ *
+ * Raw tokens are 256 random bits handed to the client once; only their SHA-256 hash is
+ * stored. Each use rotates the token within its family, and presenting an already used
+ * token is treated as theft: the whole family is revoked.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Result of a successful rotation
+     * @param userId the token owner
+     * @param refreshToken the new raw refresh token
+     */
+    public record Rotation(Long userId, String refreshToken) {}
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${snipper.security.refresh-token.ttl-ms:2592000000}") long ttlMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Issue a refresh token starting a new family
+     * @param userId the token owner
+     * @return the raw refresh token
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for a new one in the same family.
+     * Runs in its own transaction so a family revoked on reuse stays revoked when the caller fails.
+     * @param rawToken the presented refresh token
+     * @return the owner and the new refresh token
+     * @throws InvalidTokenException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findForUpdate(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Unknown refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (token.getRevokedAt() != null) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        if (token.getUsedAt() != null) {
+            logger.warn("Refresh token reuse detected for user {}, revoking family {}", token.getUserId(), token.getFamilyId());
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new InvalidTokenException("Refresh token has expired");
+        }
+
+        token.setUsedAt(now);
+        refreshTokenRepository.save(token);
+        return new Rotation(token.getUserId(), issue(token.getUserId(), token.getFamilyId()));
+    }
+
+    /**
+     * Revoke the family of a refresh token, e.g. on logout; unknown tokens are ignored
+     * @param rawToken the presented refresh token
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findForUpdate(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Delete refresh tokens past their expiry
+     */
+    @Scheduled(cron = "${snipper.security.refresh-token.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        logger.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, userId,
+                LocalDateTime.now().plus(Duration.ofMillis(ttlMillis))));
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.snipper.service;
+
+import com.snipper.dto.common.PagedResponse;
+import com.snipper.dto.snippet.SnippetRevisionResponse;
+import com.snipper.dto.snippet.SnippetRevisionSummaryResponse;
+import com.snipper.exception.ResourceNotFoundException;
+import com.snipper.model.SnippetRevision;
+import com.snipper.repository.SnippetRevisionRepository;
+import com.snipper.util.MyersDiff;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service keeping the revision history of snippet content.
+ *
+ * Each content change is stored as a line delta against the previous revision, with the
+ * full content as a keyframe every keyframe-interval revisions, so rebuilding any revision
+ * applies fewer than keyframe-interval deltas whatever the depth of the history. A change
+ * too large to diff cheaply, or whose delta would be no smaller than the content, is
+ * stored as a keyframe instead. Callers check access; nothing here looks at ownership.
+ */
+@Service
+@Transactional
+public class SnippetRevisionService {
+
+    private final SnippetRevisionRepository revisionRepository;
+    private final int keyframeInterval;
+    private final int maxDiffLines;
+
+    @Autowired
+    public SnippetRevisionService(SnippetRevisionRepository revisionRepository,
+                                  @Value("${snipper.revisions.keyframe-interval:10}") int keyframeInterval,
+                                  @Value("${snipper.revisions.max-diff-lines:2000}") int maxDiffLines) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1");
+        }
+        this.revisionRepository = revisionRepository;
+        this.keyframeInterval = keyframeInterval;
+        this.maxDiffLines = maxDiffLines;
+    }
+
+    /**
+     * Record a new snippet's content as its first revision; must run in the creating transaction
+     * @param snippetId the snippet ID
+     * @param content the snippet content
+     */
+    public void recordInitial(Long snippetId, String content) {
+        revisionRepository.save(keyframe(snippetId, 1, content));
+    }
+
+    /**
+     * Record a content change as a new revision; must run in the updating transaction
+     * @param snippetId the snippet ID
+     * @param previousContent the content before the change
+     * @param content the content after the change
+     * @return the new revision number
+     */
+    public int recordChange(Long snippetId, String previousContent, String content) {
+        Integer latest = revisionRepository.findLatestRevision(snippetId).orElse(null);
+        if (latest == null) {
+            // Snippet predates revision history; its old content becomes the first revision
+            revisionRepository.save(keyframe(snippetId, 1, previousContent));
+            latest = 1;
+        }
+
+        int revision = latest + 1;
+        String delta = (revision - 1) % keyframeInterval == 0
+                ? null
+                : MyersDiff.diff(previousContent, content, maxDiffLines);
+        if (delta == null || delta.length() >= content.length()) {
+            revisionRepository.save(keyframe(snippetId, revision, content));
+        } else {
+            revisionRepository.save(new SnippetRevision(snippetId, revision, false, delta, content.length()));
+        }
+        return revision;
+    }
+
+    /**
+     * List a snippet's revisions, newest first
+     * @param snippetId the snippet ID
+     * @param page page number
+     * @param size page size
+     * @return paged revision summaries
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<SnippetRevisionSummaryResponse> getRevisions(Long snippetId, int page, int size) {
+        Page<SnippetRevisionSummaryResponse> revisions =
+                revisionRepository.findSummariesBySnippetId(snippetId, PageRequest.of(page, size));
+        return new PagedResponse<>(
+                revisions.getContent(),
+                revisions.getNumber(),
+                revisions.getSize(),
+                revisions.getTotalElements(),
+                revisions.getTotalPages(),
+                revisions.isFirst(),
+                revisions.isLast(),
+                revisions.hasNext(),
+                revisions.hasPrevious()
+        );
+    }
+
+    /**
+     * Rebuild a revision from its keyframe and the deltas after it. Keyframes are at most
+     * keyframe-interval revisions apart, so one query for that many revisions usually
+     * fetches the whole chain; only history written under a larger interval needs a second.
+     * @param snippetId the snippet ID
+     * @param revision the revision number
+     * @return the revision with its full content
+     * @throws ResourceNotFoundException if the snippet has no such revision
+     */
+    @Transactional(readOnly = true)
+    public SnippetRevisionResponse getRevision(Long snippetId, int revision) {
+        int from = (int) Math.max(1, (long) revision - keyframeInterval + 1);
+        List<SnippetRevision> chain =
+                revisionRepository.findBySnippetIdAndRevisionBetweenOrderByRevisionAsc(snippetId, from, revision);
+        int keyframeIndex = chain.size() - 1;
+        while (keyframeIndex >= 0 && !chain.get(keyframeIndex).isKeyframe()) {
+            keyframeIndex--;
+        }
+        if (keyframeIndex >= 0) {
+            chain = chain.subList(keyframeIndex, chain.size());
+        } else {
+            SnippetRevision keyframe = revisionRepository
+                    .findTopBySnippetIdAndKeyframeTrueAndRevisionLessThanEqualOrderByRevisionDesc(snippetId, revision)
+                    .orElseThrow(() -> new ResourceNotFoundException("Revision not found: " + revision));
+            chain = revisionRepository.findBySnippetIdAndRevisionBetweenOrderByRevisionAsc(
+                    snippetId, keyframe.getRevision(), revision);
+        }
+        if (chain.isEmpty() || chain.size() != revision - chain.get(0).getRevision() + 1) {
+            throw new ResourceNotFoundException("Revision not found: " + revision);
+        }
+
+        String content = chain.get(0).getPayload();
+        for (SnippetRevision delta : chain.subList(1, chain.size())) {
+            content = MyersDiff.apply(content, delta.getPayload());
+        }
+        return new SnippetRevisionResponse(snippetId, revision, content, chain.get(chain.size() - 1).getCreatedAt());
+    }
+
+    /**
+     * Delete a snippet's history; must run in the deleting transaction
+     * @param snippetId the snippet ID
+     */
+    public void deleteRevisions(Long snippetId) {
+        revisionRepository.deleteBySnippetId(snippetId);
+    }
+
+    private static SnippetRevision keyframe(Long snippetId, int revision, String content) {
+        return new SnippetRevision(snippetId, revision, true, content, content.length());
+    }
+}
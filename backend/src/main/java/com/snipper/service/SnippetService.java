@@ -1,27 +1,46 @@
 package com.snipper.service;
 
+import com.snipper.cache.ResponseCache;
+import com.snipper.config.ReplicaRoutingDataSource;
 import com.snipper.dto.common.PagedResponse;
 import com.snipper.dto.snippet.CreateSnippetRequest;
+import com.snipper.dto.snippet.PatchSnippetRequest;
 import com.snipper.dto.snippet.SnippetResponse;
+import com.snipper.dto.snippet.SnippetRevisionResponse;
+import com.snipper.dto.snippet.SnippetRevisionSummaryResponse;
 import com.snipper.dto.snippet.SnippetSummaryResponse;
+import com.snipper.dto.snippet.SnippetViewStatsResponse;
 import com.snipper.dto.snippet.UpdateSnippetRequest;
+import com.snipper.exception.PreconditionFailedException;
 import com.snipper.exception.ResourceNotFoundException;
 import com.snipper.exception.UnauthorizedException;
+import com.snipper.exception.ValidationException;
 import com.snipper.model.Snippet;
+import com.snipper.model.StatGranularity;
 import com.snipper.model.User;
 import com.snipper.model.VisibilityType;
 import com.snipper.repository.SnippetRepository;
 import com.snipper.repository.UserRepository;
+import com.snipper.security.CurrentUserResolver;
+import com.snipper.util.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,19 +49,46 @@ public class SnippetService {
 
     private final SnippetRepository snippetRepository;
     private final UserRepository userRepository;
+    private final UniqueViewerService uniqueViewerService;
+    private final ViewAnalyticsService viewAnalyticsService;
+    private final ViewCounterService viewCounterService;
+    private final UserStatsService userStatsService;
+    private final SnippetRevisionService revisionService;
+    private final CurrentUserResolver currentUserResolver;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final SingleFlight singleFlight;
+    private final ResponseCache responseCache;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Autowired
-    public SnippetService(SnippetRepository snippetRepository, UserRepository userRepository) {
+    public SnippetService(SnippetRepository snippetRepository, UserRepository userRepository,
+                          UniqueViewerService uniqueViewerService, ViewAnalyticsService viewAnalyticsService,
+                          ViewCounterService viewCounterService, UserStatsService userStatsService,
+                          SnippetRevisionService revisionService, CurrentUserResolver currentUserResolver, PlatformTransactionManager transactionManager,
+                          SingleFlight singleFlight, ResponseCache responseCache,
+                          CacheInvalidationService cacheInvalidationService) {
         this.snippetRepository = snippetRepository;
         this.userRepository = userRepository;
+        this.uniqueViewerService = uniqueViewerService;
+        this.viewAnalyticsService = viewAnalyticsService;
+        this.viewCounterService = viewCounterService;
+        this.userStatsService = userStatsService;
+        this.revisionService = revisionService;
+        this.currentUserResolver = currentUserResolver;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.singleFlight = singleFlight;
+        this.responseCache = responseCache;
+        this.cacheInvalidationService = cacheInvalidationService;
     }
 
     /**
      * Create a new snippet
      */
     public SnippetResponse createSnippet(CreateSnippetRequest request, String username) {
-        User author = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        User author = resolveUser(username);
 
         Snippet snippet = new Snippet();
         snippet.setTitle(request.getTitle());
@@ -54,56 +100,119 @@ public class SnippetService {
         snippet.setAuthor(author);
 
         Snippet savedSnippet = snippetRepository.save(snippet);
+        // Other instances drop their cached language and tag lists
+        cacheInvalidationService.snippetChanged(savedSnippet.getId(), savedSnippet.getVersion());
+        viewCounterService.createShards(savedSnippet.getId());
+        revisionService.recordInitial(savedSnippet.getId(), savedSnippet.getContent());
+        userStatsService.recordSnippetCreated(savedSnippet);
         return convertToSnippetResponse(savedSnippet);
     }
 
     /**
      * Get snippet by ID with authorization check
      */
-    @Transactional(readOnly = true)
     public SnippetResponse getSnippetById(Long id, String username) {
-        Snippet snippet = snippetRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Snippet not found with id: " + id));
+        return getSnippetById(id, username, null);
+    }
+
+    /**
+     * Get snippet by ID with authorization check, counting the view towards unique viewers.
+     * The snippet may come from the response cache; access is checked and the view count
+     * read live on every call.
+     */
+    public SnippetResponse getSnippetById(Long id, String username, String viewerKey) {
+        // Counting the view is this transaction's only write
+        ReplicaRoutingDataSource.skipReadYourWrites();
+        SnippetResponse response = responseCache.getSnippet(id, () -> convertToDetailResponse(
+                snippetRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Snippet not found with id: " + id))));
 
         // Check if user can access this snippet
-        if (!canUserAccessSnippet(snippet, username)) {
+        if (!canUserAccessSnippet(response.getVisibility(), response.getAuthorUsername(), username)) {
             throw new UnauthorizedException("You don't have permission to access this snippet");
         }
 
         // Increment view count if it's not the owner viewing
-        if (!snippet.getAuthor().getUsername().equals(username)) {
-            snippetRepository.incrementViewCount(id);
-            snippet.incrementViewCount(); // Update the entity for response
+        if (!response.getAuthorUsername().equals(username)) {
+            viewCounterService.increment(id);
+            uniqueViewerService.recordViewer(id, viewerKey);
+            viewAnalyticsService.recordView(id);
         }
 
-        return convertToSnippetResponse(snippet);
+        return withViewCount(response, viewCounterService.getViewCount(id));
     }
 
     /**
      * Get public snippet by ID (no authentication required)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SnippetResponse getPublicSnippetById(Long id) {
-        Snippet snippet = snippetRepository.findPublicOrUnlistedById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Public snippet not found with id: " + id));
+        return getPublicSnippetById(id, null);
+    }
+
+    /**
+     * Get public snippet by ID, counting the view towards unique viewers.
+     * Concurrent viewers of the same snippet share one load on a cache miss, but each view
+     * is counted, and only once the snippet was found. The view count is read live and
+     * includes this view.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SnippetResponse getPublicSnippetById(Long id, String viewerKey) {
+        SnippetResponse response = responseCache.getSnippet(id, () -> singleFlight.execute("snippet:" + id, () ->
+                readOnlyTransaction.execute(status -> convertToDetailResponse(snippetRepository.findPublicOrUnlistedById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Public snippet not found with id: " + id))))));
+        // The owner's reads cache private snippets too
+        if (response.getVisibility() == VisibilityType.PRIVATE) {
+            throw new ResourceNotFoundException("Public snippet not found with id: " + id);
+        }
 
         // Increment view count
-        snippetRepository.incrementViewCount(id);
-        snippet.incrementViewCount(); // Update the entity for response
+        Long viewCount = writeTransaction.execute(status -> {
+            ReplicaRoutingDataSource.skipReadYourWrites();
+            viewCounterService.increment(id);
+            return viewCounterService.getViewCount(id);
+        });
+        uniqueViewerService.recordViewer(id, viewerKey);
+        viewAnalyticsService.recordView(id);
+
+        return withViewCount(response, viewCount);
+    }
+
+    /**
+     * Get view statistics of a snippet the user can access
+     */
+    @Transactional(readOnly = true)
+    public SnippetViewStatsResponse getSnippetViewStats(Long id, String username, StatGranularity granularity,
+                                                        LocalDateTime from, LocalDateTime to) {
+        Snippet snippet = snippetRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Snippet not found with id: " + id));
+
+        if (!canUserAccessSnippet(snippet.getVisibility(), currentUserResolver.usernameOf(snippet.getAuthor()), username)) {
+            throw new UnauthorizedException("You don't have permission to access this snippet");
+        }
 
-        return convertToSnippetResponse(snippet);
+        return viewAnalyticsService.getViewStats(id, granularity, from, to);
     }
 
     /**
      * Update snippet
      */
     public SnippetResponse updateSnippet(Long id, UpdateSnippetRequest request, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        return updateSnippet(id, request, username, null);
+    }
 
-        Snippet snippet = snippetRepository.findByIdAndAuthor(id, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Snippet not found or you don't have permission to edit it"));
+    /**
+     * Update snippet if it is still at the version the client last read. Without an expected
+     * version concurrent edits are still detected, when two updates race for the same row.
+     * @param expectedVersions versions from the client's If-Match header, null for unconditional
+     * @throws PreconditionFailedException if the snippet is at none of the expected versions
+     */
+    public SnippetResponse updateSnippet(Long id, UpdateSnippetRequest request, String username, Set<Long> expectedVersions) {
+        Snippet snippet = findEditableSnippet(id, username, expectedVersions);
 
+        VisibilityType oldVisibility = snippet.getVisibility();
+        String oldLanguage = snippet.getLanguage();
+        String oldContent = snippet.getContent();
         snippet.setTitle(request.getTitle());
         snippet.setDescription(request.getDescription());
         snippet.setContent(request.getContent());
@@ -111,21 +220,139 @@ public class SnippetService {
         snippet.setTags(request.getTags());
         snippet.setVisibility(request.getVisibility());
 
-        Snippet updatedSnippet = snippetRepository.save(snippet);
+        Snippet updatedSnippet = saveEdited(snippet, expectedVersions);
+        recordContentChange(updatedSnippet, oldContent);
+        userStatsService.recordSnippetUpdated(updatedSnippet, oldVisibility, oldLanguage);
+        return convertToSnippetResponse(updatedSnippet);
+    }
+
+    /**
+     * Apply a JSON Merge Patch to a snippet. Only the fields in the patch are changed, and
+     * only changed columns are written, so metadata edits leave the content alone.
+     * @param expectedVersions versions from the client's If-Match header, null for unconditional
+     * @return the patched snippet without its content
+     * @throws ValidationException if the patch clears a required field
+     */
+    public SnippetSummaryResponse patchSnippet(Long id, PatchSnippetRequest patch, String username, Set<Long> expectedVersions) {
+        Snippet snippet = findEditableSnippet(id, username, expectedVersions);
+
+        VisibilityType oldVisibility = snippet.getVisibility();
+        String oldLanguage = snippet.getLanguage();
+        String oldContent = snippet.getContent();
+        if (patch.isPresent("title")) {
+            snippet.setTitle(requireText(patch.getTitle(), "Title"));
+        }
+        if (patch.isPresent("description")) {
+            snippet.setDescription(patch.getDescription());
+        }
+        if (patch.isPresent("content")) {
+            snippet.setContent(requireText(patch.getContent(), "Content"));
+        }
+        if (patch.isPresent("language")) {
+            snippet.setLanguage(requireText(patch.getLanguage(), "Language"));
+        }
+        if (patch.isPresent("tags")) {
+            snippet.setTags(patch.getTags());
+        }
+        if (patch.isPresent("visibility")) {
+            if (patch.getVisibility() == null) {
+                throw new ValidationException("Visibility is required");
+            }
+            snippet.setVisibility(patch.getVisibility());
+        }
+
+        Snippet updatedSnippet = saveEdited(snippet, expectedVersions);
+        recordContentChange(updatedSnippet, oldContent);
+        userStatsService.recordSnippetUpdated(updatedSnippet, oldVisibility, oldLanguage);
+        return convertToSnippetSummaryResponse(updatedSnippet);
+    }
+
+    /**
+     * List the revisions of a snippet's content, newest first (owner only)
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<SnippetRevisionSummaryResponse> getSnippetRevisions(Long id, String username, int page, int size) {
+        Snippet snippet = findEditableSnippet(id, username, null);
+        return revisionService.getRevisions(snippet.getId(), page, size);
+    }
+
+    /**
+     * Get one revision of a snippet's content (owner only)
+     */
+    @Transactional(readOnly = true)
+    public SnippetRevisionResponse getSnippetRevision(Long id, int revision, String username) {
+        Snippet snippet = findEditableSnippet(id, username, null);
+        return revisionService.getRevision(snippet.getId(), revision);
+    }
+
+    /**
+     * Restore the content of an earlier revision; the restore is itself recorded as a new revision
+     * @param expectedVersions versions from the client's If-Match header, null for unconditional
+     */
+    public SnippetResponse restoreSnippetRevision(Long id, int revision, String username, Set<Long> expectedVersions) {
+        Snippet snippet = findEditableSnippet(id, username, expectedVersions);
+        String oldContent = snippet.getContent();
+        snippet.setContent(revisionService.getRevision(snippet.getId(), revision).getContent());
+
+        Snippet updatedSnippet = saveEdited(snippet, expectedVersions);
+        recordContentChange(updatedSnippet, oldContent);
         return convertToSnippetResponse(updatedSnippet);
     }
 
+    private Snippet findEditableSnippet(Long id, String username, Set<Long> expectedVersions) {
+        User user = resolveUser(username);
+
+        Snippet snippet = snippetRepository.findByIdAndAuthor(id, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Snippet not found or you don't have permission to edit it"));
+        if (expectedVersions != null && !expectedVersions.contains(snippet.getVersion())) {
+            throw new PreconditionFailedException("Snippet was modified since it was read; reload it and retry");
+        }
+        return snippet;
+    }
+
+    private Snippet saveEdited(Snippet snippet, Set<Long> expectedVersions) {
+        // Flush now, so a concurrent edit fails the version check here and the response carries the new version
+        try {
+            Snippet saved = snippetRepository.saveAndFlush(snippet);
+            cacheInvalidationService.snippetChanged(saved.getId(), saved.getVersion());
+            return saved;
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersions != null) {
+                throw new PreconditionFailedException("Snippet was modified since it was read; reload it and retry", e);
+            }
+            throw e;
+        }
+    }
+
+    private void recordContentChange(Snippet snippet, String oldContent) {
+        if (!snippet.getContent().equals(oldContent)) {
+            revisionService.recordChange(snippet.getId(), oldContent, snippet.getContent());
+        }
+    }
+
+    private static String requireText(String value, String field) {
+        if (!StringUtils.hasText(value)) {
+            throw new ValidationException(field + " is required");
+        }
+        return value;
+    }
+
     /**
      * Delete snippet
      */
     public void deleteSnippet(Long id, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        User user = resolveUser(username);
 
         Snippet snippet = snippetRepository.findByIdAndAuthor(id, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Snippet not found or you don't have permission to delete it"));
 
+        userStatsService.recordSnippetDeleted(snippet);
         snippetRepository.delete(snippet);
+        uniqueViewerService.forgetSnippet(id);
+        viewAnalyticsService.deleteSnippetStats(id);
+        viewCounterService.deleteShards(id);
+        revisionService.deleteRevisions(id);
+        cacheInvalidationService.snippetChanged(id, null);
     }
 
     /**
@@ -133,8 +360,7 @@ public class SnippetService {
      */
     @Transactional(readOnly = true)
     public PagedResponse<SnippetSummaryResponse> getUserSnippets(String username, int page, int size, String sortBy, String sortDir) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        User user = resolveUser(username);
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
@@ -170,21 +396,63 @@ public class SnippetService {
     /**
      * Get most popular public snippets
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PagedResponse<SnippetSummaryResponse> getMostPopularSnippets(int page, int size) {
+        return getMostPopularSnippets(page, size, "views");
+    }
+
+    /**
+     * Get most popular public snippets ranked by total views or by unique viewers;
+     * concurrent requests for the same page share one query
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PagedResponse<SnippetSummaryResponse> getMostPopularSnippets(int page, int size, String rankBy) {
+        boolean byUniques = "uniques".equalsIgnoreCase(rankBy);
         Pageable pageable = PageRequest.of(page, size);
-        Page<Snippet> snippetPage = snippetRepository.findMostPopularPublicSnippets(pageable);
-        return convertToPagedSummaryResponse(snippetPage);
+        return singleFlight.execute("popular:" + (byUniques ? "uniques" : "views") + ":" + page + ":" + size,
+                () -> readOnlyTransaction.execute(status -> convertToPagedSummaryResponse(byUniques
+                        ? snippetRepository.findMostPopularPublicSnippetsByUniqueViewers(pageable)
+                        : snippetRepository.findMostPopularPublicSnippets(pageable))));
     }
 
     /**
-     * Get recent public snippets
+     * Get recent public snippets; concurrent requests for the same page share one query
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PagedResponse<SnippetSummaryResponse> getRecentSnippets(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Snippet> snippetPage = snippetRepository.findRecentPublicSnippets(pageable);
-        return convertToPagedSummaryResponse(snippetPage);
+        return singleFlight.execute("recent:" + page + ":" + size, () -> readOnlyTransaction.execute(status ->
+                convertToPagedSummaryResponse(snippetRepository.findRecentPublicSnippets(pageable))));
+    }
+
+    /**
+     * Stream public snippets in ID order, reading each batch in its own short read-only
+     * transaction so a slow client holds no connection while it catches up
+     * @param language optional language filter, null for all
+     * @param batchSize snippets per batch
+     * @param consumer receives each batch; the next batch is read only once it returns
+     * @return number of snippets streamed
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long streamPublicSnippets(String language, int batchSize, Consumer<List<SnippetSummaryResponse>> consumer) {
+        long afterId = 0;
+        long streamed = 0;
+        while (true) {
+            long cursor = afterId;
+            List<SnippetSummaryResponse> batch = readOnlyTransaction.execute(status ->
+                    snippetRepository.findPublicSnippetsAfter(cursor, language, PageRequest.of(0, batchSize)).stream()
+                            .map(this::convertToSnippetSummaryResponse)
+                            .collect(Collectors.toList()));
+            if (batch == null || batch.isEmpty()) {
+                return streamed;
+            }
+            consumer.accept(batch);
+            streamed += batch.size();
+            if (batch.size() < batchSize) {
+                return streamed;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
     }
 
     /**
@@ -234,8 +502,7 @@ public class SnippetService {
             String searchTerm, String language, String tags, String visibility, String username,
             int page, int size, String sortBy, String sortDir) {
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        User user = resolveUser(username);
         
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
@@ -264,9 +531,9 @@ public class SnippetService {
     /**
      * Check if user can access a snippet
      */
-    private boolean canUserAccessSnippet(Snippet snippet, String username) {
+    private boolean canUserAccessSnippet(VisibilityType visibility, String authorUsername, String username) {
         // Public snippets are accessible to everyone
-        if (snippet.getVisibility() == VisibilityType.PUBLIC) {
+        if (visibility == VisibilityType.PUBLIC) {
             return true;
         }
 
@@ -275,14 +542,23 @@ public class SnippetService {
             return false;
         }
 
-        return snippet.getAuthor().getUsername().equals(username);
+        return authorUsername.equals(username);
+    }
+
+    /**
+     * Resolve a user by username, reusing the authenticated principal when it is that user
+     */
+    private User resolveUser(String username) {
+        return currentUserResolver.referenceFor(username)
+                .orElseGet(() -> userRepository.findByUsername(username)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username)));
     }
 
     /**
      * Convert Snippet entity to SnippetResponse DTO
      */
     private SnippetResponse convertToSnippetResponse(Snippet snippet) {
-        return new SnippetResponse(
+        SnippetResponse response = new SnippetResponse(
                 snippet.getId(),
                 snippet.getTitle(),
                 snippet.getDescription(),
@@ -293,16 +569,52 @@ public class SnippetService {
                 snippet.getViewCount(),
                 snippet.getCreatedAt(),
                 snippet.getUpdatedAt(),
-                snippet.getAuthor().getUsername(),
+                currentUserResolver.usernameOf(snippet.getAuthor()),
                 snippet.getAuthor().getId()
         );
+        response.setVersion(snippet.getVersion());
+        return response;
+    }
+
+    /**
+     * Convert Snippet entity to SnippetResponse DTO including its unique-viewer estimate
+     */
+    private SnippetResponse convertToDetailResponse(Snippet snippet) {
+        SnippetResponse response = convertToSnippetResponse(snippet);
+        // Include views still held in counter shards
+        response.setViewCount(snippet.getViewCount() + viewCounterService.getPendingViews(snippet.getId()));
+        response.setUniqueViewers(uniqueViewerService.getUniqueViewers(snippet.getId()));
+        return response;
+    }
+
+    /**
+     * Copy a possibly cached snippet response with the given view count; cached responses are shared
+     */
+    private static SnippetResponse withViewCount(SnippetResponse cached, Long viewCount) {
+        SnippetResponse response = new SnippetResponse(
+                cached.getId(),
+                cached.getTitle(),
+                cached.getDescription(),
+                cached.getContent(),
+                cached.getLanguage(),
+                cached.getTags(),
+                cached.getVisibility(),
+                viewCount,
+                cached.getCreatedAt(),
+                cached.getUpdatedAt(),
+                cached.getAuthorUsername(),
+                cached.getAuthorId()
+        );
+        response.setUniqueViewers(cached.getUniqueViewers());
+        response.setVersion(cached.getVersion());
+        return response;
     }
 
     /**
      * Convert Snippet entity to SnippetSummaryResponse DTO
      */
     private SnippetSummaryResponse convertToSnippetSummaryResponse(Snippet snippet) {
-        return new SnippetSummaryResponse(
+        SnippetSummaryResponse response = new SnippetSummaryResponse(
                 snippet.getId(),
                 snippet.getTitle(),
                 snippet.getDescription(),
@@ -312,9 +624,11 @@ public class SnippetService {
                 snippet.getViewCount(),
                 snippet.getCreatedAt(),
                 snippet.getUpdatedAt(),
-                snippet.getAuthor().getUsername(),
+                currentUserResolver.usernameOf(snippet.getAuthor()),
                 snippet.getAuthor().getId()
         );
+        response.setVersion(snippet.getVersion());
+        return response;
     }
 
     /**
@@ -0,0 +1,149 @@
+package com.snipper.service;
+
+import com.snipper.model.SnippetUniqueViewers;
+import com.snipper.repository.SnippetUniqueViewersRepository;
+import com.snipper.util.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service tracking approximate unique viewers per snippet.
+ *
+ * Views are folded into in-memory HyperLogLog sketches and merged into the
+ * snippet_unique_viewers table on a fixed schedule, so the request path never
+ * writes per-view rows.
+ */
+@Service
+public class UniqueViewerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueViewerService.class);
+
+    private final SnippetUniqueViewersRepository uniqueViewersRepository;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, HyperLogLog> pendingSketches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UniqueViewerService(SnippetUniqueViewersRepository uniqueViewersRepository,
+                               UserStatsService userStatsService,
+                               PlatformTransactionManager transactionManager) {
+        this.uniqueViewersRepository = uniqueViewersRepository;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Record a view of a snippet by a viewer
+     * @param snippetId the snippet ID
+     * @param viewerKey stable key identifying the viewer (user id or hashed client IP)
+     */
+    public void recordViewer(Long snippetId, String viewerKey) {
+        if (snippetId == null || viewerKey == null) {
+            return;
+        }
+        pendingSketches.compute(snippetId, (id, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.offer(viewerKey);
+            return target;
+        });
+    }
+
+    /**
+     * Get the estimated number of unique viewers of a snippet, including views not yet flushed
+     * @param snippetId the snippet ID
+     * @return estimated unique viewers
+     */
+    public long getUniqueViewers(Long snippetId) {
+        if (!pendingSketches.containsKey(snippetId)) {
+            return uniqueViewersRepository.findUniqueViewersBySnippetId(snippetId).orElse(0L);
+        }
+
+        HyperLogLog merged = uniqueViewersRepository.findById(snippetId)
+                .map(stored -> HyperLogLog.fromBytes(stored.getSketch()))
+                .orElseGet(HyperLogLog::new);
+        pendingSketches.computeIfPresent(snippetId, (id, pending) -> {
+            merged.merge(pending);
+            return pending;
+        });
+        return merged.cardinality();
+    }
+
+    /**
+     * Get the sum of unique-viewer estimates over an author's snippets
+     * @param authorId the author ID
+     * @return summed unique viewers
+     */
+    public long getTotalUniqueViewersByAuthor(Long authorId) {
+        return uniqueViewersRepository.sumUniqueViewersByAuthorId(authorId);
+    }
+
+    /**
+     * Drop any tracked viewers for a deleted snippet
+     * @param snippetId the snippet ID
+     */
+    public void forgetSnippet(Long snippetId) {
+        pendingSketches.remove(snippetId);
+        if (uniqueViewersRepository.existsById(snippetId)) {
+            uniqueViewersRepository.deleteById(snippetId);
+        }
+    }
+
+    /**
+     * Merge pending sketches into the persisted sketches
+     */
+    @Scheduled(fixedDelayString = "${snipper.analytics.unique-viewers.flush-interval-ms:10000}")
+    public void flushPendingSketches() {
+        List<Long> snippetIds = new ArrayList<>(pendingSketches.keySet());
+        for (Long snippetId : snippetIds) {
+            HyperLogLog pending = pendingSketches.remove(snippetId);
+            if (pending == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoStored(snippetId, pending));
+            } catch (DataIntegrityViolationException e) {
+                // Snippet was deleted, or another replica created the row first; retry on the next flush
+                if (uniqueViewersRepository.existsById(snippetId)) {
+                    requeue(snippetId, pending);
+                } else {
+                    logger.debug("Dropping unique viewers for missing snippet {}", snippetId);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to flush unique viewers for snippet {}: {}", snippetId, e.getMessage());
+                requeue(snippetId, pending);
+            }
+        }
+    }
+
+    private void mergeIntoStored(Long snippetId, HyperLogLog pending) {
+        Optional<SnippetUniqueViewers> existing = uniqueViewersRepository.findForUpdate(snippetId);
+        SnippetUniqueViewers row = existing.orElseGet(() -> new SnippetUniqueViewers(snippetId));
+
+        long previousEstimate = row.getUniqueViewers();
+        HyperLogLog sketch = HyperLogLog.fromBytes(row.getSketch());
+        sketch.merge(pending);
+        row.setSketch(sketch.toBytes());
+        row.setUniqueViewers(sketch.cardinality());
+        uniqueViewersRepository.saveAndFlush(row);
+        userStatsService.recordUniqueViewersChange(snippetId, row.getUniqueViewers() - previousEstimate);
+    }
+
+    private void requeue(Long snippetId, HyperLogLog pending) {
+        pendingSketches.merge(snippetId, pending, (current, failed) -> {
+            current.merge(failed);
+            return current;
+        });
+    }
+}
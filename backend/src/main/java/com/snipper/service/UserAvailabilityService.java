@@ -0,0 +1,154 @@
+package com.snipper.service;
+
+import com.snipper.repository.UserRepository;
+import com.snipper.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers username and email availability from Bloom filters of the taken values.
+ *
+ * A "definitely absent" answer is served from memory; only a possible hit is confirmed
+ * against the database. Values are lower-cased so the filters never miss a name the
+ * database collation would treat as equal. Registrations and profile changes on this
+ * instance are added immediately; the filters are rebuilt periodically, which both drops
+ * released names and picks up ones taken on other instances. The answer is advisory:
+ * registration itself is guarded by the unique constraints.
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    private final UserRepository userRepository;
+    private final int expectedUsers;
+    private final double falsePositiveRate;
+    private final int batchSize;
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {}
+
+    private volatile Filters filters;
+    private volatile boolean loaded;
+
+    // Values added while a rebuild is scanning, replayed into the rebuilt filters
+    private Set<String> addedDuringRebuild;
+
+    @Autowired
+    public UserAvailabilityService(UserRepository userRepository,
+                                   @Value("${snipper.auth.availability.expected-users:100000}") int expectedUsers,
+                                   @Value("${snipper.auth.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                   @Value("${snipper.auth.availability.batch-size:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.batchSize = batchSize;
+        this.filters = new Filters(new BloomFilter(expectedUsers, falsePositiveRate), new BloomFilter(expectedUsers, falsePositiveRate));
+    }
+
+    /**
+     * Check whether a username is free
+     * @param username the username
+     * @return true if no user has the username
+     */
+    public boolean isUsernameAvailable(String username) {
+        if (loaded && !filters.usernames().mightContain(normalize(username))) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+
+    /**
+     * Check whether an email is free
+     * @param email the email
+     * @return true if no user has the email
+     */
+    public boolean isEmailAvailable(String email) {
+        if (loaded && !filters.emails().mightContain(normalize(email))) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+
+    /**
+     * Record a username and email as taken
+     * @param username the username, may be null
+     * @param email the email, may be null
+     */
+    public synchronized void markTaken(String username, String email) {
+        Filters current = filters;
+        if (username != null) {
+            current.usernames().add(normalize(username));
+        }
+        if (email != null) {
+            current.emails().add(normalize(email));
+        }
+        if (addedDuringRebuild != null) {
+            if (username != null) {
+                addedDuringRebuild.add("u:" + normalize(username));
+            }
+            if (email != null) {
+                addedDuringRebuild.add("e:" + normalize(email));
+            }
+        }
+    }
+
+    /**
+     * Rebuild the filters from the users table
+     */
+    @Scheduled(fixedDelayString = "${snipper.auth.availability.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            addedDuringRebuild = ConcurrentHashMap.newKeySet();
+        }
+        try {
+            int size = Math.max(expectedUsers, (int) Math.min(Integer.MAX_VALUE / 2, userRepository.count()) * 2);
+            BloomFilter usernames = new BloomFilter(size, falsePositiveRate);
+            BloomFilter emails = new BloomFilter(size, falsePositiveRate);
+            long afterId = 0;
+            List<Object[]> batch;
+            do {
+                batch = userRepository.findLoginsAfter(afterId, PageRequest.of(0, batchSize));
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    usernames.add(normalize((String) row[1]));
+                    emails.add(normalize((String) row[2]));
+                }
+            } while (batch.size() == batchSize);
+
+            synchronized (this) {
+                for (String added : addedDuringRebuild) {
+                    (added.startsWith("u:") ? usernames : emails).add(added.substring(2));
+                }
+                filters = new Filters(usernames, emails);
+                loaded = true;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to rebuild username and email filters: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * @return true once the filters have been built from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,137 @@
+package com.snipper.service;
+
+import com.snipper.dto.common.PagedResponse;
+import com.snipper.dto.snippet.SnippetSummaryResponse;
+import com.snipper.dto.user.UserOverviewResponse;
+import com.snipper.dto.user.UserProfileResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds a user's profile page overview by running its independent queries concurrently.
+ *
+ * Profile, statistics, languages and the first snippet page each run on a small bounded
+ * pool in their own read-only transaction, so the page costs about as much as its slowest
+ * query. Every branch shares one deadline; a branch that misses it is interrupted and its
+ * section left out of a partial response. Interrupting does not stop a running JDBC
+ * statement, so each branch transaction also carries the deadline as a timeout, rounded up
+ * to whole seconds, which the driver enforces by cancelling the query. When the pool is
+ * saturated branches run on the calling thread instead.
+ */
+@Service
+public class UserOverviewService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOverviewService.class);
+
+    private final UserService userService;
+    private final ExecutorService executor;
+    private final TransactionTemplate branchTransaction;
+    private final long branchTimeoutMillis;
+
+    @Autowired
+    public UserOverviewService(UserService userService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${snipper.user-overview.threads:8}") int threads,
+                               @Value("${snipper.user-overview.queue-capacity:100}") int queueCapacity,
+                               @Value("${snipper.user-overview.branch-timeout-ms:1000}") long branchTimeoutMillis) {
+        this.userService = userService;
+        this.branchTimeoutMillis = branchTimeoutMillis;
+        this.branchTransaction = new TransactionTemplate(transactionManager);
+        branchTransaction.setReadOnly(true);
+        branchTransaction.setTimeout((int) Math.max(1, (branchTimeoutMillis + 999) / 1000));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-overview-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        // Branches see the caller's authentication, as they would on the request thread
+        this.executor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    /**
+     * Get the overview of a user's public profile page
+     * @param username the username
+     * @param size the snippet page size
+     * @return UserOverviewResponse, partial if some branches timed out or failed
+     */
+    public UserOverviewResponse getUserOverview(String username, int size) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(branchTimeoutMillis);
+
+        Future<UserProfileResponse> profile =
+                submit(() -> userService.getUserProfile(username));
+        Future<UserOverviewResponse.PublicStatistics> statistics =
+                submit(() -> userService.getPublicStatisticsByUsername(username));
+        Future<List<String>> languages =
+                submit(() -> userService.getPublicLanguagesByUsername(username));
+        Future<PagedResponse<SnippetSummaryResponse>> snippets =
+                submit(() -> userService.getPublicSnippetsByUsername(username, 0, size));
+
+        UserOverviewResponse overview = new UserOverviewResponse();
+        try {
+            join("profile", profile, deadline, overview::setProfile, overview, true);
+        } catch (RuntimeException e) {
+            // Unknown user: the other sections are meaningless
+            statistics.cancel(true);
+            languages.cancel(true);
+            snippets.cancel(true);
+            throw e;
+        }
+        join("statistics", statistics, deadline, overview::setStatistics, overview, false);
+        join("languages", languages, deadline, overview::setLanguages, overview, false);
+        join("snippets", snippets, deadline, overview::setSnippets, overview, false);
+        return overview;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Supplier<T> branch) {
+        return executor.submit(() -> branchTransaction.execute(status -> branch.get()));
+    }
+
+    private <T> void join(String section, Future<T> branch, long deadline, Consumer<T> setter,
+                          UserOverviewResponse overview, boolean rethrow) {
+        try {
+            setter.accept(branch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            branch.cancel(true);
+            logger.debug("User overview section {} timed out", section);
+            overview.getMissingSections().add(section);
+        } catch (InterruptedException e) {
+            branch.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading user overview", e);
+        } catch (ExecutionException e) {
+            if (rethrow && e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            logger.warn("User overview section {} failed: {}", section, e.getCause().getMessage());
+            overview.getMissingSections().add(section);
+        }
+    }
+}
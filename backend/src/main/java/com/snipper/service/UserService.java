@@ -1,18 +1,24 @@
 package com.snipper.service;
 
+import com.snipper.cache.ResponseCache;
 import com.snipper.dto.common.PagedResponse;
 import com.snipper.dto.snippet.SnippetSummaryResponse;
 import com.snipper.dto.user.UpdateProfileRequest;
 import com.snipper.dto.user.UserDashboardResponse;
+import com.snipper.dto.user.UserOverviewResponse;
 import com.snipper.dto.user.UserProfileResponse;
 import com.snipper.exception.ResourceNotFoundException;
 import com.snipper.exception.UnauthorizedException;
 import com.snipper.model.Snippet;
 import com.snipper.model.User;
+import com.snipper.model.UserStats;
 import com.snipper.model.VisibilityType;
 import com.snipper.repository.SnippetRepository;
 import com.snipper.repository.UserRepository;
+import com.snipper.security.CurrentUserResolver;
 import com.snipper.security.CustomUserPrincipal;
+import com.snipper.security.PrincipalCache;
+import com.snipper.security.TokenVersionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,7 +30,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service class for user profile and dashboard operations
@@ -35,11 +43,38 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final SnippetRepository snippetRepository;
+    private final UniqueViewerService uniqueViewerService;
+    private final ViewAnalyticsService viewAnalyticsService;
+    private final ViewCounterService viewCounterService;
+    private final UserStatsService userStatsService;
+    private final SnippetRevisionService revisionService;
+    private final PrincipalCache principalCache;
+    private final CurrentUserResolver currentUserResolver;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserAvailabilityService userAvailabilityService;
+    private final ResponseCache responseCache;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Autowired
-    public UserService(UserRepository userRepository, SnippetRepository snippetRepository) {
+    public UserService(UserRepository userRepository, SnippetRepository snippetRepository,
+                       UniqueViewerService uniqueViewerService, ViewAnalyticsService viewAnalyticsService,
+                       ViewCounterService viewCounterService, UserStatsService userStatsService,
+                       SnippetRevisionService revisionService, PrincipalCache principalCache, CurrentUserResolver currentUserResolver,
+                       TokenVersionRegistry tokenVersionRegistry, UserAvailabilityService userAvailabilityService,
+                       ResponseCache responseCache, CacheInvalidationService cacheInvalidationService) {
         this.userRepository = userRepository;
         this.snippetRepository = snippetRepository;
+        this.uniqueViewerService = uniqueViewerService;
+        this.viewAnalyticsService = viewAnalyticsService;
+        this.viewCounterService = viewCounterService;
+        this.userStatsService = userStatsService;
+        this.revisionService = revisionService;
+        this.principalCache = principalCache;
+        this.currentUserResolver = currentUserResolver;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.userAvailabilityService = userAvailabilityService;
+        this.responseCache = responseCache;
+        this.cacheInvalidationService = cacheInvalidationService;
     }
 
     /**
@@ -59,9 +94,9 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(String username) {
-        User user = userRepository.findByUsernameAndIsActiveTrue(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
-        return mapToUserProfileResponse(user);
+        return responseCache.getProfile(username, () -> mapToUserProfileResponse(
+                userRepository.findByUsernameAndIsActiveTrue(username)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username))));
     }
 
     /**
@@ -71,13 +106,18 @@ public class UserService {
      */
     public UserProfileResponse updateProfile(UpdateProfileRequest request) {
         User currentUser = getCurrentUser();
+        String oldUsername = currentUser.getUsername();
 
         // Validate username uniqueness if changed
+        boolean usernameChanged = false;
         if (request.getUsername() != null && !request.getUsername().equals(currentUser.getUsername())) {
             if (userRepository.existsByUsernameAndIdNot(request.getUsername(), currentUser.getId())) {
                 throw new IllegalArgumentException("Username already exists: " + request.getUsername());
             }
             currentUser.setUsername(request.getUsername());
+            // Tokens name the user by username, so the old ones must stop working
+            currentUser.setTokenVersion(currentUser.getTokenVersion() + 1);
+            usernameChanged = true;
         }
 
         // Validate email uniqueness if changed
@@ -97,6 +137,15 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(currentUser);
+        principalCache.evict(updatedUser.getId());
+        userAvailabilityService.markTaken(updatedUser.getUsername(), updatedUser.getEmail());
+        cacheInvalidationService.userChanged(updatedUser.getId(), oldUsername);
+        if (usernameChanged) {
+            tokenVersionRegistry.bump(updatedUser.getId(), updatedUser.getTokenVersion());
+            // Cached snippets name their author, and access checks compare that name
+            snippetRepository.findIdsByAuthorId(updatedUser.getId())
+                    .forEach(snippetId -> cacheInvalidationService.snippetChanged(snippetId, null));
+        }
         return mapToUserProfileResponse(updatedUser);
     }
 
@@ -108,10 +157,19 @@ public class UserService {
     public UserDashboardResponse getUserDashboard() {
         User currentUser = getCurrentUser();
         UserProfileResponse profile = mapToUserProfileResponse(currentUser);
-        
+
+        // Prefer the materialized stats row; fall back to aggregating until it has been reconciled
+        Optional<UserStats> materialized = userStatsService.getStats(currentUser.getId());
+        if (materialized.isPresent()) {
+            UserStats stats = materialized.get();
+            return new UserDashboardResponse(profile, mapToUserStatistics(stats, currentUser),
+                    new ArrayList<>(stats.getLanguageCounts().keySet()));
+        }
+
         // Get snippet statistics
         Object[] stats = snippetRepository.getSnippetStatisticsByAuthor(currentUser);
         UserDashboardResponse.UserStatistics statistics = mapToUserStatistics(stats, currentUser);
+        statistics.setUniqueViewers(uniqueViewerService.getTotalUniqueViewersByAuthor(currentUser.getId()));
         
         // Get recent languages used by the user
         List<String> recentLanguages = snippetRepository.findDistinctLanguagesByAuthor(currentUser);
@@ -135,7 +193,7 @@ public class UserService {
             int page, int size, String sortBy, String sortDir,
             String visibility, String language, String search) {
         
-        User currentUser = getCurrentUser();
+        User currentUser = getCurrentUserReference();
         
         // Create sort object
         Sort.Direction direction = "asc".equalsIgnoreCase(sortDir) ? Sort.Direction.ASC : Sort.Direction.DESC;
@@ -205,17 +263,45 @@ public class UserService {
         );
     }
 
+    /**
+     * Get statistics over a user's public snippets
+     * @param username the username
+     * @return PublicStatistics with snippet count and total views
+     */
+    @Transactional(readOnly = true)
+    public UserOverviewResponse.PublicStatistics getPublicStatisticsByUsername(String username) {
+        return new UserOverviewResponse.PublicStatistics(
+                snippetRepository.countPublicSnippetsByUsername(username),
+                snippetRepository.sumPublicViewsByUsername(username));
+    }
+
+    /**
+     * Get the languages of a user's public snippets
+     * @param username the username
+     * @return sorted list of languages
+     */
+    @Transactional(readOnly = true)
+    public List<String> getPublicLanguagesByUsername(String username) {
+        return snippetRepository.findDistinctPublicLanguagesByUsername(username);
+    }
+
     /**
      * Delete user's snippet by ID
      * @param snippetId the snippet ID to delete
      */
     public void deleteUserSnippet(Long snippetId) {
-        User currentUser = getCurrentUser();
+        User currentUser = getCurrentUserReference();
         
         Snippet snippet = snippetRepository.findByIdAndAuthor(snippetId, currentUser)
                 .orElseThrow(() -> new ResourceNotFoundException("Snippet not found or not owned by user: " + snippetId));
         
+        userStatsService.recordSnippetDeleted(snippet);
         snippetRepository.delete(snippet);
+        uniqueViewerService.forgetSnippet(snippetId);
+        viewAnalyticsService.deleteSnippetStats(snippetId);
+        viewCounterService.deleteShards(snippetId);
+        revisionService.deleteRevisions(snippetId);
+        cacheInvalidationService.snippetChanged(snippetId, null);
     }
 
     /**
@@ -233,6 +319,20 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userPrincipal.getId()));
     }
 
+    /**
+     * Get a reference to the current authenticated user without loading it
+     * @return uninitialized User proxy, usable as a query parameter
+     */
+    private User getCurrentUserReference() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("User not authenticated");
+        }
+
+        CustomUserPrincipal userPrincipal = (CustomUserPrincipal) authentication.getPrincipal();
+        return userRepository.getReferenceById(userPrincipal.getId());
+    }
+
     /**
      * Map User entity to UserProfileResponse DTO
      * @param user the User entity
@@ -250,6 +350,27 @@ public class UserService {
         );
     }
 
+    /**
+     * Map materialized UserStats to UserStatistics DTO
+     * @param stats the materialized stats row
+     * @param user the User entity
+     * @return UserStatistics DTO
+     */
+    private UserDashboardResponse.UserStatistics mapToUserStatistics(UserStats stats, User user) {
+        // Last activity is the latest of a profile change and a snippet write
+        LocalDateTime lastActivity = user.getUpdatedAt();
+        if (stats.getLastActivity() != null && (lastActivity == null || stats.getLastActivity().isAfter(lastActivity))) {
+            lastActivity = stats.getLastActivity();
+        }
+
+        UserDashboardResponse.UserStatistics statistics = new UserDashboardResponse.UserStatistics(
+                stats.getTotalSnippets(), stats.getPublicSnippets(), stats.getPrivateSnippets(),
+                stats.getUnlistedSnippets(), stats.getTotalViews(), lastActivity
+        );
+        statistics.setUniqueViewers(stats.getUniqueViewers());
+        return statistics;
+    }
+
     /**
      * Map statistics array to UserStatistics DTO
      * @param stats the statistics array from repository
@@ -278,7 +399,7 @@ public class UserService {
      * @return SnippetSummaryResponse DTO
      */
     private SnippetSummaryResponse mapToSnippetSummaryResponse(Snippet snippet) {
-        return new SnippetSummaryResponse(
+        SnippetSummaryResponse response = new SnippetSummaryResponse(
                 snippet.getId(),
                 snippet.getTitle(),
                 snippet.getDescription(),
@@ -288,8 +409,10 @@ public class UserService {
                 snippet.getViewCount(),
                 snippet.getCreatedAt(),
                 snippet.getUpdatedAt(),
-                snippet.getAuthor().getUsername(),
+                currentUserResolver.usernameOf(snippet.getAuthor()),
                 snippet.getAuthor().getId()
         );
+        response.setVersion(snippet.getVersion());
+        return response;
     }
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.snipper.service;
+
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.model.UserStats;
+import com.snipper.model.VisibilityType;
+import com.snipper.repository.SnippetRepository;
+import com.snipper.repository.SnippetUniqueViewersRepository;
+import com.snipper.repository.UserRepository;
+import com.snipper.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Service maintaining the materialized user_stats rows read by the dashboard.
+ *
+ * A user's row is created with the user. Snippet writes apply deltas under a row lock
+ * in the writing transaction; view and unique-viewer flushes add their deltas in place.
+ * Users without a row, such as those registered before the table existed, are skipped
+ * and picked up by the periodic reconciliation, which recomputes every row from the
+ * snippets table to correct any drift.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserRepository userRepository;
+    private final SnippetRepository snippetRepository;
+    private final SnippetUniqueViewersRepository uniqueViewersRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int reconcileBatchSize;
+
+    @Autowired
+    public UserStatsService(UserStatsRepository userStatsRepository,
+                            UserRepository userRepository,
+                            SnippetRepository snippetRepository,
+                            SnippetUniqueViewersRepository uniqueViewersRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${snipper.stats.reconcile-batch-size:500}") int reconcileBatchSize) {
+        this.userStatsRepository = userStatsRepository;
+        this.userRepository = userRepository;
+        this.snippetRepository = snippetRepository;
+        this.uniqueViewersRepository = uniqueViewersRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+
+    /**
+     * Get a user's materialized statistics
+     * @param userId the user ID
+     * @return optional stats, empty for users the reconciliation has not reached yet
+     */
+    public Optional<UserStats> getStats(Long userId) {
+        return userStatsRepository.findById(userId);
+    }
+
+    /**
+     * Create the empty stats row of a new user; must run in the registering transaction
+     * @param userId the new user's ID
+     */
+    public void recordUserCreated(Long userId) {
+        userStatsRepository.save(new UserStats(userId));
+    }
+
+    /**
+     * Count a newly created snippet; must run in the creating transaction
+     * @param snippet the created snippet
+     */
+    public void recordSnippetCreated(Snippet snippet) {
+        update(snippet.getAuthor().getId(), stats ->
+                stats.adjustSnippet(snippet.getVisibility(), snippet.getLanguage(), 1));
+    }
+
+    /**
+     * Move an updated snippet between visibility and language counts; must run in the updating transaction
+     * @param snippet the updated snippet
+     * @param oldVisibility visibility before the update
+     * @param oldLanguage language before the update
+     */
+    public void recordSnippetUpdated(Snippet snippet, VisibilityType oldVisibility, String oldLanguage) {
+        update(snippet.getAuthor().getId(), stats -> {
+            if (oldVisibility != snippet.getVisibility() || !Objects.equals(oldLanguage, snippet.getLanguage())) {
+                stats.adjustSnippet(oldVisibility, oldLanguage, -1);
+                stats.adjustSnippet(snippet.getVisibility(), snippet.getLanguage(), 1);
+            }
+        });
+    }
+
+    /**
+     * Remove a deleted snippet and its views; must run before its unique-viewer sketch is dropped
+     * @param snippet the deleted snippet
+     */
+    public void recordSnippetDeleted(Snippet snippet) {
+        long uniqueViewers = uniqueViewersRepository.findUniqueViewersBySnippetId(snippet.getId()).orElse(0L);
+        update(snippet.getAuthor().getId(), stats -> {
+            stats.adjustSnippet(snippet.getVisibility(), snippet.getLanguage(), -1);
+            stats.setTotalViews(stats.getTotalViews() - snippet.getViewCount());
+            stats.setUniqueViewers(stats.getUniqueViewers() - uniqueViewers);
+        });
+    }
+
+    /**
+     * Add views folded into a snippet's view count to its author's total
+     * @param snippetId the snippet ID
+     * @param delta number of views folded
+     */
+    public void recordViews(Long snippetId, long delta) {
+        if (delta != 0) {
+            snippetRepository.findAuthorIdById(snippetId)
+                    .ifPresent(authorId -> userStatsRepository.addViews(authorId, delta));
+        }
+    }
+
+    /**
+     * Apply a change of a snippet's unique-viewer estimate to its author's sum
+     * @param snippetId the snippet ID
+     * @param delta change of the estimate
+     */
+    public void recordUniqueViewersChange(Long snippetId, long delta) {
+        if (delta != 0) {
+            snippetRepository.findAuthorIdById(snippetId)
+                    .ifPresent(authorId -> userStatsRepository.addUniqueViewers(authorId, delta));
+        }
+    }
+
+    /**
+     * Recompute every user's statistics from the snippets table, creating missing rows
+     */
+    @Scheduled(initialDelayString = "${snipper.stats.reconcile-initial-delay-ms:60000}",
+               fixedDelayString = "${snipper.stats.reconcile-interval-ms:21600000}")
+    public void reconcileAll() {
+        long lastId = 0;
+        int reconciled = 0;
+        int drifted = 0;
+        List<Long> userIds;
+        do {
+            userIds = userRepository.findIdsAfter(lastId, PageRequest.of(0, reconcileBatchSize));
+            for (Long userId : userIds) {
+                try {
+                    if (reconcile(userId)) {
+                        drifted++;
+                    }
+                    reconciled++;
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to reconcile stats of user {}: {}", userId, e.getMessage());
+                }
+                lastId = userId;
+            }
+        } while (userIds.size() == reconcileBatchSize);
+        logger.info("Reconciled stats of {} users, {} had drifted", reconciled, drifted);
+    }
+
+    /**
+     * Recompute one user's statistics from the snippets table
+     * @param userId the user ID
+     * @return true if the stored row was missing or differed
+     */
+    public boolean reconcile(Long userId) {
+        Boolean drifted = transactionTemplate.execute(status -> {
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                return false;
+            }
+            // Lock first so concurrent deltas queue behind the recomputed values
+            Optional<UserStats> existing = userStatsRepository.findForUpdate(userId);
+            UserStats stats = existing.orElseGet(() -> new UserStats(userId));
+
+            Object[] counts = unwrapRow(snippetRepository.getSnippetStatisticsByAuthor(user.get()));
+            Map<String, Long> languageCounts = new TreeMap<>();
+            for (Object[] row : snippetRepository.countSnippetsByLanguageForAuthor(user.get())) {
+                languageCounts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            long uniqueViewers = uniqueViewersRepository.sumUniqueViewersByAuthorId(userId);
+
+            boolean changed = existing.isEmpty()
+                    || stats.getTotalSnippets() != longAt(counts, 0)
+                    || stats.getPublicSnippets() != longAt(counts, 1)
+                    || stats.getPrivateSnippets() != longAt(counts, 2)
+                    || stats.getUnlistedSnippets() != longAt(counts, 3)
+                    || stats.getTotalViews() != longAt(counts, 4)
+                    || stats.getUniqueViewers() != uniqueViewers
+                    || !stats.getLanguageCounts().equals(languageCounts);
+            if (changed) {
+                stats.setTotalSnippets(longAt(counts, 0));
+                stats.setPublicSnippets(longAt(counts, 1));
+                stats.setPrivateSnippets(longAt(counts, 2));
+                stats.setUnlistedSnippets(longAt(counts, 3));
+                stats.setTotalViews(longAt(counts, 4));
+                stats.setUniqueViewers(uniqueViewers);
+                stats.setLanguageCounts(languageCounts);
+                userStatsRepository.save(stats);
+            }
+            return changed;
+        });
+        return Boolean.TRUE.equals(drifted);
+    }
+
+    private void update(Long userId, Consumer<UserStats> change) {
+        userStatsRepository.findForUpdate(userId).ifPresent(stats -> {
+            change.accept(stats);
+            stats.setLastActivity(LocalDateTime.now());
+            userStatsRepository.save(stats);
+        });
+    }
+
+    private Object[] unwrapRow(Object[] row) {
+        // Single-row aggregate queries may come back wrapped in an outer array
+        if (row != null && row.length == 1 && row[0] instanceof Object[] inner) {
+            return inner;
+        }
+        return row;
+    }
+
+    private long longAt(Object[] row, int index) {
+        return row != null && row.length > index && row[index] != null ? ((Number) row[index]).longValue() : 0;
+    }
+}
@@ -0,0 +1,255 @@
+package com.snipper.service;
+
+import com.snipper.dto.snippet.SnippetViewStatsResponse;
+import com.snipper.exception.ValidationException;
+import com.snipper.model.SnippetViewStat;
+import com.snipper.model.SnippetViewStatId;
+import com.snipper.model.StatGranularity;
+import com.snipper.repository.SnippetViewStatRepository;
+import com.snipper.util.ViewEventRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Service collecting per-snippet view analytics.
+ *
+ * Request threads publish view events into a lock-free ring buffer. A scheduled flusher
+ * aggregates them into hourly buckets and writes them to snippet_view_stats in one batch;
+ * an hourly rollup derives daily and monthly buckets and expires old fine-grained data.
+ */
+@Service
+public class ViewAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewAnalyticsService.class);
+
+    private final SnippetViewStatRepository viewStatRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ViewEventRingBuffer eventBuffer;
+    private final int hourlyRetentionDays;
+    private final int dailyRetentionDays;
+    private final int rollupLookbackDays;
+
+    // Aggregated hourly deltas not yet written; only touched while holding the flush lock
+    private final Map<SnippetViewStatId, Long> pendingBuckets = new HashMap<>();
+    // Keeps the scheduled flush and the shutdown flush from draining into pendingBuckets at once
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public ViewAnalyticsService(SnippetViewStatRepository viewStatRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${snipper.analytics.views.buffer-size:65536}") int bufferSize,
+                                @Value("${snipper.analytics.views.hourly-retention-days:14}") int hourlyRetentionDays,
+                                @Value("${snipper.analytics.views.daily-retention-days:400}") int dailyRetentionDays,
+                                @Value("${snipper.analytics.views.rollup-lookback-days:2}") int rollupLookbackDays) {
+        if (hourlyRetentionDays <= rollupLookbackDays) {
+            throw new IllegalArgumentException("Hourly retention must be longer than the rollup lookback");
+        }
+        this.viewStatRepository = viewStatRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventBuffer = new ViewEventRingBuffer(bufferSize);
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        this.dailyRetentionDays = dailyRetentionDays;
+        this.rollupLookbackDays = rollupLookbackDays;
+    }
+
+    /**
+     * Record a single view of a snippet
+     * @param snippetId the snippet ID
+     */
+    public void recordView(Long snippetId) {
+        if (snippetId != null && !eventBuffer.offer(snippetId, System.currentTimeMillis())) {
+            logger.debug("View event buffer full, dropped view of snippet {}", snippetId);
+        }
+    }
+
+    /**
+     * Aggregate buffered view events into hourly buckets and write them in one batch
+     */
+    @Scheduled(fixedDelayString = "${snipper.analytics.views.flush-interval-ms:5000}")
+    public void flushViewEvents() {
+        flushLock.lock();
+        try {
+            flushViewEventsLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushViewEventsLocked() {
+        eventBuffer.drain((snippetId, timestampMillis) -> {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneOffset.UTC);
+            SnippetViewStatId bucket = new SnippetViewStatId(snippetId, StatGranularity.HOUR, StatGranularity.HOUR.truncate(time));
+            pendingBuckets.merge(bucket, 1L, Long::sum);
+        });
+        if (pendingBuckets.isEmpty()) {
+            return;
+        }
+
+        Map<SnippetViewStatId, Long> batch = new HashMap<>(pendingBuckets);
+        pendingBuckets.clear();
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::addToBucket));
+        } catch (RuntimeException e) {
+            // Fall back to one transaction per bucket so a single bad bucket can't stall the rest
+            logger.warn("Batched flush of {} view stat buckets failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::flushBucket);
+        }
+    }
+
+    /**
+     * Derive daily and monthly buckets and expire old hourly and daily buckets
+     */
+    @Scheduled(cron = "${snipper.analytics.views.rollup-cron:0 5 * * * *}", zone = "UTC")
+    public void rollUpViewStats() {
+        LocalDateTime now = now();
+        LocalDateTime today = StatGranularity.DAY.truncate(now);
+        LocalDateTime thisMonth = StatGranularity.MONTH.truncate(now);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (LocalDateTime day = today.minusDays(rollupLookbackDays); !day.isAfter(today); day = day.plusDays(1)) {
+                rollUp(StatGranularity.HOUR, StatGranularity.DAY, day);
+            }
+            rollUp(StatGranularity.DAY, StatGranularity.MONTH, thisMonth.minusMonths(1));
+            rollUp(StatGranularity.DAY, StatGranularity.MONTH, thisMonth);
+
+            int expiredHours = viewStatRepository.deleteOlderThan(StatGranularity.HOUR,
+                    StatGranularity.HOUR.truncate(now).minusDays(hourlyRetentionDays));
+            int expiredDays = viewStatRepository.deleteOlderThan(StatGranularity.DAY, today.minusDays(dailyRetentionDays));
+            logger.debug("View stats rollup done, expired {} hourly and {} daily buckets", expiredHours, expiredDays);
+        });
+    }
+
+    /**
+     * Get a snippet's view statistics, zero-filled, for a bounded range of buckets
+     * @param snippetId the snippet ID
+     * @param granularity the bucket granularity
+     * @param from range start (defaults depend on granularity)
+     * @param to range end, inclusive of its bucket (defaults to now)
+     * @return SnippetViewStatsResponse with one entry per bucket
+     * @throws ValidationException if the range is inverted or spans too many buckets
+     */
+    public SnippetViewStatsResponse getViewStats(Long snippetId, StatGranularity granularity,
+                                                 LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = to != null ? to : now();
+        LocalDateTime start = from != null ? from : defaultFrom(granularity, end);
+        if (start.isAfter(end)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+
+        LocalDateTime firstBucket = granularity.truncate(start);
+        LocalDateTime endExclusive = granularity.next(granularity.truncate(end));
+        List<LocalDateTime> bucketStarts = new ArrayList<>();
+        for (LocalDateTime bucket = firstBucket; bucket.isBefore(endExclusive); bucket = granularity.next(bucket)) {
+            if (bucketStarts.size() == granularity.getMaxBuckets()) {
+                throw new ValidationException("Range exceeds " + granularity.getMaxBuckets() + " "
+                        + granularity.name().toLowerCase() + " buckets");
+            }
+            bucketStarts.add(bucket);
+        }
+
+        Map<LocalDateTime, Long> stored = viewStatRepository.findBuckets(snippetId, granularity, firstBucket, endExclusive)
+                .stream()
+                .collect(Collectors.toMap(stat -> stat.getId().getBucketStart(), SnippetViewStat::getViewCount));
+
+        List<SnippetViewStatsResponse.Bucket> buckets = bucketStarts.stream()
+                .map(bucket -> new SnippetViewStatsResponse.Bucket(bucket, stored.getOrDefault(bucket, 0L)))
+                .collect(Collectors.toList());
+        long totalViews = buckets.stream().mapToLong(SnippetViewStatsResponse.Bucket::getViews).sum();
+
+        return new SnippetViewStatsResponse(snippetId, granularity.name().toLowerCase(),
+                firstBucket, endExclusive, totalViews, buckets);
+    }
+
+    /**
+     * Remove all statistics of a deleted snippet
+     * @param snippetId the snippet ID
+     */
+    public void deleteSnippetStats(Long snippetId) {
+        viewStatRepository.deleteBySnippetId(snippetId);
+    }
+
+    /**
+     * @return number of view events waiting in the buffer
+     */
+    public int getBufferedEventCount() {
+        return eventBuffer.size();
+    }
+
+    /**
+     * @return number of view events dropped because the buffer was full
+     */
+    public long getDroppedEventCount() {
+        return eventBuffer.getDroppedCount();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushViewEvents();
+    }
+
+    private void flushBucket(SnippetViewStatId bucket, Long views) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> addToBucket(bucket, views));
+        } catch (DataIntegrityViolationException e) {
+            // Snippet was deleted, or another replica created the bucket first
+            if (viewStatRepository.existsById(bucket)) {
+                pendingBuckets.merge(bucket, views, Long::sum);
+            } else {
+                logger.debug("Dropping view stats for missing snippet {}", bucket.getSnippetId());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush view stats for snippet {}: {}", bucket.getSnippetId(), e.getMessage());
+            pendingBuckets.merge(bucket, views, Long::sum);
+        }
+    }
+
+    private void addToBucket(SnippetViewStatId bucket, Long views) {
+        int updated = viewStatRepository.addViews(bucket.getSnippetId(), bucket.getGranularity(), bucket.getBucketStart(), views);
+        if (updated == 0) {
+            viewStatRepository.save(new SnippetViewStat(bucket, views));
+        }
+    }
+
+    private void rollUp(StatGranularity source, StatGranularity target, LocalDateTime bucketStart) {
+        LocalDateTime bucketEnd = target.next(bucketStart);
+        Map<Long, Long> totals = viewStatRepository.sumViewsBySnippet(source, bucketStart, bucketEnd).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).longValue()));
+
+        totals.forEach((snippetId, views) -> {
+            int updated = viewStatRepository.setViews(snippetId, target, bucketStart, views);
+            if (updated == 0) {
+                viewStatRepository.save(new SnippetViewStat(new SnippetViewStatId(snippetId, target, bucketStart), views));
+            }
+        });
+    }
+
+    private LocalDateTime defaultFrom(StatGranularity granularity, LocalDateTime to) {
+        return switch (granularity) {
+            case HOUR -> to.minusHours(47);
+            case DAY -> to.minusDays(29);
+            case MONTH -> to.minusMonths(11);
+        };
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,192 @@
+package com.snipper.service;
+
+import com.snipper.model.Snippet;
+import com.snipper.model.SnippetViewCounterShard;
+import com.snipper.model.SnippetViewCounterShardId;
+import com.snipper.repository.SnippetRepository;
+import com.snipper.repository.SnippetViewCounterShardRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service maintaining sharded snippet view counters.
+ *
+ * Each snippet owns a fixed number of counter rows and every view increments one at
+ * random, so concurrent viewers of a popular snippet no longer serialize on the single
+ * snippets row lock. A compaction job periodically folds the shard deltas back into
+ * snippets.view_count, evicting only that snippet from the second-level cache.
+ */
+@Service
+public class ViewCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCounterService.class);
+
+    private final SnippetViewCounterShardRepository shardRepository;
+    private final SnippetRepository snippetRepository;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int shardCount;
+
+    // Snippets incremented on this instance since the last compaction
+    private final Set<Long> dirtySnippets = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ViewCounterService(SnippetViewCounterShardRepository shardRepository,
+                              SnippetRepository snippetRepository,
+                              UserStatsService userStatsService,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              @Value("${snipper.analytics.view-counter.shards:8}") int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("View counter needs at least one shard");
+        }
+        this.shardRepository = shardRepository;
+        this.snippetRepository = snippetRepository;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Create the counter shards of a new snippet; must run in the creating transaction
+     * @param snippetId the snippet ID
+     */
+    public void createShards(Long snippetId) {
+        List<SnippetViewCounterShard> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(new SnippetViewCounterShard(new SnippetViewCounterShardId(snippetId, shard)));
+        }
+        shardRepository.saveAll(shards);
+    }
+
+    /**
+     * Count one view of a snippet; must run in a read-write transaction
+     * @param snippetId the snippet ID
+     */
+    public void increment(Long snippetId) {
+        int shard = ThreadLocalRandom.current().nextInt(shardCount);
+        if (shardRepository.incrementShard(snippetId, shard) == 0) {
+            // Snippet has no shard rows (or fewer than configured); count on the snippet row
+            userStatsService.recordViews(snippetId, 1);
+            snippetRepository.incrementViewCount(snippetId);
+            evictCachedSnippet(snippetId);
+            return;
+        }
+        dirtySnippets.add(snippetId);
+    }
+
+    /**
+     * Get views of a snippet not yet folded into its view count
+     * @param snippetId the snippet ID
+     * @return pending views
+     */
+    public long getPendingViews(Long snippetId) {
+        return shardRepository.sumDeltaBySnippetId(snippetId);
+    }
+
+    /**
+     * Get the view count of a snippet including views not yet folded into it
+     * @param snippetId the snippet ID
+     * @return current view count, 0 if the snippet no longer exists
+     */
+    public long getViewCount(Long snippetId) {
+        return snippetRepository.findCurrentViewCount(snippetId).orElse(0L);
+    }
+
+    /**
+     * Remove the counter shards of a deleted snippet
+     * @param snippetId the snippet ID
+     */
+    public void deleteShards(Long snippetId) {
+        dirtySnippets.remove(snippetId);
+        shardRepository.deleteBySnippetId(snippetId);
+    }
+
+    /**
+     * Fold the shards of recently viewed snippets into snippets.view_count
+     */
+    @Scheduled(fixedDelayString = "${snipper.analytics.view-counter.compaction-interval-ms:10000}")
+    public void compactDirtyCounters() {
+        List<Long> snippetIds = new ArrayList<>(dirtySnippets);
+        for (Long snippetId : snippetIds) {
+            dirtySnippets.remove(snippetId);
+            compact(snippetId);
+        }
+    }
+
+    /**
+     * Fold every snippet with pending views, including those left behind by other instances or restarts
+     */
+    @Scheduled(cron = "${snipper.analytics.view-counter.sweep-cron:0 15 * * * *}")
+    public void compactAllCounters() {
+        for (Long snippetId : shardRepository.findSnippetIdsWithPendingViews()) {
+            compact(snippetId);
+        }
+    }
+
+    /**
+     * Fold one snippet's shards into its view count
+     * @param snippetId the snippet ID
+     * @return number of views folded
+     */
+    public long compact(Long snippetId) {
+        try {
+            Long folded = transactionTemplate.execute(status -> {
+                long total = 0;
+                for (SnippetViewCounterShard shard : shardRepository.findBySnippetId(snippetId)) {
+                    long delta = shard.getDelta();
+                    if (delta != 0) {
+                        // Subtract what was read rather than zeroing, so concurrent increments survive
+                        shardRepository.subtractFromShard(snippetId, shard.getId().getShard(), delta);
+                        total += delta;
+                    }
+                }
+                if (total != 0) {
+                    // Author stats before the snippet row, matching the lock order of snippet writes
+                    userStatsService.recordViews(snippetId, total);
+                    snippetRepository.addViewCount(snippetId, total);
+                    evictCachedSnippet(snippetId);
+                }
+                return total;
+            });
+            return folded != null ? folded : 0;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to compact view counter of snippet {}: {}", snippetId, e.getMessage());
+            dirtySnippets.add(snippetId);
+            return 0;
+        }
+    }
+
+    private void evictCachedSnippet(Long snippetId) {
+        Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    secondLevelCache.evict(Snippet.class, snippetId);
+                }
+            });
+        } else {
+            secondLevelCache.evict(Snippet.class, snippetId);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.snipper.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free concurrency limit adjusted by additive increase, multiplicative decrease (AIMD).
+ *
+ * Each request that finishes within the latency target while the limit was at least half
+ * used raises the limit by one; each request that is slower than the target, or failed,
+ * multiplies it by the backoff ratio. The limit thus settles just below the concurrency at
+ * which latency starts to climb, without configuring that point up front.
+ */
+public class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Double bits, so the limit can be updated with compare-and-set
+    private final AtomicLong limitBits;
+
+    /**
+     * @param initialLimit starting limit
+     * @param minLimit floor the limit never drops below
+     * @param maxLimit ceiling the limit never grows above
+     * @param backoffRatio factor applied on a slow or failed request, between 0 and 1
+     * @param latencyTargetNanos latency above which a request counts as overload
+     */
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyTargetNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max and backoff ratio must be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * Take a slot if the limit allows
+     * @return true if the request may proceed and must later call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a slot and adjust the limit from the request's outcome
+     * @param latencyNanos how long the request took
+     * @param failed whether the request failed in a way that suggests overload
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int wasInFlight = inFlight.getAndDecrement();
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next;
+            if (failed || latencyNanos > latencyTargetNanos) {
+                next = Math.max(minLimit, limit * backoffRatio);
+            } else if (wasInFlight * 2 >= limit) {
+                next = Math.min(maxLimit, limit + 1);
+            } else {
+                // Mostly idle: a fast response says nothing about higher concurrency
+                return;
+            }
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return current limit
+     */
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * @return requests currently holding a slot
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.snipper.util;
+
+/**
+ * Count-Min sketch of 4-bit counters estimating how often keys were seen recently; the
+ * admission filter of {@link WTinyLfuCache}.
+ *
+ * Every counter is halved once the sketch has recorded ten times its width, so old
+ * popularity fades. Estimates only ever err high, by hash collisions. Not thread-safe.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final byte[] table;
+    private final int width;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries roughly how many distinct keys the cache holds
+     */
+    public FrequencySketch(int expectedEntries) {
+        this.width = Integer.highestOneBit(Math.max(64, Math.min(expectedEntries, 1 << 24) - 1) << 1);
+        this.table = new byte[DEPTH * width];
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * @param key the key
+     * @return estimated recent accesses of the key, at most 15
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record one access of a key
+     * @param key the key
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            age();
+        }
+    }
+
+    private void age() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>= 1;
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * width + ((int) h & (width - 1));
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,244 @@
+package com.snipper.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch with a sparse encoding for low-cardinality sets.
+ *
+ * Uses 2^12 registers (~1.6% standard error). While few registers are set the sketch
+ * keeps a sorted list of (register, rank) pairs and switches to a dense 6-bit packed
+ * register array once that list would be larger than the dense form.
+ *
+ * Instances are not thread-safe; callers must synchronize access.
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final int REGISTER_BITS = 6;
+    private static final int DENSE_BYTES = REGISTER_COUNT * REGISTER_BITS / 8;
+    private static final int SPARSE_ENTRY_BYTES = 3;
+    private static final int SPARSE_LIMIT = DENSE_BYTES / SPARSE_ENTRY_BYTES;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+
+    // Sparse form: sorted entries of (register << 8 | rank)
+    private int[] sparse = new int[4];
+    private int sparseSize;
+
+    // Dense form: one byte per register, null while sparse
+    private byte[] registers;
+
+    public HyperLogLog() {
+    }
+
+    /**
+     * Add a value to the sketch
+     * @param value the value to add
+     * @return true if the sketch changed
+     */
+    public boolean offer(String value) {
+        return offerHash(hash64(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Add a pre-computed 64-bit hash to the sketch
+     * @param hash the hash to add
+     * @return true if the sketch changed
+     */
+    public boolean offerHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        return update(index, rank);
+    }
+
+    /**
+     * Merge another sketch into this one
+     * @param other the sketch to merge
+     */
+    public void merge(HyperLogLog other) {
+        if (other.registers != null) {
+            for (int i = 0; i < REGISTER_COUNT; i++) {
+                if (other.registers[i] != 0) {
+                    update(i, other.registers[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                update(other.sparse[i] >>> 8, other.sparse[i] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of distinct values added to the sketch
+     * @return the estimated cardinality
+     */
+    public long cardinality() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers != null) {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xFF));
+            }
+            zeros = REGISTER_COUNT - sparseSize;
+            sum += zeros;
+        }
+
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            // Small-range correction: linear counting
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Check whether the sketch is still using the sparse representation
+     * @return true if sparse
+     */
+    public boolean isSparse() {
+        return registers == null;
+    }
+
+    /**
+     * Serialize the sketch into its compact binary form
+     * @return the serialized sketch
+     */
+    public byte[] toBytes() {
+        if (registers == null) {
+            byte[] bytes = new byte[3 + sparseSize * SPARSE_ENTRY_BYTES];
+            bytes[0] = FORMAT_SPARSE;
+            bytes[1] = (byte) (sparseSize >>> 8);
+            bytes[2] = (byte) sparseSize;
+            for (int i = 0, offset = 3; i < sparseSize; i++, offset += SPARSE_ENTRY_BYTES) {
+                int index = sparse[i] >>> 8;
+                bytes[offset] = (byte) (index >>> 8);
+                bytes[offset + 1] = (byte) index;
+                bytes[offset + 2] = (byte) sparse[i];
+            }
+            return bytes;
+        }
+
+        byte[] bytes = new byte[1 + DENSE_BYTES];
+        bytes[0] = FORMAT_DENSE;
+        // Pack four 6-bit registers into every three bytes
+        for (int i = 0, offset = 1; i < REGISTER_COUNT; i += 4, offset += 3) {
+            int packed = (registers[i] << 18) | (registers[i + 1] << 12) | (registers[i + 2] << 6) | registers[i + 3];
+            bytes[offset] = (byte) (packed >>> 16);
+            bytes[offset + 1] = (byte) (packed >>> 8);
+            bytes[offset + 2] = (byte) packed;
+        }
+        return bytes;
+    }
+
+    /**
+     * Deserialize a sketch produced by {@link #toBytes()}
+     * @param bytes the serialized sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a valid sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+
+        if (bytes[0] == FORMAT_SPARSE && bytes.length >= 3) {
+            int size = ((bytes[1] & 0xFF) << 8) | (bytes[2] & 0xFF);
+            if (bytes.length != 3 + size * SPARSE_ENTRY_BYTES) {
+                throw new IllegalArgumentException("Corrupt sparse HyperLogLog sketch");
+            }
+            for (int i = 0, offset = 3; i < size; i++, offset += SPARSE_ENTRY_BYTES) {
+                int index = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+                sketch.update(index, bytes[offset + 2] & 0xFF);
+            }
+            return sketch;
+        }
+
+        if (bytes[0] == FORMAT_DENSE && bytes.length == 1 + DENSE_BYTES) {
+            sketch.registers = new byte[REGISTER_COUNT];
+            for (int i = 0, offset = 1; i < REGISTER_COUNT; i += 4, offset += 3) {
+                int packed = ((bytes[offset] & 0xFF) << 16) | ((bytes[offset + 1] & 0xFF) << 8) | (bytes[offset + 2] & 0xFF);
+                sketch.registers[i] = (byte) ((packed >>> 18) & 0x3F);
+                sketch.registers[i + 1] = (byte) ((packed >>> 12) & 0x3F);
+                sketch.registers[i + 2] = (byte) ((packed >>> 6) & 0x3F);
+                sketch.registers[i + 3] = (byte) (packed & 0x3F);
+            }
+            sketch.sparse = null;
+            return sketch;
+        }
+
+        throw new IllegalArgumentException("Unknown HyperLogLog sketch format");
+    }
+
+    private boolean update(int index, int rank) {
+        if (registers != null) {
+            if (registers[index] < rank) {
+                registers[index] = (byte) rank;
+                return true;
+            }
+            return false;
+        }
+
+        int position = Arrays.binarySearch(sparse, 0, sparseSize, index << 8);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position < sparseSize && (sparse[position] >>> 8) == index) {
+            if ((sparse[position] & 0xFF) >= rank) {
+                return false;
+            }
+            sparse[position] = (index << 8) | rank;
+            return true;
+        }
+
+        if (sparseSize >= SPARSE_LIMIT) {
+            toDense();
+            return update(index, rank);
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(sparse.length * 2, SPARSE_LIMIT));
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = (index << 8) | rank;
+        sparseSize++;
+        return true;
+    }
+
+    private void toDense() {
+        registers = new byte[REGISTER_COUNT];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    /**
+     * 64-bit FNV-1a hash finished with the MurmurHash3 fmix64 avalanche step
+     */
+    static long hash64(byte[] data) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
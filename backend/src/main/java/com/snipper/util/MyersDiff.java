@@ -0,0 +1,196 @@
+package com.snipper.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line-based Myers diff producing compact text deltas.
+ *
+ * A delta is a list of newline-separated tokens: "=n" copies the next n source lines,
+ * "-n" skips them and "+n" is followed by n lines to insert. Lines are split on '\n' only,
+ * so applying a delta reproduces the target exactly, line endings included. The common
+ * prefix and suffix are trimmed before the O((N+M)D) search, which keeps the usual small
+ * edit to a large file cheap.
+ */
+public final class MyersDiff {
+
+    private static final char EQUAL = '=';
+    private static final char DELETE = '-';
+    private static final char INSERT = '+';
+
+    private MyersDiff() {
+    }
+
+    /**
+     * Compute the delta turning source into target
+     * @param source the old text
+     * @param target the new text
+     * @param maxEdits give up beyond this many inserted plus deleted lines
+     * @return the delta, or null if the texts differ by more than maxEdits lines
+     */
+    public static String diff(String source, String target, int maxEdits) {
+        String[] a = lines(source);
+        String[] b = lines(target);
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) {
+            suffix++;
+        }
+
+        char[] middle = editScript(a, b, prefix, a.length - prefix - suffix, b.length - prefix - suffix, maxEdits);
+        if (middle == null) {
+            return null;
+        }
+        char[] ops = new char[prefix + middle.length + suffix];
+        Arrays.fill(ops, 0, prefix, EQUAL);
+        System.arraycopy(middle, 0, ops, prefix, middle.length);
+        Arrays.fill(ops, prefix + middle.length, ops.length, EQUAL);
+        return encode(ops, b);
+    }
+
+    /**
+     * Apply a delta produced by {@link #diff}
+     * @param source the text the delta was computed against
+     * @param delta the delta
+     * @return the target text
+     * @throws IllegalArgumentException if the delta is malformed or was made for another source
+     */
+    public static String apply(String source, String delta) {
+        String[] a = lines(source);
+        String[] tokens = delta.split("\n", -1);
+        List<String> out = new ArrayList<>(a.length);
+        int sourceLine = 0;
+        int i = 0;
+        while (i < tokens.length) {
+            String token = tokens[i++];
+            int count = parseCount(token);
+            switch (token.charAt(0)) {
+                case EQUAL -> {
+                    if (sourceLine + count > a.length) {
+                        throw new IllegalArgumentException("Delta does not match its source");
+                    }
+                    out.addAll(Arrays.asList(a).subList(sourceLine, sourceLine + count));
+                    sourceLine += count;
+                }
+                case DELETE -> sourceLine += count;
+                case INSERT -> {
+                    if (i + count > tokens.length) {
+                        throw new IllegalArgumentException("Delta is truncated");
+                    }
+                    out.addAll(Arrays.asList(tokens).subList(i, i + count));
+                    i += count;
+                }
+                default -> throw new IllegalArgumentException("Unknown delta operation: " + token);
+            }
+        }
+        if (sourceLine != a.length) {
+            throw new IllegalArgumentException("Delta does not match its source");
+        }
+        return String.join("\n", out);
+    }
+
+    /**
+     * Shortest edit script of a[offset, offset + n) to b[offset, offset + m), one op per line
+     */
+    private static char[] editScript(String[] a, String[] b, int offset, int n, int m, int maxEdits) {
+        int max = n + m;
+        int limit = Math.min(max, maxEdits);
+        int center = max + 1;
+        int[] v = new int[2 * max + 3];
+        // trace.get(d) holds v[-d..d] as it was before step d
+        List<int[]> trace = new ArrayList<>();
+        int edits = -1;
+        search:
+        for (int d = 0; d <= limit; d++) {
+            trace.add(Arrays.copyOfRange(v, center - d, center + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[center + k - 1] < v[center + k + 1])
+                        ? v[center + k + 1]
+                        : v[center + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[offset + x].equals(b[offset + y])) {
+                    x++;
+                    y++;
+                }
+                v[center + k] = x;
+                if (x >= n && y >= m) {
+                    edits = d;
+                    break search;
+                }
+            }
+        }
+        if (edits < 0) {
+            return null;
+        }
+
+        // Walk back from (n, m), filling ops from the end
+        char[] ops = new char[n + m - (n + m - edits) / 2];
+        int pos = ops.length;
+        int x = n;
+        int y = m;
+        for (int d = edits; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int prevK = k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d]) ? k + 1 : k - 1;
+            int prevX = previous[prevK + d];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                ops[--pos] = EQUAL;
+                x--;
+                y--;
+            }
+            ops[--pos] = x == prevX ? INSERT : DELETE;
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0) {
+            ops[--pos] = EQUAL;
+            x--;
+        }
+        return ops;
+    }
+
+    private static String encode(char[] ops, String[] b) {
+        StringBuilder delta = new StringBuilder();
+        int targetLine = 0;
+        int i = 0;
+        while (i < ops.length) {
+            char op = ops[i];
+            int run = 1;
+            while (i + run < ops.length && ops[i + run] == op) {
+                run++;
+            }
+            if (delta.length() > 0) {
+                delta.append('\n');
+            }
+            delta.append(op).append(run);
+            if (op == INSERT) {
+                for (int j = 0; j < run; j++) {
+                    delta.append('\n').append(b[targetLine + j]);
+                }
+            }
+            if (op != DELETE) {
+                targetLine += run;
+            }
+            i += run;
+        }
+        return delta.toString();
+    }
+
+    private static int parseCount(String token) {
+        try {
+            return Integer.parseInt(token.substring(1));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed delta token: " + token, e);
+        }
+    }
+
+    private static String[] lines(String text) {
+        return text.split("\n", -1);
+    }
+}
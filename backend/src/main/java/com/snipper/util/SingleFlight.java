@@ -0,0 +1,110 @@
+package com.snipper.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into one: the first caller runs the loader
+ * and everyone arriving while it runs gets its result, or its exception.
+ *
+ * Nothing is cached; the key is forgotten as soon as the load finishes. Callers wait at
+ * most the timeout (counted from when the load started) and then load on their own, and a
+ * load older than the timeout is no longer joined, so one stuck query cannot hold up
+ * every later request. Keys from different loaders share one map and must be namespaced,
+ * e.g. "snippet:42".
+ */
+public class SingleFlight {
+
+    private record Flight(CompletableFuture<Object> result, long startedAt) {}
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * @param timeoutMillis how long callers wait for another caller's load of the same key
+     */
+    public SingleFlight(long timeoutMillis) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Load a value, sharing the load with concurrent callers of the same key
+     * @param key the namespaced key
+     * @param loader loads the value; its result must not be mutated by callers
+     * @return the loaded value
+     */
+    public <V> V execute(String key, Supplier<V> loader) {
+        long now = System.nanoTime();
+        Flight flight = new Flight(new CompletableFuture<>(), now);
+        while (true) {
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, loader);
+            }
+            long remaining = timeoutNanos - (now - existing.startedAt());
+            if (remaining <= 0) {
+                // Too old to join: take over the key with a fresh load
+                if (flights.replace(key, existing, flight)) {
+                    return lead(key, flight, loader);
+                }
+                continue;
+            }
+            coalesced.incrementAndGet();
+            return await(existing, remaining, loader);
+        }
+    }
+
+    /**
+     * @return number of calls served by another caller's load
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return number of loads in flight
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private <V> V lead(String key, Flight flight, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            flight.result().complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V await(Flight flight, long remainingNanos, Supplier<V> loader) {
+        try {
+            return (V) flight.result().get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shared load failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.snipper.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket refilled continuously at a fixed rate.
+ *
+ * The token count and refill time are swapped together with a compare-and-set, so
+ * concurrent consumers never block. Times are caller-supplied System.nanoTime() values.
+ */
+public class TokenBucket {
+
+    private record State(double tokens, long refilledAt) {}
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+    private final AtomicLong consumedSinceDrain = new AtomicLong();
+    private volatile long lastAccess;
+
+    /**
+     * Create a full bucket
+     * @param capacity maximum number of tokens
+     * @param refillPerSecond tokens added per second
+     * @param now current time in nanoseconds
+     */
+    public TokenBucket(double capacity, double refillPerSecond, long now) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+        this.lastAccess = now;
+    }
+
+    /**
+     * Take one token if available
+     * @param now current time in nanoseconds
+     * @return true if a token was taken
+     */
+    public boolean tryConsume(long now) {
+        lastAccess = now;
+        while (true) {
+            State current = state.get();
+            double tokens = refilled(current, now);
+            if (tokens < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt())))) {
+                consumedSinceDrain.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param now current time in nanoseconds
+     * @return tokens currently available
+     */
+    public double getTokens(long now) {
+        return refilled(state.get(), now);
+    }
+
+    /**
+     * Lower the available tokens to a value, e.g. one agreed with other replicas; never raises them
+     * @param tokens the token count
+     * @param now current time in nanoseconds
+     */
+    public void limitTokens(double tokens, long now) {
+        while (true) {
+            State current = state.get();
+            double available = refilled(current, now);
+            if (available <= tokens
+                    || state.compareAndSet(current, new State(Math.max(0, tokens), Math.max(now, current.refilledAt())))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param now current time in nanoseconds
+     * @return nanoseconds until one token is available
+     */
+    public long nanosUntilAvailable(long now) {
+        double missing = 1 - getTokens(now);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / refillPerNano);
+    }
+
+    /**
+     * @param now current time in nanoseconds
+     * @return nanoseconds until the bucket is full again
+     */
+    public long nanosUntilFull(long now) {
+        double missing = capacity - getTokens(now);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / refillPerNano);
+    }
+
+    /**
+     * Take the number of tokens consumed since the last call
+     * @return tokens consumed
+     */
+    public long drainConsumed() {
+        return consumedSinceDrain.getAndSet(0);
+    }
+
+    /**
+     * Give back drained tokens that could not be accounted for, so the next drain includes them
+     * @param consumed tokens returned by {@link #drainConsumed()}
+     */
+    public void restoreConsumed(long consumed) {
+        consumedSinceDrain.addAndGet(consumed);
+    }
+
+    /**
+     * @return time of the last consume attempt in nanoseconds
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public double getRefillPerSecond() {
+        return refillPerNano * 1_000_000_000d;
+    }
+
+    private double refilled(State current, long now) {
+        long elapsed = now - current.refilledAt();
+        return elapsed <= 0 ? current.tokens() : Math.min(capacity, current.tokens() + elapsed * refillPerNano);
+    }
+}
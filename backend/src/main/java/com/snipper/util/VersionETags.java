@@ -0,0 +1,59 @@
+package com.snipper.util;
+
+import com.snipper.exception.PreconditionFailedException;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Converts entity versions to ETag header values and back.
+ *
+ * The ETag is the quoted version number, e.g. "3". It identifies the editable content
+ * only; view counts change without changing it.
+ */
+public final class VersionETags {
+
+    private VersionETags() {
+    }
+
+    /**
+     * @param version the entity version
+     * @return the ETag header value
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Read the versions a client accepts from its If-Match header. Only strong tags count:
+     * If-Match uses strong comparison, so weak tags never match.
+     * @param ifMatch the If-Match header value, a single tag or a comma-separated list (may be null)
+     * @return the accepted versions, or null if the header is absent or "*"
+     * @throws PreconditionFailedException if the header names no version of ours
+     */
+    public static Set<Long> parseIfMatch(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String entry : ifMatch.split(",")) {
+            String tag = entry.trim();
+            if (tag.startsWith("W/")) {
+                continue;
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            try {
+                versions.add(Long.parseLong(tag));
+            } catch (NumberFormatException e) {
+                // Not one of our tags; it can never match
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+        return versions;
+    }
+}
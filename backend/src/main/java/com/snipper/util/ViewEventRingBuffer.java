@@ -0,0 +1,124 @@
+package com.snipper.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer of (snippetId, timestamp) view events.
+ *
+ * Any number of request threads may publish concurrently; a single flusher drains.
+ * Each slot carries a sequence number (Vyukov-style) so producers claim slots with one
+ * CAS and never block. When the buffer is full new events are dropped and counted.
+ */
+public class ViewEventRingBuffer {
+
+    private final int mask;
+    private final long[] snippetIds;
+    private final long[] timestamps;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long tail;
+
+    /**
+     * Functional interface receiving drained events
+     */
+    @FunctionalInterface
+    public interface EventConsumer {
+        void accept(long snippetId, long timestampMillis);
+    }
+
+    /**
+     * @param capacity requested capacity, rounded up to a power of two
+     */
+    public ViewEventRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.snippetIds = new long[size];
+        this.timestamps = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publish a view event
+     * @param snippetId the snippet ID
+     * @param timestampMillis the event time in epoch milliseconds
+     * @return false if the buffer was full and the event was dropped
+     */
+    public boolean offer(long snippetId, long timestampMillis) {
+        long position = head.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = head.get();
+            }
+        }
+
+        snippetIds[index] = snippetId;
+        timestamps[index] = timestampMillis;
+        // Volatile write publishes the payload to the consumer
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Drain all published events
+     * @param consumer receiver of each event
+     * @return number of events drained
+     */
+    public synchronized int drain(EventConsumer consumer) {
+        int drained = 0;
+        while (true) {
+            int index = (int) (tail & mask);
+            if (sequences.get(index) != tail + 1) {
+                return drained;
+            }
+            consumer.accept(snippetIds[index], timestamps[index]);
+            // Hand the slot back to producers for the next lap
+            sequences.set(index, tail + mask + 1);
+            tail++;
+            drained++;
+        }
+    }
+
+    /**
+     * @return number of events currently buffered
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(head.get() - tailSnapshot(), mask + 1));
+    }
+
+    /**
+     * @return total number of events dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return buffer capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private synchronized long tailSnapshot() {
+        return tail;
+    }
+}
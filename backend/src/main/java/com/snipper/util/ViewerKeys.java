@@ -0,0 +1,46 @@
+package com.snipper.util;
+
+import com.snipper.security.CustomUserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds the stable viewer keys used for unique-viewer counting.
+ *
+ * Authenticated viewers are keyed by user id; anonymous viewers by a SHA-256 hash
+ * of their client IP so raw addresses never leave the request. The client IP is the
+ * servlet remote address, which honours X-Forwarded-For only when the request came
+ * through a trusted proxy (server.forward-headers-strategy).
+ */
+public final class ViewerKeys {
+
+    private ViewerKeys() {
+    }
+
+    /**
+     * Resolve the viewer key for the current request
+     * @param authentication the current authentication (may be null)
+     * @param request the HTTP request
+     * @return viewer key
+     */
+    public static String resolve(Authentication authentication, HttpServletRequest request) {
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserPrincipal principal) {
+            return "u:" + principal.getId();
+        }
+        return "ip:" + sha256(request.getRemoteAddr());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
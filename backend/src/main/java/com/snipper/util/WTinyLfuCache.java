@@ -0,0 +1,331 @@
+package com.snipper.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-process cache bounded by total weight, evicting with Window TinyLFU.
+ *
+ * New entries enter a small LRU window (1% of the weight). Entries leaving the window
+ * compete with the least recently used entry of the main segmented LRU for a place in
+ * it, and the one a {@link FrequencySketch} has seen more often wins, so a burst of
+ * one-off keys cannot flush out entries that are read all the time. Entries read again
+ * in the main probation segment are promoted to its protected segment (80% of the main
+ * weight). Entries also expire a fixed time after they were written.
+ *
+ * Lookups are lock-free reads of a ConcurrentHashMap. Recording the access for the
+ * eviction policy needs the policy lock, and is skipped when another thread holds it:
+ * the policy may lose some precision under contention, but readers never wait.
+ */
+public class WTinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        final long expiresAt;
+        int queue;
+        boolean linked;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Doubly linked LRU list, least recently used first
+     */
+    private static final class AccessQueue<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        long weight;
+
+        void add(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            node.linked = true;
+            weight += node.weight;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.linked = false;
+            weight -= node.weight;
+        }
+    }
+
+    private final Map<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    @SuppressWarnings("unchecked")
+    private final AccessQueue<K, V>[] queues = new AccessQueue[] {new AccessQueue<>(), new AccessQueue<>(), new AccessQueue<>()};
+    private final ToIntFunction<V> weigher;
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long maxProtectedWeight;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxWeight the total weight the cache may hold
+     * @param expectedEntries roughly how many entries fit, to size the frequency sketch
+     * @param weigher weight of a value, e.g. its approximate size in bytes
+     * @param ttlMillis how long an entry lives after it was written
+     */
+    public WTinyLfuCache(long maxWeight, int expectedEntries, ToIntFunction<V> weigher, long ttlMillis) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Cache needs a positive maximum weight");
+        }
+        this.maxWeight = maxWeight;
+        this.maxWindowWeight = Math.max(1, maxWeight / 100);
+        this.maxProtectedWeight = (maxWeight - maxWindowWeight) * 80 / 100;
+        this.sketch = new FrequencySketch(expectedEntries);
+        this.weigher = weigher;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value, or null if absent or expired
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null || System.nanoTime() - node.expiresAt >= 0) {
+            misses.increment();
+            if (node != null) {
+                invalidate(key, node);
+            }
+            return null;
+        }
+        hits.increment();
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(key);
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Cache a value, replacing any previous one; values heavier than the cache are not kept
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        policyLock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> previous = data.remove(key);
+            if (previous != null) {
+                unlink(previous);
+            }
+            if (weight > maxWeight) {
+                return;
+            }
+            Node<K, V> node = new Node<>(key, value, weight, System.nanoTime() + ttlNanos);
+            node.queue = WINDOW;
+            queues[WINDOW].add(node);
+            data.put(key, node);
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Drop a key
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    unlink(node);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of lookups that found a live entry
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that found nothing or an expired entry
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries evicted to stay within the maximum weight
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return number of cached entries, including expired ones not yet looked up
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return total weight of the cached entries
+     */
+    public long weightedSize() {
+        policyLock.lock();
+        try {
+            return totalWeight();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void invalidate(K key, Node<K, V> node) {
+        policyLock.lock();
+        try {
+            if (data.remove(key, node)) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (!node.linked) {
+            // Removed before we got the lock
+            return;
+        }
+        AccessQueue<K, V> queue = queues[node.queue];
+        queue.remove(node);
+        if (node.queue == PROBATION) {
+            node.queue = PROTECTED;
+            queues[PROTECTED].add(node);
+            // Keep the protected segment within bounds by demoting its least recently used entries
+            while (queues[PROTECTED].weight > maxProtectedWeight && queues[PROTECTED].head != node) {
+                Node<K, V> demoted = queues[PROTECTED].head;
+                queues[PROTECTED].remove(demoted);
+                demoted.queue = PROBATION;
+                queues[PROBATION].add(demoted);
+            }
+        } else {
+            queue.add(node);
+        }
+    }
+
+    private void evict() {
+        // Entries overflowing the window become candidates at the tail of probation
+        Node<K, V> firstCandidate = null;
+        while (queues[WINDOW].weight > maxWindowWeight) {
+            Node<K, V> candidate = queues[WINDOW].head;
+            queues[WINDOW].remove(candidate);
+            candidate.queue = PROBATION;
+            queues[PROBATION].add(candidate);
+            if (firstCandidate == null) {
+                firstCandidate = candidate;
+            }
+        }
+
+        Node<K, V> candidate = firstCandidate;
+        while (totalWeight() > maxWeight) {
+            Node<K, V> victim = queues[PROBATION].head;
+            if (victim == null) {
+                // Probation is empty: fall back to the protected segment, then the window
+                victim = queues[PROTECTED].head != null ? queues[PROTECTED].head : queues[WINDOW].head;
+                remove(victim);
+                continue;
+            }
+            if (candidate == null || candidate == victim) {
+                if (candidate == victim) {
+                    candidate = candidate.next;
+                }
+                remove(victim);
+                continue;
+            }
+            // The candidate gets in only if it has been wanted more often than the victim
+            Node<K, V> next = candidate.next;
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                remove(victim);
+            } else {
+                remove(candidate);
+                candidate = next;
+            }
+        }
+    }
+
+    private long totalWeight() {
+        return queues[WINDOW].weight + queues[PROBATION].weight + queues[PROTECTED].weight;
+    }
+
+    private void remove(Node<K, V> node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictions.incrementAndGet();
+    }
+
+    private void unlink(Node<K, V> node) {
+        queues[node.queue].remove(node);
+    }
+}
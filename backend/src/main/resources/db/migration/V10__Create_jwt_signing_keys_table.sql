@@ -0,0 +1,14 @@
+-- Create rotating asymmetric JWT signing keys; private keys are stored encrypted
+CREATE TABLE jwt_signing_keys (
+    kid VARCHAR(36) PRIMARY KEY,
+    algorithm VARCHAR(10) NOT NULL,
+    public_key TEXT NOT NULL,
+    private_key TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    activate_at TIMESTAMP NOT NULL,
+    retire_at TIMESTAMP NOT NULL,
+    expire_at TIMESTAMP NOT NULL
+);
+
+-- Support loading the keys that are still published
+CREATE INDEX idx_jwt_signing_keys_expire ON jwt_signing_keys(expire_at);
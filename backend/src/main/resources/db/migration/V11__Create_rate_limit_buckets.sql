@@ -0,0 +1,9 @@
+-- Create token buckets shared by all replicas when shared rate limiting is enabled
+CREATE TABLE rate_limit_buckets (
+    bucket_key VARCHAR(191) PRIMARY KEY,
+    tokens DOUBLE NOT NULL,
+    refilled_at_ms BIGINT NOT NULL
+);
+
+-- Support purging buckets nobody has used for a while
+CREATE INDEX idx_rate_limit_buckets_refilled ON rate_limit_buckets(refilled_at_ms);
@@ -0,0 +1,2 @@
+-- Optimistic locking version of snippets, exposed to clients as the ETag
+ALTER TABLE snippets ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER view_count;
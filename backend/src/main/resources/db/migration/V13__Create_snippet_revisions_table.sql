@@ -0,0 +1,21 @@
+-- Create snippet revision history; most revisions hold a line delta against the previous one,
+-- every Nth (and any whose delta would not be smaller) holds the full content as a keyframe
+CREATE TABLE snippet_revisions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    snippet_id BIGINT NOT NULL,
+    revision INT NOT NULL,
+    keyframe BOOLEAN NOT NULL,
+    payload LONGTEXT NOT NULL,
+    content_length INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_snippet_revisions_revision (snippet_id, revision),
+
+    -- Foreign key constraint
+    CONSTRAINT fk_snippet_revisions_snippet FOREIGN KEY (snippet_id) REFERENCES snippets(id) ON DELETE CASCADE
+);
+
+-- Start every existing snippet's history with its current content
+INSERT INTO snippet_revisions (snippet_id, revision, keyframe, payload, content_length, created_at)
+SELECT id, 1, TRUE, content, CHAR_LENGTH(content), updated_at
+FROM snippets;
@@ -0,0 +1,13 @@
+-- Append-only log of writes to cached entities; every instance tails it to evict its own
+-- cached copies. Rows are only needed until all instances have polled them, so old ones are purged
+CREATE TABLE cache_change_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    entity_version BIGINT NULL,
+    cache_key VARCHAR(100) NULL,
+    origin VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_cache_change_log_created_at (created_at)
+);
@@ -0,0 +1,6 @@
+-- Single row locked while generating JWT signing keys, so instances never generate one each
+CREATE TABLE jwt_signing_key_lock (
+    id INT PRIMARY KEY
+);
+
+INSERT INTO jwt_signing_key_lock (id) VALUES (1);
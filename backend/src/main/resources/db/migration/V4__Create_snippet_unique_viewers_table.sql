@@ -0,0 +1,13 @@
+-- Create per-snippet HyperLogLog sketches of unique viewers
+CREATE TABLE snippet_unique_viewers (
+    snippet_id BIGINT PRIMARY KEY,
+    sketch VARBINARY(3073) NOT NULL,
+    unique_viewers BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    -- Foreign key constraint
+    CONSTRAINT fk_unique_viewers_snippet FOREIGN KEY (snippet_id) REFERENCES snippets(id) ON DELETE CASCADE
+);
+
+-- Support ranking snippets by unique viewers
+CREATE INDEX idx_unique_viewers_count ON snippet_unique_viewers(unique_viewers);
@@ -0,0 +1,15 @@
+-- Create time-bucketed view counts per snippet (hourly, daily and monthly, in UTC)
+CREATE TABLE snippet_view_stats (
+    snippet_id BIGINT NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    view_count BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (snippet_id, granularity, bucket_start),
+
+    -- Foreign key constraint
+    CONSTRAINT fk_view_stats_snippet FOREIGN KEY (snippet_id) REFERENCES snippets(id) ON DELETE CASCADE
+);
+
+-- Support rollups and retention by granularity and time range
+CREATE INDEX idx_view_stats_granularity_bucket ON snippet_view_stats(granularity, bucket_start);
@@ -0,0 +1,20 @@
+-- Create sharded view counters; views land on a random shard and are periodically folded into snippets.view_count
+CREATE TABLE snippet_view_counter_shards (
+    snippet_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    delta BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (snippet_id, shard),
+
+    -- Foreign key constraint
+    CONSTRAINT fk_view_counter_shards_snippet FOREIGN KEY (snippet_id) REFERENCES snippets(id) ON DELETE CASCADE
+);
+
+-- Give existing snippets the default 8 shards
+INSERT INTO snippet_view_counter_shards (snippet_id, shard, delta)
+SELECT s.id, n.shard, 0
+FROM snippets s
+CROSS JOIN (
+    SELECT 0 AS shard UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3
+    UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7
+) n;
@@ -0,0 +1,16 @@
+-- Create materialized per-user snippet statistics for the dashboard
+CREATE TABLE user_stats (
+    user_id BIGINT PRIMARY KEY,
+    total_snippets BIGINT NOT NULL DEFAULT 0,
+    public_snippets BIGINT NOT NULL DEFAULT 0,
+    private_snippets BIGINT NOT NULL DEFAULT 0,
+    unlisted_snippets BIGINT NOT NULL DEFAULT 0,
+    total_views BIGINT NOT NULL DEFAULT 0,
+    unique_viewers BIGINT NOT NULL DEFAULT 0,
+    language_counts TEXT NOT NULL,
+    last_activity TIMESTAMP NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    -- Foreign key constraint
+    CONSTRAINT fk_user_stats_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
@@ -0,0 +1,2 @@
+-- Add a per-user token version carried in issued JWTs; bumping it revokes existing tokens
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0 AFTER is_active;
@@ -0,0 +1,53 @@
+package com.snipper.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSharedCacheStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPutGetEvict() {
+        FileSharedCacheStore store = new FileSharedCacheStore(directory);
+        store.put("snippets:1", bytes("first"), 60_000);
+        store.put("snippets:1", bytes("second"), 60_000);
+
+        assertEquals("second", new String(store.get("snippets:1"), StandardCharsets.UTF_8));
+        assertNull(store.get("snippets:2"));
+
+        store.evict("snippets:1");
+        assertNull(store.get("snippets:1"));
+    }
+
+    @Test
+    void testSharedBetweenInstances() {
+        new FileSharedCacheStore(directory).put("profiles:alice", bytes("alice"), 60_000);
+
+        assertEquals("alice", new String(new FileSharedCacheStore(directory).get("profiles:alice"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExpiredEntriesAreMissesAndPurged() throws InterruptedException {
+        FileSharedCacheStore store = new FileSharedCacheStore(directory);
+        store.put("a", bytes("a"), 10);
+        store.put("b", bytes("b"), 10);
+        store.put("c", bytes("c"), 60_000);
+
+        Thread.sleep(30);
+
+        assertNull(store.get("a"));
+        assertEquals(1, store.purgeExpired());
+        assertNotNull(store.get("c"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,137 @@
+package com.snipper.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.dto.snippet.SnippetResponse;
+import com.snipper.model.VisibilityType;
+import com.snipper.util.WTinyLfuCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testLoadsOnceThenServesFromL1() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TwoLevelCache<SnippetResponse> cache = cache(new FileSharedCacheStore(directory), registry);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("1", () -> snippet(loads.incrementAndGet()));
+        SnippetResponse cached = cache.get("1", () -> snippet(loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cached.getId());
+        assertEquals(1.0, registry.get("snipper.cache.gets").tags("level", "l1", "result", "hit").functionCounter().count());
+        assertEquals(0.5, registry.get("snipper.cache.hit.ratio").tags("level", "l1").gauge().value());
+        assertEquals(1, registry.get("snipper.cache.load").timer().count());
+    }
+
+    @Test
+    void testOtherInstanceIsServedFromL2() {
+        SharedCacheStore shared = new FileSharedCacheStore(directory);
+        TwoLevelCache<SnippetResponse> first = cache(shared, new SimpleMeterRegistry());
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TwoLevelCache<SnippetResponse> second = cache(shared, registry);
+        first.get("1", () -> snippet(1));
+
+        SnippetResponse fromShared = second.get("1", () -> fail("should not load"));
+
+        assertEquals("Title 1", fromShared.getTitle());
+        assertEquals(VisibilityType.PUBLIC, fromShared.getVisibility());
+        assertEquals(1.0, registry.get("snipper.cache.hit.ratio").tags("level", "l2").gauge().value());
+    }
+
+    @Test
+    void testEvictionRemovesBothLevels() {
+        SharedCacheStore shared = new FileSharedCacheStore(directory);
+        TwoLevelCache<SnippetResponse> cache = cache(shared, new SimpleMeterRegistry());
+        cache.get("1", () -> snippet(1));
+
+        cache.evict("1");
+
+        assertNull(shared.get("snippets:1"));
+        assertEquals(2L, cache.get("1", () -> snippet(2)).getViewCount());
+    }
+
+    @Test
+    void testEvictionInTransactionWaitsForCommit() {
+        TwoLevelCache<SnippetResponse> cache = cache(null, new SimpleMeterRegistry());
+        cache.get("1", () -> snippet(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict("1");
+            assertEquals(1L, cache.get("1", () -> snippet(2)).getViewCount());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(3L, cache.get("1", () -> snippet(3)).getViewCount());
+    }
+
+    @Test
+    void testLoadOverlappingEvictionIsNotCached() {
+        TwoLevelCache<SnippetResponse> cache = cache(null, new SimpleMeterRegistry());
+
+        SnippetResponse loaded = cache.get("1", () -> {
+            // A writer commits while this load is running
+            cache.evict("1");
+            return snippet(1);
+        });
+
+        assertEquals(1L, loaded.getViewCount());
+        assertEquals(2L, cache.get("1", () -> snippet(2)).getViewCount());
+    }
+
+    @Test
+    void testSharedStoreFailuresAreMisses() {
+        SharedCacheStore broken = new SharedCacheStore() {
+            @Override
+            public byte[] get(String key) {
+                throw new IllegalStateException("unavailable");
+            }
+
+            @Override
+            public void put(String key, byte[] value, long ttlMillis) {
+                throw new IllegalStateException("unavailable");
+            }
+
+            @Override
+            public void evict(String key) {
+                throw new IllegalStateException("unavailable");
+            }
+        };
+        TwoLevelCache<SnippetResponse> cache = cache(broken, new SimpleMeterRegistry());
+
+        assertEquals(1L, cache.get("1", () -> snippet(1)).getViewCount());
+        cache.evict("1");
+        assertEquals(2L, cache.get("1", () -> snippet(2)).getViewCount());
+    }
+
+    private TwoLevelCache<SnippetResponse> cache(SharedCacheStore shared, MeterRegistry registry) {
+        return new TwoLevelCache<>("snippets", new WTinyLfuCache<>(10_000, 100, value -> 100, 60_000),
+                shared, 60_000, objectMapper, SnippetResponse.class, registry);
+    }
+
+    private static SnippetResponse snippet(long viewCount) {
+        LocalDateTime now = LocalDateTime.now();
+        return new SnippetResponse(1L, "Title " + viewCount, "Description", "print('hi')", "python", "demo",
+                VisibilityType.PUBLIC, viewCount, now, now, "alice", 7L);
+    }
+}
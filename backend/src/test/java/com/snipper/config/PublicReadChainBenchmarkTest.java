@@ -0,0 +1,136 @@
+package com.snipper.config;
+
+import com.snipper.security.AccessTokenRevocationList;
+import com.snipper.security.CustomUserDetailsService;
+import com.snipper.security.JwtAuthenticationEntryPoint;
+import com.snipper.security.JwtUtil;
+import com.snipper.security.RateLimiter;
+import com.snipper.security.TokenVerifier;
+import com.snipper.security.TokenVersionRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rough per-request cost of an anonymous public read through the main security chain alone
+ * versus with the dedicated public chain in front, both as SecurityConfig builds them. Rate
+ * limiting answers "not limited" in both. Logs nanoseconds per request.
+ */
+@SpringJUnitWebConfig(classes = {SecurityConfig.class, PublicReadChainBenchmarkTest.MvcConfig.class})
+class PublicReadChainBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicReadChainBenchmarkTest.class);
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    /**
+     * Request matchers for MVC paths need Spring MVC's handler mapping introspector
+     */
+    @Configuration
+    @EnableWebMvc
+    static class MvcConfig {
+    }
+
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private JwtAuthenticationEntryPoint unauthorizedHandler;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @MockBean
+    private TokenVerifier tokenVerifier;
+
+    @MockBean
+    private AccessTokenRevocationList revocationList;
+
+    @Autowired
+    private FilterChainProxy springSecurityFilterChain;
+
+    @Autowired
+    @Qualifier("filterChain")
+    private SecurityFilterChain mainChain;
+
+    @Test
+    void testMatcherOnlyTakesAnonymousPublicReads() {
+        RequestMatcher matcher = SecurityConfig.anonymousPublicReadMatcher();
+
+        assertTrue(matcher.matches(request("GET", "/api/snippets/recent")));
+        assertTrue(matcher.matches(request("GET", "/api/snippets/public/42")));
+        assertFalse(matcher.matches(request("POST", "/api/snippets/public")));
+        assertFalse(matcher.matches(request("GET", "/api/snippets/my")));
+
+        MockHttpServletRequest withToken = request("GET", "/api/snippets/public/42");
+        withToken.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        assertFalse(matcher.matches(withToken));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testPublicReadCostPerRequest() throws Exception {
+        FilterChainProxy mainOnly = new FilterChainProxy(List.of(mainChain));
+        assertEquals(2, springSecurityFilterChain.getFilterChains().size());
+
+        double full = nanosPerRequest(mainOnly);
+        double fast = nanosPerRequest(springSecurityFilterChain);
+        logger.info("public read: full chain={} ns/request public chain={} ns/request", Math.round(full), Math.round(fast));
+        // The public chain skips the security context, anonymous principal and authorization checks
+        assertTrue(fast < full, "public chain " + fast + " ns vs full chain " + full + " ns");
+    }
+
+    private double nanosPerRequest(FilterChainProxy proxy) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            runOnce(proxy);
+        }
+        long start = System.nanoTime();
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            response = runOnce(proxy);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(200, response.getStatus());
+        assertEquals("https://app.example.com", response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        return (double) elapsed / ITERATIONS;
+    }
+
+    private MockHttpServletResponse runOnce(FilterChainProxy proxy) throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/snippets/recent");
+        request.addHeader(HttpHeaders.ORIGIN, "https://app.example.com");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxy.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
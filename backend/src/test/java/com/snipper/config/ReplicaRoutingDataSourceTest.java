@@ -0,0 +1,191 @@
+package com.snipper.config;
+
+import com.snipper.security.CustomUserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing against two embedded H2 databases standing in for the primary and a replica;
+ * each holds a marker row naming itself.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private FlakyDataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    /**
+     * Replica whose connections can be cut off
+     */
+    private static class FlakyDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLTransientConnectionException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        replica = new FlakyDataSource(database("replica"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, 60_000);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals("primary", readWrite.execute(status -> node()));
+        // Outside a transaction there is no read-only flag to go by
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void testFailsOverToPrimaryAndBackOnHealthCheck() {
+        replica.down = true;
+
+        assertEquals("primary", readOnly.execute(status -> node()));
+        assertEquals(0, routingDataSource.getHealthyReplicaCount());
+
+        // Stays on the primary until a health check passes
+        replica.down = false;
+        assertEquals("primary", readOnly.execute(status -> node()));
+        routingDataSource.checkHealth();
+        assertEquals(1, routingDataSource.getHealthyReplicaCount());
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void testHealthCheckTakesDeadReplicaOutOfRotation() {
+        replica.down = true;
+        routingDataSource.checkHealth();
+
+        assertEquals(0, routingDataSource.getHealthyReplicaCount());
+        replica.down = false;
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void testUserReadsOwnWritesFromPrimary() {
+        signIn(1L);
+        assertEquals("replica", readOnly.execute(status -> node()));
+
+        readWrite.execute(status -> node());
+
+        assertEquals("primary", readOnly.execute(status -> node()));
+        // Other users are unaffected
+        signIn(2L);
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void testSkippedWriteDoesNotPinUser() {
+        signIn(1L);
+
+        readWrite.execute(status -> {
+            ReplicaRoutingDataSource.skipReadYourWrites();
+            return node();
+        });
+        // Marking after the connection was fetched works too
+        readWrite.execute(status -> {
+            node();
+            ReplicaRoutingDataSource.skipReadYourWrites();
+            return null;
+        });
+
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void testRolledBackWriteDoesNotPinUser() {
+        signIn(1L);
+
+        readWrite.execute(status -> {
+            node();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void testRoundRobinsAcrossReplicas() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", database("replica-a"));
+        replicas.put("replica-1", database("replica-b"));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(database("primary-2"), replicas, 0));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+
+        List<String> nodes = List.of(
+                transaction.execute(status -> template.queryForObject("SELECT name FROM node", String.class)),
+                transaction.execute(status -> template.queryForObject("SELECT name FROM node", String.class)));
+
+        assertEquals(List.of("replica-a", "replica-b"), nodes);
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static void signIn(Long userId) {
+        CustomUserPrincipal principal = CustomUserPrincipal.fromToken(userId, "user" + userId, List.of("ROLE_USER"), 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (name VARCHAR(32))");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
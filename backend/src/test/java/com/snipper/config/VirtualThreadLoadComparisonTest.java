@@ -0,0 +1,123 @@
+package com.snipper.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rough load comparison of Tomcat's default platform-thread pool against the virtual-thread
+ * executor Spring uses with spring.threads.virtual.enabled, when the connection pool is the
+ * bottleneck. Each request borrows a connection from a HikariCP pool and runs a lookup on an
+ * embedded H2 database, whose round trip is stretched to a network database's latency; logs
+ * throughput and mean latency for both models.
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadLoadComparisonTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadComparisonTest.class);
+    private static final int CONNECTION_POOL_SIZE = 20;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int REQUESTS = 4_000;
+    private static final int SNIPPETS = 100;
+    private static final long ROUND_TRIP_MILLIS = 2;
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:virtual-threads-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(CONNECTION_POOL_SIZE);
+        config.setMinimumIdle(CONNECTION_POOL_SIZE);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE snippets (id BIGINT PRIMARY KEY, title VARCHAR(255))");
+        for (int id = 0; id < SNIPPETS; id++) {
+            jdbcTemplate.update("INSERT INTO snippets (id, title) VALUES (?, ?)", id, "Snippet " + id);
+        }
+        jdbcTemplate.execute("CREATE ALIAS ROUND_TRIP FOR \"" + Functions.class.getName() + ".roundTrip\"");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * H2 functions; public so H2 can call them
+     */
+    public static class Functions {
+        /**
+         * Holds the connection for a network round trip; called as ROUND_TRIP(millis)
+         */
+        public static int roundTrip(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return 0;
+        }
+    }
+
+    @Test
+    void testThroughputWithConnectionPoolBottleneck() throws Exception {
+        ThreadPoolTaskExecutor platformThreads = new ThreadPoolTaskExecutor();
+        platformThreads.setCorePoolSize(TOMCAT_MAX_THREADS);
+        platformThreads.setMaxPoolSize(TOMCAT_MAX_THREADS);
+        platformThreads.initialize();
+        SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("virtual-");
+        virtualThreads.setVirtualThreads(true);
+
+        double platform = run("platform", platformThreads);
+        platformThreads.shutdown();
+        double virtual = run("virtual", virtualThreads);
+        virtualThreads.close();
+
+        // The pool caps both models at CONNECTION_POOL_SIZE / ROUND_TRIP_MILLIS requests per millisecond
+        long ceiling = CONNECTION_POOL_SIZE * 1000 / ROUND_TRIP_MILLIS;
+        logger.info("connection-pool bound load: platform={} req/s virtual={} req/s (pool ceiling {} req/s)",
+                Math.round(platform), Math.round(virtual), ceiling);
+        assertTrue(platform <= ceiling, "platform threads exceeded the pool ceiling: " + platform);
+        assertTrue(virtual <= ceiling, "virtual threads exceeded the pool ceiling: " + virtual);
+    }
+
+    private double run(String model, AsyncTaskExecutor executor) throws Exception {
+        List<Future<Long>> latencies = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            long submittedAt = System.nanoTime();
+            long id = i % SNIPPETS;
+            latencies.add(executor.submit(() -> {
+                String title = jdbcTemplate.queryForObject("SELECT title FROM snippets WHERE id = ? AND ROUND_TRIP(?) = 0",
+                        String.class, id, ROUND_TRIP_MILLIS);
+                assertEquals("Snippet " + id, title);
+                return System.nanoTime() - submittedAt;
+            }));
+        }
+        long totalLatency = 0;
+        for (Future<Long> latency : latencies) {
+            totalLatency += latency.get(60, TimeUnit.SECONDS);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        logger.info("{} threads: mean latency {} ms", model, String.format("%.1f", totalLatency / (double) REQUESTS / 1e6));
+        return REQUESTS / elapsedSeconds;
+    }
+}
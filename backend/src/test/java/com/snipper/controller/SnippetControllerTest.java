@@ -1,6 +1,7 @@
 package com.snipper.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.config.PublicStreamExecutor;
 import com.snipper.dto.common.PagedResponse;
 import com.snipper.dto.snippet.CreateSnippetRequest;
 import com.snipper.dto.snippet.SnippetResponse;
@@ -38,6 +39,9 @@ class SnippetControllerTest {
     @MockBean
     private SnippetService snippetService;
 
+    @MockBean
+    private PublicStreamExecutor publicStreamExecutor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -145,7 +149,7 @@ class SnippetControllerTest {
     @WithMockUser(username = "testuser")
     void getSnippet_Success() throws Exception {
         // Given
-        when(snippetService.getSnippetById(1L, "testuser")).thenReturn(snippetResponse);
+        when(snippetService.getSnippetById(eq(1L), eq("testuser"), anyString())).thenReturn(snippetResponse);
 
         // When & Then
         mockMvc.perform(get("/api/snippets/1"))
@@ -158,7 +162,7 @@ class SnippetControllerTest {
     @WithMockUser(username = "testuser")
     void getSnippet_NotFound() throws Exception {
         // Given
-        when(snippetService.getSnippetById(999L, "testuser"))
+        when(snippetService.getSnippetById(eq(999L), eq("testuser"), anyString()))
                 .thenThrow(new ResourceNotFoundException("Snippet not found"));
 
         // When & Then
@@ -170,7 +174,7 @@ class SnippetControllerTest {
     @WithMockUser(username = "otheruser")
     void getSnippet_Unauthorized() throws Exception {
         // Given
-        when(snippetService.getSnippetById(1L, "otheruser"))
+        when(snippetService.getSnippetById(eq(1L), eq("otheruser"), anyString()))
                 .thenThrow(new UnauthorizedException("Access denied"));
 
         // When & Then
@@ -181,7 +185,7 @@ class SnippetControllerTest {
     @Test
     void getPublicSnippet_Success() throws Exception {
         // Given
-        when(snippetService.getPublicSnippetById(1L)).thenReturn(snippetResponse);
+        when(snippetService.getPublicSnippetById(eq(1L), anyString())).thenReturn(snippetResponse);
 
         // When & Then
         mockMvc.perform(get("/api/snippets/public/1"))
@@ -194,7 +198,7 @@ class SnippetControllerTest {
     @WithMockUser(username = "testuser")
     void updateSnippet_Success() throws Exception {
         // Given
-        when(snippetService.updateSnippet(eq(1L), any(UpdateSnippetRequest.class), eq("testuser")))
+        when(snippetService.updateSnippet(eq(1L), any(UpdateSnippetRequest.class), eq("testuser"), isNull()))
                 .thenReturn(snippetResponse);
 
         // When & Then
@@ -288,7 +292,7 @@ class SnippetControllerTest {
     @Test
     void getPopularSnippets_Success() throws Exception {
         // Given
-        when(snippetService.getMostPopularSnippets(0, 10))
+        when(snippetService.getMostPopularSnippets(0, 10, "views"))
                 .thenReturn(pagedResponse);
 
         // When & Then
@@ -0,0 +1,77 @@
+package com.snipper.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.config.PublicStreamExecutor;
+import com.snipper.dto.snippet.SnippetSummaryResponse;
+import com.snipper.service.SnippetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class SnippetStreamControllerTest {
+
+    @Mock
+    private SnippetService snippetService;
+
+    private PublicStreamExecutor publicStreamExecutor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        publicStreamExecutor = new PublicStreamExecutor(1, 1, 0);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new SnippetController(snippetService, new ObjectMapper(), publicStreamExecutor))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        publicStreamExecutor.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamPublicSnippets_WritesNdjsonOnExportPoolWithoutTimeout() throws Exception {
+        SnippetSummaryResponse first = new SnippetSummaryResponse();
+        first.setId(1L);
+        SnippetSummaryResponse second = new SnippetSummaryResponse();
+        second.setId(2L);
+        when(snippetService.streamPublicSnippets(eq("java"), anyInt(), any())).thenAnswer(invocation -> {
+            Consumer<List<SnippetSummaryResponse>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(first, second));
+            assertTrue(Thread.currentThread().getName().startsWith("public-stream-"));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/snippets/public/stream").param("language", "java"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(0L, result.getRequest().getAsyncContext().getTimeout());
+        result.getAsyncResult(5000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1"));
+        assertTrue(lines[1].contains("\"id\":2"));
+    }
+}
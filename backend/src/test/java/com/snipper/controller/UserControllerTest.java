@@ -8,6 +8,7 @@ import com.snipper.dto.user.UserDashboardResponse;
 import com.snipper.dto.user.UserProfileResponse;
 import com.snipper.exception.ResourceNotFoundException;
 import com.snipper.model.VisibilityType;
+import com.snipper.service.UserOverviewService;
 import com.snipper.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -37,6 +38,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserOverviewService userOverviewService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
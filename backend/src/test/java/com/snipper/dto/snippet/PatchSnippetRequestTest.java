@@ -0,0 +1,38 @@
+package com.snipper.dto.snippet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.model.VisibilityType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchSnippetRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void deserialize_ShouldTrackOnlyPresentMembers() throws Exception {
+        // When
+        PatchSnippetRequest patch = objectMapper.readValue(
+                "{\"title\":\"Renamed\",\"visibility\":\"PRIVATE\"}", PatchSnippetRequest.class);
+
+        // Then
+        assertTrue(patch.isPresent("title"));
+        assertTrue(patch.isPresent("visibility"));
+        assertFalse(patch.isPresent("content"));
+        assertFalse(patch.isPresent("tags"));
+        assertEquals("Renamed", patch.getTitle());
+        assertEquals(VisibilityType.PRIVATE, patch.getVisibility());
+    }
+
+    @Test
+    void deserialize_ExplicitNullShouldBePresent() throws Exception {
+        // When
+        PatchSnippetRequest patch = objectMapper.readValue("{\"tags\":null}", PatchSnippetRequest.class);
+
+        // Then
+        assertTrue(patch.isPresent("tags"));
+        assertNull(patch.getTags());
+        assertFalse(patch.isPresent("description"));
+    }
+}
@@ -218,6 +218,23 @@ class GlobalExceptionHandlerTest {
         assertEquals("Snippet not found", body.getMessage());
     }
 
+    @Test
+    void handlePreconditionFailedException_ShouldReturnPreconditionFailed() {
+        // Given
+        PreconditionFailedException exception = new PreconditionFailedException("Snippet was modified since it was read");
+
+        // When
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handlePreconditionFailedException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        ErrorResponse body = response.getBody();
+        assertNotNull(body);
+        assertEquals(412, body.getStatus());
+        assertEquals("Precondition Failed", body.getError());
+        assertEquals("Snippet was modified since it was read", body.getMessage());
+    }
+
     @Test
     void handleUnauthorizedException_ShouldReturnForbidden() {
         // Given
@@ -0,0 +1,172 @@
+package com.snipper.repository;
+
+import com.snipper.config.HibernateCacheConfig;
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.model.VisibilityType;
+import com.snipper.service.UserStatsService;
+import com.snipper.service.ViewCounterService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the second-level and query caches serve repeated reads without SQL.
+ *
+ * Every read runs in its own transaction, so nothing comes from the persistence context;
+ * SQL round trips are counted with Hibernate statistics.
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({HibernateCacheConfig.class, ViewCounterService.class, UserStatsService.class,
+         SecondLevelCacheIntegrationTest.MetricsConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    private TransactionTemplate transactionTemplate;
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private User author;
+    private Long snippetId;
+    private String language;
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+
+        String name = "cached" + System.nanoTime();
+        language = "lang" + System.nanoTime();
+        author = userRepository.save(new User(name, name + "@example.com", "x".repeat(60)));
+        snippetId = snippetRepository.save(new Snippet("Cached", "content", language, VisibilityType.PUBLIC, author)).getId();
+
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    @Test
+    void testEntityReadsHitCacheAfterFirstLoad() {
+        assertTrue(userRepository.findById(author.getId()).isPresent());
+        long afterFirstLoad = statistics.getPrepareStatementCount();
+        assertEquals(1, afterFirstLoad);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(userRepository.findById(author.getId()).isPresent());
+        }
+
+        assertEquals(afterFirstLoad, statistics.getPrepareStatementCount());
+        assertEquals(5, statistics.getDomainDataRegionStatistics("users").getHitCount());
+        assertTrue(meterRegistry.get("snipper.hibernate.cache.gets")
+                .tags("region", "users", "result", "hit").functionCounter().count() >= 5);
+    }
+
+    @Test
+    void testLazyAuthorIsResolvedFromCache() {
+        String first = transactionTemplate.execute(status ->
+                snippetRepository.findById(snippetId).orElseThrow().getAuthor().getUsername());
+        long afterFirstLoad = statistics.getPrepareStatementCount();
+        assertEquals(2, afterFirstLoad);
+
+        String second = transactionTemplate.execute(status ->
+                snippetRepository.findById(snippetId).orElseThrow().getAuthor().getUsername());
+
+        assertEquals(first, second);
+        assertEquals(afterFirstLoad, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testQueryCacheServesLookupsUntilTableChanges() {
+        assertTrue(snippetRepository.findDistinctLanguagesFromPublicSnippets().contains(language));
+        assertTrue(userRepository.findByUsername(author.getUsername()).isPresent());
+        long afterFirstLoad = statistics.getPrepareStatementCount();
+
+        assertTrue(snippetRepository.findDistinctLanguagesFromPublicSnippets().contains(language));
+        assertTrue(userRepository.findByUsername(author.getUsername()).isPresent());
+        assertEquals(afterFirstLoad, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+
+        // A write to the snippets table invalidates the cached languages
+        String newLanguage = "new" + language;
+        snippetRepository.save(new Snippet("Another", "content", newLanguage, VisibilityType.PUBLIC, author));
+        assertTrue(snippetRepository.findDistinctLanguagesFromPublicSnippets().contains(newLanguage));
+    }
+
+    @Test
+    void testUpdatesReplaceCachedEntity() {
+        assertTrue(userRepository.findById(author.getId()).isPresent());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findById(author.getId()).orElseThrow();
+            user.setBio("Updated bio");
+        });
+
+        assertEquals("Updated bio", userRepository.findById(author.getId()).orElseThrow().getBio());
+    }
+
+    @Test
+    void testFoldingViewsEvictsOnlyThatSnippet() {
+        Long otherId = snippetRepository.save(new Snippet("Other", "content", language, VisibilityType.PUBLIC, author)).getId();
+        transactionTemplate.executeWithoutResult(status -> viewCounterService.createShards(snippetId));
+        transactionTemplate.executeWithoutResult(status -> {
+            viewCounterService.increment(snippetId);
+            viewCounterService.increment(snippetId);
+        });
+        assertEquals(2L, viewCounterService.getViewCount(snippetId));
+        assertTrue(snippetRepository.findById(snippetId).isPresent());
+        assertTrue(snippetRepository.findById(otherId).isPresent());
+        assertTrue(snippetRepository.findDistinctLanguagesFromPublicSnippets().contains(language));
+        long beforeFold = statistics.getQueryCacheHitCount();
+
+        assertEquals(2L, viewCounterService.compact(snippetId));
+
+        assertFalse(sessionFactory.getCache().containsEntity(Snippet.class, snippetId));
+        assertTrue(sessionFactory.getCache().containsEntity(Snippet.class, otherId));
+        assertTrue(snippetRepository.findDistinctLanguagesFromPublicSnippets().contains(language));
+        assertEquals(beforeFold + 1, statistics.getQueryCacheHitCount());
+        assertEquals(2L, snippetRepository.findById(snippetId).orElseThrow().getViewCount());
+        assertEquals(2L, viewCounterService.getViewCount(snippetId));
+    }
+}
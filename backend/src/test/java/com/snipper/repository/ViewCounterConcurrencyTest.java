@@ -0,0 +1,142 @@
+package com.snipper.repository;
+
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.model.VisibilityType;
+import com.snipper.service.UserStatsService;
+import com.snipper.service.ViewCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test of view counting under concurrent viewers of a single snippet.
+ *
+ * Every increment commits its own transaction, as a detail request would. The throughput
+ * comparison of the single-row and sharded counters is a benchmark, logged per thread count.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ViewCounterService.class, UserStatsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ViewCounterConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCounterConcurrencyTest.class);
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final int INCREMENTS_PER_THREAD = 500;
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SnippetViewCounterShardRepository shardRepository;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long snippetId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        snippetId = transactionTemplate.execute(status -> {
+            String name = "author" + System.nanoTime();
+            User author = userRepository.save(new User(name, name + "@example.com", "x".repeat(60)));
+            Snippet snippet = snippetRepository.save(new Snippet("Viral", "content", "java", VisibilityType.PUBLIC, author));
+            viewCounterService.createShards(snippet.getId());
+            return snippet.getId();
+        });
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testShardedCounterCountsEveryViewUnderContention() throws Exception {
+        long expected = 0;
+        for (int threads : THREAD_COUNTS) {
+            double singleRow = measure(threads, id -> snippetRepository.incrementViewCount(id));
+            double sharded = measure(threads, id -> viewCounterService.increment(id));
+            logger.info("threads={} single-row={}/s sharded={}/s", threads, Math.round(singleRow), Math.round(sharded));
+            expected += 2L * threads * INCREMENTS_PER_THREAD;
+        }
+
+        assertEquals(expected, totalViews());
+
+        viewCounterService.compact(snippetId);
+        assertEquals(0L, shardRepository.sumDeltaBySnippetId(snippetId));
+        assertEquals(expected, totalViews());
+    }
+
+    @Test
+    void testCompactionConcurrentWithIncrementsLosesNoViews() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService compactor = Executors.newSingleThreadExecutor();
+        Future<?> compaction = compactor.submit(() -> {
+            while (running.get()) {
+                viewCounterService.compact(snippetId);
+            }
+        });
+
+        measure(4, id -> viewCounterService.increment(id));
+        running.set(false);
+        compaction.get();
+        compactor.shutdown();
+
+        assertEquals(4L * INCREMENTS_PER_THREAD, totalViews());
+    }
+
+    private double measure(int threads, LongConsumer increment) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    transactionTemplate.executeWithoutResult(status -> increment.accept(snippetId));
+                }
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Future<Void> result : executor.invokeAll(workers)) {
+            result.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        return threads * INCREMENTS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+
+    private long totalViews() {
+        return transactionTemplate.execute(status ->
+                snippetRepository.findById(snippetId).orElseThrow().getViewCount()
+                        + shardRepository.sumDeltaBySnippetId(snippetId));
+    }
+}
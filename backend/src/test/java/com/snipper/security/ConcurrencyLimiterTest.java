@@ -0,0 +1,87 @@
+package com.snipper.security;
+
+import com.snipper.config.BulkheadProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setGroups(List.of(
+                new BulkheadProperties.Group("search", List.of("/api/snippets/search"), List.of(), 1, 1, 2, 500),
+                new BulkheadProperties.Group("writes", List.of("/api/**"), List.of("POST", "PUT", "DELETE"), 4, 1, 8, 500),
+                new BulkheadProperties.Group("feed", List.of("/api/**"), List.of("GET"), 4, 1, 8, 500)));
+        concurrencyLimiter = new ConcurrencyLimiter(properties, meterRegistry);
+    }
+
+    @Test
+    void testResolvesFirstMatchingGroupByMethodAndPath() {
+        assertEquals("search", concurrencyLimiter.resolve("GET", "/api/snippets/search").group().getName());
+        assertEquals("writes", concurrencyLimiter.resolve("POST", "/api/snippets").group().getName());
+        assertEquals("feed", concurrencyLimiter.resolve("GET", "/api/snippets/1").group().getName());
+        assertNull(concurrencyLimiter.resolve("OPTIONS", "/api/snippets"));
+        assertNull(concurrencyLimiter.resolve("GET", "/actuator/health"));
+    }
+
+    @Test
+    void testExportsLimitsAndRejections() {
+        ConcurrencyLimiter.Bulkhead search = concurrencyLimiter.getBulkhead("search");
+
+        assertTrue(concurrencyLimiter.tryAcquire(search));
+        assertFalse(concurrencyLimiter.tryAcquire(search));
+
+        assertEquals(1, meterRegistry.get("snipper.bulkhead.limit").tag("group", "search").gauge().value());
+        assertEquals(1, meterRegistry.get("snipper.bulkhead.inflight").tag("group", "search").gauge().value());
+        assertEquals(1, meterRegistry.get("snipper.bulkhead.rejected").tag("group", "search").counter().count());
+        assertEquals(0, meterRegistry.get("snipper.bulkhead.inflight").tag("group", "feed").gauge().value());
+    }
+
+    @Test
+    void testFilterShedsWith503WhenGroupIsFull() throws Exception {
+        BulkheadFilter filter = new BulkheadFilter(concurrencyLimiter);
+        ConcurrencyLimiter.Bulkhead search = concurrencyLimiter.getBulkhead("search");
+        assertTrue(concurrencyLimiter.tryAcquire(search));
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/snippets/search"), shed, (req, res) -> fail("should be shed"));
+
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+
+        // Other groups keep their own budget
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/snippets/1"), other, (req, res) -> {});
+        assertEquals(HttpServletResponse.SC_OK, other.getStatus());
+    }
+
+    @Test
+    void testFilterReleasesSlotAndBacksOffOnServerError() throws Exception {
+        BulkheadFilter filter = new BulkheadFilter(concurrencyLimiter);
+        ConcurrencyLimiter.Bulkhead writes = concurrencyLimiter.getBulkhead("writes");
+
+        filter.doFilter(request("POST", "/api/snippets"), new MockHttpServletResponse(),
+                (req, res) -> ((HttpServletResponse) res).setStatus(500));
+
+        assertEquals(0, writes.limit().getInFlight());
+        assertEquals(3, writes.limit().getLimit());
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
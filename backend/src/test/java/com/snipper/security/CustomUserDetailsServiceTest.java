@@ -15,7 +15,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CustomUserDetailsServiceTest {
@@ -23,6 +23,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
 
@@ -80,4 +83,37 @@ class CustomUserDetailsServiceTest {
             customUserDetailsService.loadUserById(999L);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLoadAuthenticatedUser_ServedFromCache() {
+        CustomUserPrincipal cached = CustomUserPrincipal.create(testUser);
+        when(principalCache.getByLogin("testuser")).thenReturn(cached);
+
+        UserDetails userDetails = customUserDetailsService.loadAuthenticatedUser("testuser");
+
+        assertSame(cached, userDetails);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testLoadAuthenticatedUser_CachesOnMiss() {
+        when(userRepository.findByUsernameAndIsActiveTrue("testuser")).thenReturn(Optional.of(testUser));
+
+        UserDetails userDetails = customUserDetailsService.loadAuthenticatedUser("testuser");
+
+        assertEquals("testuser", userDetails.getUsername());
+        verify(principalCache).put((CustomUserPrincipal) userDetails);
+    }
+
+    @Test
+    void testUpdatePassword_StoresRehashAndEvicts() {
+        CustomUserPrincipal principal = CustomUserPrincipal.create(testUser);
+
+        UserDetails updated = customUserDetailsService.updatePassword(principal, "rehashedpassword");
+
+        assertEquals("rehashedpassword", updated.getPassword());
+        assertEquals("testuser", updated.getUsername());
+        verify(userRepository).updatePassword(1L, "rehashedpassword");
+        verify(principalCache).evict(1L);
+    }
+}
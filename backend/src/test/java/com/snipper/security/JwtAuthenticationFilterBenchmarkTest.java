@@ -0,0 +1,104 @@
+package com.snipper.security;
+
+import com.snipper.repository.RevokedAccessTokenRepository;
+import com.snipper.repository.SigningKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Rough per-request cost of the authentication filter with and without the verified-token
+ * cache; logs nanoseconds per request, checks the principal is still resolved and that the
+ * cache makes requests cheaper.
+ */
+@Tag("benchmark")
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilterBenchmarkTest.class);
+
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilterCostPerRequest() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKeyForJwtTokenGenerationAndValidation");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "signingKeyManager", new SigningKeyManager(signingKeyRepository(),
+                mock(PlatformTransactionManager.class), "testSecretKeyForJwtTokenGenerationAndValidation", 86400000L, 604800000L, 3600000L, 5000L));
+        String token = jwtUtil.generateToken(new CustomUserPrincipal(1L, "testuser", null, null, true, 0,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        TokenVersionRegistry registry = mock(TokenVersionRegistry.class);
+        when(registry.isLoaded()).thenReturn(true);
+        when(registry.isCurrent(1L, 0)).thenReturn(true);
+
+        AccessTokenRevocationList revocationList = new AccessTokenRevocationList(
+                mock(RevokedAccessTokenRepository.class), mock(PlatformTransactionManager.class), 1000, 0.01);
+
+        double uncached = nanosPerRequest(filter(jwtUtil, registry, revocationList, new TokenVerifier(jwtUtil, 0)), token);
+        double cached = nanosPerRequest(filter(jwtUtil, registry, revocationList, new TokenVerifier(jwtUtil, 1000)), token);
+        logger.info("jwt filter: uncached={} ns/request cached={} ns/request", Math.round(uncached), Math.round(cached));
+        // A cache hit skips the signature check, which dominates the uncached cost
+        assertTrue(cached < uncached, "cached " + cached + " ns vs uncached " + uncached + " ns");
+    }
+
+    private JwtAuthenticationFilter filter(JwtUtil jwtUtil, TokenVersionRegistry registry,
+                                           AccessTokenRevocationList revocationList, TokenVerifier verifier) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenVersionRegistry", registry);
+        ReflectionTestUtils.setField(filter, "tokenVerifier", verifier);
+        ReflectionTestUtils.setField(filter, "revocationList", revocationList);
+        ReflectionTestUtils.setField(filter, "customUserDetailsService", mock(CustomUserDetailsService.class));
+        return filter;
+    }
+
+    private double nanosPerRequest(JwtAuthenticationFilter filter, String token) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            runOnce(filter, token);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            runOnce(filter, token);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertInstanceOf(CustomUserPrincipal.class,
+                SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        return (double) elapsed / ITERATIONS;
+    }
+
+    private void runOnce(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/snippets");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private static SigningKeyRepository signingKeyRepository() {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.lockRotation()).thenReturn(Optional.of(1));
+        return repository;
+    }
+}
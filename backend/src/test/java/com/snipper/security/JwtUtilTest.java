@@ -1,14 +1,28 @@
 package com.snipper.security;
 
+import com.snipper.repository.SigningKeyRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class JwtUtilTest {
 
@@ -19,6 +33,8 @@ class JwtUtilTest {
         jwtUtil = new JwtUtil();
         ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKeyForJwtTokenGenerationAndValidation");
         ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "signingKeyManager", new SigningKeyManager(signingKeyRepository(),
+                mock(PlatformTransactionManager.class), "testSecretKeyForJwtTokenGenerationAndValidation", 86400000L, 604800000L, 3600000L, 5000L));
     }
 
     @Test
@@ -71,4 +87,88 @@ class JwtUtilTest {
         
         assertNotNull(jwtUtil.extractExpiration(token));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSelfContainedTokenCarriesPrincipal() {
+        CustomUserPrincipal principal = new CustomUserPrincipal(42L, "testuser", "test@example.com", "hash", true, 3,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtil.generateToken(principal);
+
+        Claims claims = jwtUtil.parseClaims(token);
+        CustomUserPrincipal rebuilt = jwtUtil.toPrincipal(claims);
+
+        assertNotNull(rebuilt);
+        assertEquals(42L, rebuilt.getId());
+        assertEquals("testuser", rebuilt.getUsername());
+        assertEquals(3, rebuilt.getTokenVersion());
+        assertNull(rebuilt.getPassword());
+        assertEquals("ROLE_USER", rebuilt.getAuthorities().iterator().next().getAuthority());
+        assertEquals(3, jwtUtil.extractTokenVersion(token));
+    }
+
+    @Test
+    void testLegacyTokenHasNoPrincipalClaims() {
+        String token = jwtUtil.generateToken("testuser");
+
+        assertNull(jwtUtil.toPrincipal(jwtUtil.parseClaims(token)));
+        assertNull(jwtUtil.extractTokenVersion(token));
+    }
+
+    @Test
+    void testTokenIsSignedWithES256AndKeyId() {
+        String token = jwtUtil.generateToken("testuser");
+
+        String header = new String(java.util.Base64.getUrlDecoder().decode(token.split("\\.")[0]));
+        assertTrue(header.contains("\"alg\":\"ES256\""));
+        assertTrue(header.contains("\"kid\""));
+    }
+
+    @Test
+    void testLegacyHmacTokenRejectedWithoutCutoff() {
+        assertFalse(jwtUtil.validateToken(legacyToken(Instant.now())));
+    }
+
+    @Test
+    void testLegacyHmacTokenAcceptedOnlyWhenIssuedBeforeCutoff() {
+        Instant cutoff = Instant.now().plusSeconds(60);
+        ReflectionTestUtils.setField(jwtUtil, "legacyHmacCutoff", cutoff.toString());
+
+        assertEquals("testuser", jwtUtil.extractUsername(legacyToken(Instant.now())));
+        assertFalse(jwtUtil.validateToken(legacyToken(cutoff.plusSeconds(1))));
+    }
+
+    @Test
+    void testLegacyHmacTokenRejectedOneLifetimeAfterCutoff() {
+        // The token lifetime is one day, so a cutoff two days ago has closed the window
+        Instant cutoff = Instant.now().minus(Duration.ofDays(2));
+        ReflectionTestUtils.setField(jwtUtil, "legacyHmacCutoff", cutoff.toString());
+
+        assertFalse(jwtUtil.validateToken(legacyToken(cutoff.minusSeconds(60))));
+    }
+
+    @Test
+    void testUnknownKeyIdRejected() {
+        String token = jwtUtil.generateToken("testuser");
+
+        // A fresh key manager has never seen the token's key
+        ReflectionTestUtils.setField(jwtUtil, "signingKeyManager", new SigningKeyManager(signingKeyRepository(),
+                mock(PlatformTransactionManager.class), "testSecretKeyForJwtTokenGenerationAndValidation", 86400000L, 604800000L, 3600000L, 5000L));
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(token));
+    }
+
+    private static String legacyToken(Instant issuedAt) {
+        return Jwts.builder()
+                .setSubject("testuser")
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("testSecretKeyForJwtTokenGenerationAndValidation".getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static SigningKeyRepository signingKeyRepository() {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.lockRotation()).thenReturn(Optional.of(1));
+        return repository;
+    }
+}
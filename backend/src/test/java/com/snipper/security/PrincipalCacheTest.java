@@ -0,0 +1,72 @@
+package com.snipper.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private CustomUserPrincipal principal(long id, String username) {
+        return new CustomUserPrincipal(id, username, username + "@example.com", "hash", true,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void testLookupByUsernameEmailAndId() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        CustomUserPrincipal alice = principal(1L, "alice");
+        cache.put(alice);
+
+        assertSame(alice, cache.getByLogin("alice"));
+        assertSame(alice, cache.getByLogin("alice@example.com"));
+        assertSame(alice, cache.getById(1L));
+        assertNull(cache.getByLogin("bob"));
+    }
+
+    @Test
+    void testEvictRemovesAllKeys() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        cache.put(principal(1L, "alice"));
+
+        cache.evict(1L);
+
+        assertNull(cache.getById(1L));
+        assertNull(cache.getByLogin("alice"));
+        assertNull(cache.getByLogin("alice@example.com"));
+    }
+
+    @Test
+    void testRenamedUserDoesNotResolveUnderOldName() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        cache.put(principal(1L, "alice"));
+        cache.put(principal(1L, "alicia"));
+
+        assertNull(cache.getByLogin("alice"));
+        assertEquals("alicia", cache.getByLogin("alicia").getUsername());
+    }
+
+    @Test
+    void testEntriesExpire() throws InterruptedException {
+        PrincipalCache cache = new PrincipalCache(1, 100);
+        cache.put(principal(1L, "alice"));
+
+        Thread.sleep(5);
+
+        assertNull(cache.getById(1L));
+        assertNull(cache.getByLogin("alice"));
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        PrincipalCache cache = new PrincipalCache(60_000, 50);
+        for (long id = 1; id <= 500; id++) {
+            cache.put(principal(id, "user" + id));
+        }
+
+        assertTrue(cache.size() <= 50);
+        assertNotNull(cache.getById(500L));
+    }
+}
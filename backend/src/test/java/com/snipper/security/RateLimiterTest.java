@@ -0,0 +1,138 @@
+package com.snipper.security;
+
+import com.snipper.config.RateLimitProperties;
+import com.snipper.model.RateLimitBucket;
+import com.snipper.repository.RateLimitBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimiterTest {
+
+    @Mock
+    private RateLimitBucketRepository rateLimitBucketRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setGroups(List.of(
+                new RateLimitProperties.Group("search", List.of("/api/snippets/search"), 2, 1),
+                new RateLimitProperties.Group("default", List.of("/api/**"), 100, 10)));
+        rateLimiter = new RateLimiter(properties, rateLimitBucketRepository, transactionManager);
+    }
+
+    @Test
+    void testFirstMatchingGroupWins() {
+        assertEquals("search", rateLimiter.resolveGroup("/api/snippets/search").getName());
+        assertEquals("default", rateLimiter.resolveGroup("/api/snippets/1").getName());
+        assertNull(rateLimiter.resolveGroup("/actuator/health"));
+        assertNull(rateLimiter.tryAcquire("/actuator/health", "ip:203.0.113.7"));
+    }
+
+    @Test
+    void testRejectsOnceBucketIsEmpty() {
+        RateLimiter.Decision first = rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7");
+        RateLimiter.Decision second = rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7");
+        RateLimiter.Decision third = rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7");
+
+        assertTrue(first.allowed());
+        assertEquals(2, first.limit());
+        assertEquals(1, first.remaining());
+        assertEquals("2;w=2", first.policy());
+        assertTrue(second.allowed());
+        assertEquals(0, second.remaining());
+        assertFalse(third.allowed());
+        assertEquals(1, third.retryAfterSeconds());
+    }
+
+    @Test
+    void testBucketsAreSeparatePerClientAndGroup() {
+        rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7");
+        rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7");
+
+        assertTrue(rateLimiter.tryAcquire("/api/snippets/search", "user:42").allowed());
+        assertTrue(rateLimiter.tryAcquire("/api/snippets/1", "ip:203.0.113.7").allowed());
+        assertEquals(3, rateLimiter.size());
+    }
+
+    @Test
+    void testDisabledLimitsNothing() {
+        properties.setEnabled(false);
+
+        assertNull(rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7"));
+    }
+
+    @Test
+    void testIdleEvictionKeepsBucketsStillRefilling() {
+        properties.setIdleEvictionMs(0);
+        rateLimiter.tryAcquire("/api/snippets/search", "ip:203.0.113.7");
+
+        rateLimiter.evictIdle();
+
+        assertEquals(1, rateLimiter.size());
+    }
+
+    @Test
+    void testSharedSyncPushesConsumptionAndAdoptsGlobalBalance() {
+        properties.getShared().setEnabled(true);
+        rateLimiter.tryAcquire("/api/snippets/1", "ip:203.0.113.7");
+        // Other replicas already used most of the shared bucket
+        when(rateLimitBucketRepository.findForUpdate("default:ip:203.0.113.7"))
+                .thenReturn(Optional.of(new RateLimitBucket("default:ip:203.0.113.7", 5, System.currentTimeMillis())));
+
+        rateLimiter.syncShared();
+
+        ArgumentCaptor<RateLimitBucket> saved = ArgumentCaptor.forClass(RateLimitBucket.class);
+        verify(rateLimitBucketRepository).save(saved.capture());
+        assertEquals(4, saved.getValue().getTokens(), 0.5);
+        assertTrue(rateLimiter.tryAcquire("/api/snippets/1", "ip:203.0.113.7").remaining() <= 4);
+    }
+
+    @Test
+    void testFailedSharedSyncKeepsConsumptionForNextSync() {
+        properties.getShared().setEnabled(true);
+        rateLimiter.tryAcquire("/api/snippets/1", "ip:203.0.113.7");
+        rateLimiter.tryAcquire("/api/snippets/1", "ip:203.0.113.7");
+        when(rateLimitBucketRepository.save(any(RateLimitBucket.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        rateLimiter.syncShared();
+        rateLimiter.syncShared();
+
+        ArgumentCaptor<RateLimitBucket> saved = ArgumentCaptor.forClass(RateLimitBucket.class);
+        verify(rateLimitBucketRepository, times(2)).save(saved.capture());
+        assertEquals(98, saved.getAllValues().get(1).getTokens(), 0.5);
+    }
+
+    @Test
+    void testSharedSyncSkipsUnusedBuckets() {
+        properties.getShared().setEnabled(true);
+        rateLimiter.tryAcquire("/api/snippets/1", "ip:203.0.113.7");
+        rateLimiter.syncShared();
+        reset(rateLimitBucketRepository);
+
+        rateLimiter.syncShared();
+
+        verify(rateLimitBucketRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,139 @@
+package com.snipper.security;
+
+import com.snipper.model.SigningKey;
+import com.snipper.repository.SigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SigningKeyManagerTest {
+
+    private static final String SECRET = "testSecretKeyForJwtTokenGenerationAndValidation";
+    private static final long HOUR = 3_600_000L;
+
+    @Mock
+    private SigningKeyRepository signingKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SigningKeyManager manager;
+
+    @BeforeEach
+    void setUp() {
+        when(signingKeyRepository.lockRotation()).thenReturn(Optional.of(1));
+        manager = new SigningKeyManager(signingKeyRepository, transactionManager, SECRET, HOUR, 24 * HOUR, HOUR, 5000L);
+    }
+
+    @Test
+    void testFirstKeyActivatesImmediatelyAndIsPublished() {
+        SigningKeyManager.Key key = manager.signingKey();
+
+        assertNotNull(key.privateKey());
+        assertSame(key.publicKey(), manager.verificationKey(key.kid()));
+        assertEquals(key.retireAt().plusHours(1), key.expireAt());
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) manager.getJwks().get("keys");
+        assertEquals(1, keys.size());
+        assertEquals(key.kid(), keys.get(0).get("kid"));
+        assertEquals("ES256", keys.get(0).get("alg"));
+        assertEquals(43, ((String) keys.get(0).get("x")).length());
+    }
+
+    @Test
+    void testNextKeyIsPrepublishedBeforeActivation() {
+        manager = new SigningKeyManager(signingKeyRepository, transactionManager, SECRET, HOUR, HOUR / 2, HOUR, 5000L);
+        List<SigningKey> stored = new ArrayList<>();
+        when(signingKeyRepository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            stored.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(signingKeyRepository.findPublished(any(LocalDateTime.class))).thenAnswer(invocation -> List.copyOf(stored));
+        SigningKeyManager.Key first = manager.signingKey();
+        String firstEtag = manager.getJwksEtag();
+
+        // The first key retires within the pre-publication window, so its successor is generated now
+        manager.rotateIfDue();
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) manager.getJwks().get("keys");
+        assertEquals(2, keys.size());
+        assertNotEquals(firstEtag, manager.getJwksEtag());
+        assertEquals(first.kid(), manager.signingKey().kid());
+    }
+
+    @Test
+    void testStoredKeyIsEncryptedAndReloadable() {
+        SigningKeyManager.Key key = manager.signingKey();
+        ArgumentCaptor<SigningKey> saved = ArgumentCaptor.forClass(SigningKey.class);
+        verify(signingKeyRepository).save(saved.capture());
+        assertFalse(saved.getValue().getPrivateKey().isEmpty());
+
+        SigningKeyManager other = new SigningKeyManager(signingKeyRepository, transactionManager, SECRET, HOUR, 24 * HOUR, HOUR, 5000L);
+        when(signingKeyRepository.findPublished(any(LocalDateTime.class))).thenReturn(List.of(saved.getValue()));
+        other.refresh();
+
+        assertEquals(key.kid(), other.signingKey().kid());
+        assertEquals(key.publicKey(), other.verificationKey(key.kid()));
+    }
+
+    @Test
+    void testKeyUnderOtherSecretIsVerificationOnly() {
+        manager.signingKey();
+        ArgumentCaptor<SigningKey> saved = ArgumentCaptor.forClass(SigningKey.class);
+        verify(signingKeyRepository).save(saved.capture());
+
+        SigningKeyManager other = new SigningKeyManager(signingKeyRepository, transactionManager, "anotherSecret", HOUR, 24 * HOUR, HOUR, 5000L);
+        when(signingKeyRepository.findPublished(any(LocalDateTime.class))).thenReturn(List.of(saved.getValue()));
+        other.refresh();
+
+        assertNotNull(other.verificationKey(saved.getValue().getKid()));
+        assertNotEquals(saved.getValue().getKid(), other.signingKey().kid());
+    }
+
+    @Test
+    void testUsesKeyStoredByAnotherInstanceInsteadOfGenerating() {
+        SigningKeyManager.Key key = manager.signingKey();
+        ArgumentCaptor<SigningKey> saved = ArgumentCaptor.forClass(SigningKey.class);
+        verify(signingKeyRepository).save(saved.capture());
+
+        // The other instance finds the key once it holds the rotation lock
+        SigningKeyManager other = new SigningKeyManager(signingKeyRepository, transactionManager, SECRET, HOUR, 24 * HOUR, HOUR, 5000L);
+        when(signingKeyRepository.findPublished(any(LocalDateTime.class))).thenReturn(List.of(saved.getValue()));
+
+        assertEquals(key.kid(), other.signingKey().kid());
+        verify(signingKeyRepository, times(1)).save(any(SigningKey.class));
+        verify(signingKeyRepository, times(2)).lockRotation();
+    }
+
+    @Test
+    void testUnknownKeyIdReloadsAtMostOncePerInterval() {
+        SigningKeyManager.Key key = manager.signingKey();
+        ArgumentCaptor<SigningKey> saved = ArgumentCaptor.forClass(SigningKey.class);
+        verify(signingKeyRepository).save(saved.capture());
+
+        SigningKeyManager other = new SigningKeyManager(signingKeyRepository, transactionManager, SECRET, HOUR, 24 * HOUR, HOUR, 5000L);
+        when(signingKeyRepository.findPublished(any(LocalDateTime.class))).thenReturn(List.of(saved.getValue()));
+
+        assertEquals(key.publicKey(), other.verificationKey(key.kid()));
+        assertNull(other.verificationKey("unknown"));
+        assertNull(other.verificationKey("unknown"));
+        verify(signingKeyRepository, times(2)).findPublished(any(LocalDateTime.class));
+    }
+}
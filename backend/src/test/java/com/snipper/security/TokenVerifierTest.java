@@ -0,0 +1,78 @@
+package com.snipper.security;
+
+import com.snipper.repository.SigningKeyRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenVerifierTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil());
+        ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKeyForJwtTokenGenerationAndValidation");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "signingKeyManager", new SigningKeyManager(signingKeyRepository(),
+                mock(PlatformTransactionManager.class), "testSecretKeyForJwtTokenGenerationAndValidation", 86400000L, 604800000L, 3600000L, 5000L));
+    }
+
+    private String token(long id) {
+        return jwtUtil.generateToken(new CustomUserPrincipal(id, "user" + id, null, null, true, 0,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Test
+    void testRepeatedTokenIsParsedOnce() {
+        TokenVerifier verifier = new TokenVerifier(jwtUtil, 100);
+        String token = token(1L);
+
+        Claims first = verifier.verify(token);
+        Claims second = verifier.verify(token);
+
+        assertSame(first, second);
+        assertEquals("user1", second.getSubject());
+        verify(jwtUtil, times(1)).parseClaims(token);
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        TokenVerifier verifier = new TokenVerifier(jwtUtil, 100);
+        String token = token(1L);
+        verifier.verify(token);
+
+        // Same signature segment, different payload
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + token(2L).split("\\.")[1] + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> verifier.verify(forged));
+    }
+
+    @Test
+    void testCacheStaysBounded() {
+        TokenVerifier verifier = new TokenVerifier(jwtUtil, 10);
+
+        for (long id = 1; id <= 50; id++) {
+            verifier.verify(token(id));
+        }
+
+        assertTrue(verifier.size() <= 10);
+    }
+
+    private static SigningKeyRepository signingKeyRepository() {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.lockRotation()).thenReturn(Optional.of(1));
+        return repository;
+    }
+}
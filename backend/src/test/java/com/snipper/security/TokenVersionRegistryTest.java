@@ -0,0 +1,67 @@
+package com.snipper.security;
+
+import com.snipper.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findNonDefaultTokenStates()).thenReturn(List.of(
+                new Object[]{2L, 1, true},
+                new Object[]{3L, 4, false}));
+    }
+
+    @Test
+    void testRejectsEverythingUntilLoaded() {
+        assertFalse(registry.isCurrent(1L, 0));
+
+        registry.refresh();
+
+        assertTrue(registry.isLoaded());
+        assertTrue(registry.isCurrent(1L, 0));
+    }
+
+    @Test
+    void testBumpedAndDeactivatedUsers() {
+        registry.refresh();
+
+        assertFalse(registry.isCurrent(2L, 0));
+        assertTrue(registry.isCurrent(2L, 1));
+        assertFalse(registry.isCurrent(3L, 4));
+    }
+
+    @Test
+    void testLocalBumpAppliesUntilDatabaseCatchesUp() {
+        registry.refresh();
+        registry.bump(1L, 1);
+
+        assertFalse(registry.isCurrent(1L, 0));
+
+        // A reload that predates the bump must not resurrect the old version
+        registry.refresh();
+        assertFalse(registry.isCurrent(1L, 0));
+
+        when(userRepository.findNonDefaultTokenStates()).thenReturn(List.<Object[]>of(new Object[]{1L, 1, true}));
+        registry.refresh();
+        assertFalse(registry.isCurrent(1L, 0));
+        assertTrue(registry.isCurrent(1L, 1));
+    }
+}
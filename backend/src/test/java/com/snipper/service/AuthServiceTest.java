@@ -5,22 +5,30 @@ import com.snipper.dto.auth.LoginRequest;
 import com.snipper.dto.auth.RegisterRequest;
 import com.snipper.model.User;
 import com.snipper.repository.UserRepository;
+import com.snipper.exception.DuplicateResourceException;
+import com.snipper.exception.InvalidTokenException;
+import com.snipper.security.AccessTokenRevocationList;
 import com.snipper.security.CustomUserPrincipal;
 import com.snipper.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +53,18 @@ class AuthServiceTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private AccessTokenRevocationList revocationList;
+
+    @Mock
+    private UserAvailabilityService userAvailabilityService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -78,11 +98,10 @@ class AuthServiceTest {
     @Test
     void register_Success() {
         // Arrange
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("hashedpassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(jwtUtil.generateToken("testuser")).thenReturn("jwt-token");
+        when(jwtUtil.generateToken(testUser)).thenReturn("jwt-token");
+        when(refreshTokenService.issue(1L)).thenReturn("refresh-token");
 
         // Act
         AuthResponse response = authService.register(registerRequest);
@@ -90,47 +109,53 @@ class AuthServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals("jwt-token", response.getToken());
+        assertEquals("refresh-token", response.getRefreshToken());
         assertEquals(1L, response.getUser().getId());
         assertEquals("testuser", response.getUser().getUsername());
         assertEquals("test@example.com", response.getUser().getEmail());
         assertEquals("Bearer", response.getTokenType());
 
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository).existsByEmail("test@example.com");
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
-        verify(jwtUtil, times(2)).generateToken("testuser"); // Called twice: access token + refresh token
+        verify(jwtUtil).generateToken(testUser);
+        verify(userAvailabilityService).markTaken("testuser", "test@example.com");
+        verify(userStatsService).recordUserCreated(1L);
     }
 
     @Test
     void register_UsernameAlreadyExists() {
         // Arrange
-        when(userRepository.existsByUsername("testuser")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("hashedpassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'testuser' for key 'users.username'")));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
             () -> authService.register(registerRequest));
         
         assertEquals("Username is already taken", exception.getMessage());
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userAvailabilityService, never()).markTaken(anyString(), anyString());
+        verify(userStatsService, never()).recordUserCreated(anyLong());
+        verify(refreshTokenService, never()).issue(anyLong());
     }
 
     @Test
     void register_EmailAlreadyExists() {
         // Arrange
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("hashedpassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Unique index or primary key violation: \"PUBLIC.UK_EMAIL_INDEX ON PUBLIC.USERS(EMAIL NULLS FIRST) VALUES ( 'test@example.com' )\"")));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
             () -> authService.register(registerRequest));
         
         assertEquals("Email is already registered", exception.getMessage());
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository).existsByEmail("test@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
@@ -141,7 +166,8 @@ class AuthServiceTest {
         when(authentication.getPrincipal()).thenReturn(com.snipper.security.CustomUserPrincipal.create(testUser));
         when(userRepository.findByUsernameAndIsActiveTrue("testuser"))
             .thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateToken("testuser")).thenReturn("jwt-token");
+        when(jwtUtil.generateToken(testUser)).thenReturn("jwt-token");
+        when(refreshTokenService.issue(1L)).thenReturn("refresh-token");
 
         // Act
         AuthResponse response = authService.login(loginRequest);
@@ -149,13 +175,14 @@ class AuthServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals("jwt-token", response.getToken());
+        assertEquals("refresh-token", response.getRefreshToken());
         assertEquals(1L, response.getUser().getId());
         assertEquals("testuser", response.getUser().getUsername());
         assertEquals("test@example.com", response.getUser().getEmail());
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByUsernameAndIsActiveTrue("testuser");
-        verify(jwtUtil, times(2)).generateToken("testuser"); // Called twice: access token + refresh token
+        verify(jwtUtil).generateToken(testUser);
     }
 
     @Test
@@ -195,14 +222,13 @@ class AuthServiceTest {
     @Test
     void refreshToken_Success() {
         // Arrange
-        String oldToken = "old-jwt-token";
+        String oldToken = "old-refresh-token";
         String newToken = "new-jwt-token";
-        
-        when(jwtUtil.validateToken(oldToken)).thenReturn(true);
-        when(jwtUtil.extractUsername(oldToken)).thenReturn("testuser");
-        when(userRepository.findByUsernameAndIsActiveTrue("testuser"))
-            .thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateToken("testuser")).thenReturn(newToken);
+
+        when(refreshTokenService.rotate(oldToken))
+            .thenReturn(new RefreshTokenService.Rotation(1L, "new-refresh-token"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(jwtUtil.generateToken(testUser)).thenReturn(newToken);
 
         // Act
         AuthResponse response = authService.refreshToken(oldToken);
@@ -210,48 +236,66 @@ class AuthServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals(newToken, response.getToken());
+        assertEquals("new-refresh-token", response.getRefreshToken());
         assertEquals(1L, response.getUser().getId());
         assertEquals("testuser", response.getUser().getUsername());
         assertEquals("test@example.com", response.getUser().getEmail());
 
-        verify(jwtUtil).validateToken(oldToken);
-        verify(jwtUtil).extractUsername(oldToken);
-        verify(userRepository).findByUsernameAndIsActiveTrue("testuser");
-        verify(jwtUtil, times(2)).generateToken("testuser"); // Called twice: access token + refresh token
+        verify(refreshTokenService).rotate(oldToken);
+        verify(userRepository).findById(1L);
+        verify(jwtUtil).generateToken(testUser);
     }
 
     @Test
     void refreshToken_InvalidToken() {
         // Arrange
         String invalidToken = "invalid-token";
-        when(jwtUtil.validateToken(invalidToken)).thenReturn(false);
+        when(refreshTokenService.rotate(invalidToken))
+            .thenThrow(new InvalidTokenException("Unknown refresh token"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> authService.refreshToken(invalidToken));
         
-        assertEquals("Failed to refresh token: Invalid token", exception.getMessage());
-        verify(jwtUtil).validateToken(invalidToken);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        assertEquals("Failed to refresh token: Unknown refresh token", exception.getMessage());
+        verify(refreshTokenService).rotate(invalidToken);
+        verify(jwtUtil, never()).generateToken(any(User.class));
     }
 
     @Test
     void refreshToken_UserNotFound() {
         // Arrange
         String token = "valid-token";
-        when(jwtUtil.validateToken(token)).thenReturn(true);
-        when(jwtUtil.extractUsername(token)).thenReturn("testuser");
-        when(userRepository.findByUsernameAndIsActiveTrue("testuser"))
-            .thenReturn(Optional.empty());
+        testUser.setIsActive(false);
+        when(refreshTokenService.rotate(token))
+            .thenReturn(new RefreshTokenService.Rotation(1L, "new-refresh-token"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> authService.refreshToken(token));
         
         assertEquals("Failed to refresh token: User not found or inactive", exception.getMessage());
-        verify(jwtUtil).validateToken(token);
-        verify(jwtUtil).extractUsername(token);
-        verify(userRepository).findByUsernameAndIsActiveTrue("testuser");
+        verify(refreshTokenService).rotate(token);
+        verify(userRepository).findById(1L);
+    }
+
+    @Test
+    void logout_RevokesAccessAndRefreshTokens() {
+        // Arrange
+        Claims claims = Jwts.claims();
+        claims.setId("jti-1");
+        // JWT expiry has second precision
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        claims.setExpiration(expiration);
+        when(jwtUtil.parseClaims("access-token")).thenReturn(claims);
+
+        // Act
+        authService.logout("access-token", "refresh-token");
+
+        // Assert
+        verify(revocationList).revoke("jti-1", expiration.toInstant());
+        verify(refreshTokenService).revoke("refresh-token");
     }
 
     @Test
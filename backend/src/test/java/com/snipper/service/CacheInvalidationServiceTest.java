@@ -0,0 +1,162 @@
+package com.snipper.service;
+
+import com.snipper.cache.ResponseCache;
+import com.snipper.model.CacheChangeLogEntry;
+import com.snipper.model.CacheEntityType;
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.repository.CacheChangeLogRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationServiceTest {
+
+    @Mock
+    private CacheChangeLogRepository changeLogRepository;
+
+    @Mock
+    private ResponseCache responseCache;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    private CacheInvalidationService cacheInvalidationService;
+
+    @BeforeEach
+    void setUp() {
+        cacheInvalidationService = new CacheInvalidationService(changeLogRepository, responseCache, entityManagerFactory,
+                500, 30_000, 3_600_000);
+    }
+
+    @Test
+    void snippetChanged_EvictsLocallyAndAppendsToLog() {
+        // When
+        cacheInvalidationService.snippetChanged(1L, 3L);
+
+        // Then
+        verify(responseCache).evictSnippet(1L);
+        CacheChangeLogEntry entry = savedEntry();
+        assertEquals(CacheEntityType.SNIPPET, entry.getEntityType());
+        assertEquals(1L, entry.getEntityId());
+        assertEquals(3L, entry.getEntityVersion());
+        assertNotNull(entry.getOrigin());
+    }
+
+    @Test
+    void pollChanges_StartsFromLatestEntry() {
+        // Given
+        when(changeLogRepository.findLatestId()).thenReturn(Optional.of(5L));
+
+        // When
+        int applied = cacheInvalidationService.pollChanges();
+
+        // Then
+        assertEquals(0, applied);
+        verify(changeLogRepository, never()).findAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void pollChanges_AppliesOtherInstancesChangesOnly() {
+        // Given
+        cacheInvalidationService.userChanged(1L, "testuser");
+        CacheChangeLogEntry own = savedEntry();
+        own.setId(6L);
+        startAt(5L);
+        when(changeLogRepository.findAfter(eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(own, entry(7L, CacheEntityType.USER, 2L, "alice")));
+        mockSecondLevelCache();
+
+        // When
+        int applied = cacheInvalidationService.pollChanges();
+
+        // Then
+        assertEquals(1, applied);
+        verify(responseCache).evictProfile("alice");
+        verify(responseCache, times(1)).evictProfile("testuser");
+        verify(secondLevelCache).evict(User.class, 2L);
+        verify(secondLevelCache, never()).evict(User.class, 1L);
+        verify(secondLevelCache).evictQueryRegion("user-lookups");
+    }
+
+    @Test
+    void pollChanges_PicksUpEntriesCommittedOutOfOrder() {
+        // Given
+        startAt(5L);
+        when(changeLogRepository.findAfter(eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(entry(8L, CacheEntityType.SNIPPET, 42L, null)));
+        mockSecondLevelCache();
+        cacheInvalidationService.pollChanges();
+
+        // Entry 6 commits after 8 was read; 7 never does
+        when(changeLogRepository.findByIdIn(argThat((Collection<Long> ids) -> ids.containsAll(List.of(6L, 7L)))))
+                .thenReturn(List.of(entry(6L, CacheEntityType.SNIPPET, 41L, null)));
+        when(changeLogRepository.findAfter(eq(8L), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        int applied = cacheInvalidationService.pollChanges();
+
+        // Then
+        assertEquals(1, applied);
+        verify(responseCache).evictSnippet(42L);
+        verify(responseCache).evictSnippet(41L);
+        verify(secondLevelCache).evict(Snippet.class, 41L);
+    }
+
+    @Test
+    void purgeOldEntries_DeletesEntriesPastRetention() {
+        // When
+        cacheInvalidationService.purgeOldEntries();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(changeLogRepository).deleteOlderThan(cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusMinutes(59)));
+        assertTrue(cutoff.getValue().isAfter(LocalDateTime.now().minusMinutes(61)));
+    }
+
+    private void startAt(Long position) {
+        when(changeLogRepository.findLatestId()).thenReturn(Optional.of(position));
+        cacheInvalidationService.pollChanges();
+    }
+
+    private void mockSecondLevelCache() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+    }
+
+    private CacheChangeLogEntry savedEntry() {
+        ArgumentCaptor<CacheChangeLogEntry> entry = ArgumentCaptor.forClass(CacheChangeLogEntry.class);
+        verify(changeLogRepository).save(entry.capture());
+        return entry.getValue();
+    }
+
+    private static CacheChangeLogEntry entry(Long id, CacheEntityType type, Long entityId, String cacheKey) {
+        CacheChangeLogEntry entry = new CacheChangeLogEntry(type, entityId, null, cacheKey, "other-instance");
+        entry.setId(id);
+        return entry;
+    }
+}
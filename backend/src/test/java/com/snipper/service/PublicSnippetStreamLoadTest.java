@@ -0,0 +1,179 @@
+package com.snipper.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.cache.ResponseCache;
+import com.snipper.config.CacheProperties;
+import com.snipper.dto.snippet.SnippetSummaryResponse;
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.model.VisibilityType;
+import com.snipper.repository.SnippetRepository;
+import com.snipper.repository.UserRepository;
+import com.snipper.security.CurrentUserResolver;
+import com.snipper.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of the public read paths against a seeded table.
+ *
+ * The stream is read in keyset batches, each in its own short read-only transaction, and
+ * must return every public snippet exactly once. Throughput of concurrent paged reads on
+ * a small pool is a benchmark, logged per thread count.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SnippetService.class, CurrentUserResolver.class, PublicSnippetStreamLoadTest.SingleFlightConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PublicSnippetStreamLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicSnippetStreamLoadTest.class);
+    private static final int PUBLIC_SNIPPETS = 300;
+    private static final int PRIVATE_SNIPPETS = 50;
+    private static final int[] THREAD_COUNTS = {1, 4, 8};
+    private static final int READS_PER_THREAD = 100;
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SnippetService snippetService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private UniqueViewerService uniqueViewerService;
+
+    @MockBean
+    private ViewAnalyticsService viewAnalyticsService;
+
+    @MockBean
+    private ViewCounterService viewCounterService;
+
+    @MockBean
+    private UserStatsService userStatsService;
+
+    @MockBean
+    private SnippetRevisionService revisionService;
+
+    @MockBean
+    private CacheInvalidationService cacheInvalidationService;
+
+    private String language;
+
+    @TestConfiguration
+    static class SingleFlightConfig {
+        @Bean
+        SingleFlight singleFlight() {
+            return new SingleFlight(5_000);
+        }
+
+        @Bean
+        ResponseCache responseCache() {
+            CacheProperties properties = new CacheProperties();
+            properties.setEnabled(false);
+            return new ResponseCache(properties, null, new ObjectMapper(), new SimpleMeterRegistry());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        language = "lang" + System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            String name = "author" + System.nanoTime();
+            User author = userRepository.save(new User(name, name + "@example.com", "x".repeat(60)));
+            for (int i = 0; i < PUBLIC_SNIPPETS + PRIVATE_SNIPPETS; i++) {
+                VisibilityType visibility = i % 7 == 0 && i / 7 < PRIVATE_SNIPPETS ? VisibilityType.PRIVATE : VisibilityType.PUBLIC;
+                snippetRepository.save(new Snippet("Snippet " + i, "content " + i, language, visibility, author));
+            }
+        });
+    }
+
+    @Test
+    void testStreamReturnsEveryPublicSnippetOnceInIdOrder() {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+
+        long streamed = snippetService.streamPublicSnippets(language, 64, batch -> {
+            batchSizes.add(batch.size());
+            batch.forEach(snippet -> ids.add(snippet.getId()));
+        });
+
+        assertEquals(PUBLIC_SNIPPETS, streamed);
+        assertEquals(PUBLIC_SNIPPETS, ids.size());
+        assertEquals(PUBLIC_SNIPPETS, ids.stream().distinct().count());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i));
+        }
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 64));
+        assertEquals((PUBLIC_SNIPPETS + 63) / 64, batchSizes.size());
+    }
+
+    @Test
+    void testStreamSkipsPrivateSnippets() {
+        List<SnippetSummaryResponse> snippets = new ArrayList<>();
+
+        snippetService.streamPublicSnippets(language, 500, snippets::addAll);
+
+        assertTrue(snippets.stream().allMatch(snippet -> snippet.getVisibility() == VisibilityType.PUBLIC));
+        assertTrue(snippets.stream().allMatch(snippet -> snippet.getAuthorUsername() != null));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testConcurrentPagedReads() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Callable<Long>> readers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                readers.add(() -> {
+                    long read = 0;
+                    for (int i = 0; i < READS_PER_THREAD; i++) {
+                        read += snippetService.getSnippetsByLanguage(language, i % 5, 20).getContent().size();
+                    }
+                    return read;
+                });
+            }
+
+            long start = System.nanoTime();
+            long read = 0;
+            for (Future<Long> result : executor.invokeAll(readers)) {
+                read += result.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+
+            assertEquals(20L * threads * READS_PER_THREAD, read);
+            logger.info("threads={} pages={}/s", threads,
+                    Math.round(threads * READS_PER_THREAD / (elapsed / 1_000_000_000.0)));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.snipper.service;
+
+import com.snipper.exception.InvalidTokenException;
+import com.snipper.model.RefreshToken;
+import com.snipper.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 60_000);
+    }
+
+    @Test
+    void testIssueStoresOnlyHash() {
+        String raw = refreshTokenService.issue(1L);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertNotEquals(raw, saved.getValue().getTokenHash());
+        assertEquals(RefreshTokenService.hash(raw), saved.getValue().getTokenHash());
+        assertEquals(1L, saved.getValue().getUserId());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void testRotateIssuesNewTokenInSameFamily() {
+        RefreshToken stored = new RefreshToken(RefreshTokenService.hash("raw"), "family-1", 1L,
+                LocalDateTime.now().plusHours(1));
+        when(refreshTokenRepository.findForUpdate(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(stored));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertEquals(1L, rotation.userId());
+        assertNotEquals("raw", rotation.refreshToken());
+        assertNotNull(stored.getUsedAt());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(saved.capture());
+        assertEquals("family-1", saved.getAllValues().get(1).getFamilyId());
+    }
+
+    @Test
+    void testReuseRevokesFamily() {
+        RefreshToken stored = new RefreshToken(RefreshTokenService.hash("raw"), "family-1", 1L,
+                LocalDateTime.now().plusHours(1));
+        stored.setUsedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findForUpdate(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(stored));
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testExpiredTokenRejected() {
+        RefreshToken stored = new RefreshToken(RefreshTokenService.hash("raw"), "family-1", 1L,
+                LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findForUpdate(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(stored));
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+}
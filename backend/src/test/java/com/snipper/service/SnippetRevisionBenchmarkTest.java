@@ -0,0 +1,136 @@
+package com.snipper.service;
+
+import com.snipper.dto.common.PagedResponse;
+import com.snipper.dto.snippet.SnippetRevisionSummaryResponse;
+import com.snipper.exception.ResourceNotFoundException;
+import com.snipper.model.SnippetRevision;
+import com.snipper.repository.SnippetRevisionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Revision history against the embedded database: every revision of a 100-deep history
+ * must rebuild exactly from far less than full copies. The benchmark logs the latency of
+ * rebuilding the deepest revision with keyframes every 10 revisions and with a single
+ * keyframe (a plain delta chain), together with the stored sizes.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+class SnippetRevisionBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnippetRevisionBenchmarkTest.class);
+    private static final int DEPTH = 100;
+    private static final int LINES = 400;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private SnippetRevisionRepository revisionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testEveryRevisionRebuildsExactly() {
+        SnippetRevisionService service = new SnippetRevisionService(revisionRepository, 10, 2000);
+        List<String> contents = recordHistory(service, 1L);
+
+        for (int revision = 1; revision <= DEPTH; revision++) {
+            assertEquals(contents.get(revision - 1), service.getRevision(1L, revision).getContent());
+        }
+        assertThrows(ResourceNotFoundException.class, () -> service.getRevision(1L, DEPTH + 1));
+        assertThrows(ResourceNotFoundException.class, () -> service.getRevision(1L, 0));
+
+        PagedResponse<SnippetRevisionSummaryResponse> page = service.getRevisions(1L, 0, 5);
+        assertEquals(DEPTH, page.getTotalElements());
+        assertEquals(DEPTH, page.getContent().get(0).getRevision());
+        assertEquals(contents.get(DEPTH - 1).length(), page.getContent().get(0).getContentLength());
+        assertTrue(storedSize(1L) < contents.stream().mapToLong(String::length).sum() / 4);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testReconstructionLatencyAtDepth100() {
+        SnippetRevisionService keyframed = new SnippetRevisionService(revisionRepository, 10, 2000);
+        SnippetRevisionService chained = new SnippetRevisionService(revisionRepository, Integer.MAX_VALUE, 2000);
+        List<String> contents = recordHistory(keyframed, 2L);
+        assertEquals(contents, recordHistory(chained, 3L));
+        // Time the reads alone, not flushes of the entities just recorded
+        entityManager.flush();
+        entityManager.clear();
+
+        double keyframedMicros = rebuildMicros(keyframed, 2L);
+        double chainedMicros = rebuildMicros(chained, 3L);
+        assertEquals(contents.get(DEPTH - 1), keyframed.getRevision(2L, DEPTH).getContent());
+        assertEquals(contents.get(DEPTH - 1), chained.getRevision(3L, DEPTH).getContent());
+
+        long fullSize = contents.stream().mapToLong(String::length).sum();
+        logger.info("revision {} rebuild: keyframe every 10={} us, single keyframe={} us",
+                DEPTH, Math.round(keyframedMicros), Math.round(chainedMicros));
+        logger.info("stored: keyframe every 10={} chars, single keyframe={} chars, full copies={} chars",
+                storedSize(2L), storedSize(3L), fullSize);
+        // Keyframes bound the deltas replayed to fewer than 10 instead of 99
+        assertTrue(keyframedMicros < chainedMicros, "keyframed " + keyframedMicros + " us vs chained " + chainedMicros + " us");
+        assertTrue(storedSize(3L) < storedSize(2L));
+    }
+
+    /**
+     * Record DEPTH revisions of a snippet, each a few line edits away from the last
+     */
+    private List<String> recordHistory(SnippetRevisionService service, Long snippetId) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add("    int value" + i + " = compute(" + i + ");");
+        }
+        List<String> contents = new ArrayList<>();
+        String content = String.join("\n", lines);
+        service.recordInitial(snippetId, content);
+        contents.add(content);
+        for (int revision = 2; revision <= DEPTH; revision++) {
+            for (int edit = 0; edit < 3; edit++) {
+                int at = random.nextInt(lines.size());
+                if (random.nextBoolean()) {
+                    lines.set(at, "    // revised in " + revision);
+                } else {
+                    lines.add(at, "    log(" + revision + ");");
+                }
+            }
+            String previous = content;
+            content = String.join("\n", lines);
+            service.recordChange(snippetId, previous, content);
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    private static double rebuildMicros(SnippetRevisionService service, Long snippetId) {
+        for (int i = 0; i < WARMUP; i++) {
+            service.getRevision(snippetId, DEPTH);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            service.getRevision(snippetId, DEPTH);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+
+    private long storedSize(Long snippetId) {
+        return revisionRepository.findBySnippetIdAndRevisionBetweenOrderByRevisionAsc(snippetId, 1, DEPTH).stream()
+                .map(SnippetRevision::getPayload)
+                .mapToLong(String::length)
+                .sum();
+    }
+}
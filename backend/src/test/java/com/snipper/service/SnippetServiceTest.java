@@ -1,29 +1,49 @@
 package com.snipper.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.cache.ResponseCache;
+import com.snipper.config.CacheProperties;
 import com.snipper.dto.snippet.CreateSnippetRequest;
+import com.snipper.dto.snippet.PatchSnippetRequest;
 import com.snipper.dto.snippet.SnippetResponse;
+import com.snipper.dto.snippet.SnippetRevisionResponse;
+import com.snipper.dto.snippet.SnippetSummaryResponse;
 import com.snipper.dto.snippet.UpdateSnippetRequest;
+import com.snipper.exception.PreconditionFailedException;
 import com.snipper.exception.ResourceNotFoundException;
 import com.snipper.exception.UnauthorizedException;
+import com.snipper.exception.ValidationException;
 import com.snipper.model.Snippet;
 import com.snipper.model.User;
 import com.snipper.model.VisibilityType;
 import com.snipper.repository.SnippetRepository;
 import com.snipper.repository.UserRepository;
+import com.snipper.security.CurrentUserResolver;
+import com.snipper.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,6 +58,36 @@ class SnippetServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UniqueViewerService uniqueViewerService;
+
+    @Mock
+    private ViewAnalyticsService viewAnalyticsService;
+
+    @Mock
+    private ViewCounterService viewCounterService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private SnippetRevisionService revisionService;
+
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(5_000);
+
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Spy
+    private ResponseCache responseCache = new ResponseCache(disabledCache(), null, new ObjectMapper(), new SimpleMeterRegistry());
+
     @InjectMocks
     private SnippetService snippetService;
 
@@ -87,6 +137,9 @@ class SnippetServiceTest {
         updateRequest.setLanguage("python");
         updateRequest.setTags("test,python,updated");
         updateRequest.setVisibility(VisibilityType.PRIVATE);
+
+        lenient().when(currentUserResolver.usernameOf(any(User.class)))
+                .thenAnswer(invocation -> invocation.<User>getArgument(0).getUsername());
     }
 
     @Test
@@ -105,6 +158,22 @@ class SnippetServiceTest {
         assertEquals(testSnippet.getAuthor().getUsername(), response.getAuthorUsername());
         verify(userRepository).findByUsername("testuser");
         verify(snippetRepository).save(any(Snippet.class));
+        verify(revisionService).recordInitial(testSnippet.getId(), testSnippet.getContent());
+        verify(cacheInvalidationService).snippetChanged(testSnippet.getId(), testSnippet.getVersion());
+    }
+
+    @Test
+    void createSnippet_ReusesAuthenticatedPrincipal() {
+        // Given
+        when(currentUserResolver.referenceFor("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.save(any(Snippet.class))).thenReturn(testSnippet);
+
+        // When
+        SnippetResponse response = snippetService.createSnippet(createRequest, "testuser");
+
+        // Then
+        assertNotNull(response);
+        verify(userRepository, never()).findByUsername(anyString());
     }
 
     @Test
@@ -132,7 +201,7 @@ class SnippetServiceTest {
         assertEquals(testSnippet.getId(), response.getId());
         assertEquals(testSnippet.getTitle(), response.getTitle());
         verify(snippetRepository).findById(1L);
-        verify(snippetRepository, never()).incrementViewCount(1L); // Owner doesn't increment view count
+        verify(viewCounterService, never()).increment(1L); // Owner doesn't increment view count
     }
 
     @Test
@@ -147,7 +216,7 @@ class SnippetServiceTest {
         assertNotNull(response);
         assertEquals(testSnippet.getId(), response.getId());
         verify(snippetRepository).findById(1L);
-        verify(snippetRepository).incrementViewCount(1L); // Non-owner increments view count
+        verify(viewCounterService).increment(1L); // Non-owner increments view count
     }
 
     @Test
@@ -160,7 +229,7 @@ class SnippetServiceTest {
         assertThrows(UnauthorizedException.class, 
             () -> snippetService.getSnippetById(1L, "otheruser"));
         verify(snippetRepository).findById(1L);
-        verify(snippetRepository, never()).incrementViewCount(1L);
+        verify(viewCounterService, never()).increment(1L);
     }
 
     @Test
@@ -186,7 +255,40 @@ class SnippetServiceTest {
         assertNotNull(response);
         assertEquals(testSnippet.getId(), response.getId());
         verify(snippetRepository).findPublicOrUnlistedById(1L);
-        verify(snippetRepository).incrementViewCount(1L);
+        verify(viewCounterService).increment(1L);
+    }
+
+    @Test
+    void getPublicSnippetById_RecordsUniqueViewer() {
+        // Given
+        when(snippetRepository.findPublicOrUnlistedById(1L)).thenReturn(Optional.of(testSnippet));
+        when(uniqueViewerService.getUniqueViewers(1L)).thenReturn(7L);
+
+        // When
+        SnippetResponse response = snippetService.getPublicSnippetById(1L, "ip:abc");
+
+        // Then
+        assertEquals(7L, response.getUniqueViewers());
+        verify(uniqueViewerService).recordViewer(1L, "ip:abc");
+    }
+
+    @Test
+    void getPublicSnippetById_ReportsLiveViewCountOverCachedSnippet() {
+        // Given
+        SnippetResponse cached = new SnippetResponse(1L, "Test Snippet", null, "content", "javascript", null,
+                VisibilityType.PUBLIC, 5L, LocalDateTime.now(), LocalDateTime.now(), "testuser", 1L);
+        doReturn(cached).when(responseCache).getSnippet(eq(1L), any());
+        when(viewCounterService.getViewCount(1L)).thenReturn(42L);
+
+        // When
+        SnippetResponse response = snippetService.getPublicSnippetById(1L, "ip:abc");
+
+        // Then
+        assertEquals(42L, response.getViewCount());
+        assertEquals("Test Snippet", response.getTitle());
+        assertEquals(5L, cached.getViewCount()); // The shared cached response is left alone
+        verify(viewCounterService).increment(1L);
+        verify(snippetRepository, never()).findPublicOrUnlistedById(anyLong());
     }
 
     @Test
@@ -198,6 +300,37 @@ class SnippetServiceTest {
         assertThrows(ResourceNotFoundException.class, 
             () -> snippetService.getPublicSnippetById(999L));
         verify(snippetRepository).findPublicOrUnlistedById(999L);
+        verify(viewCounterService, never()).increment(anyLong());
+    }
+
+    @Test
+    void getPublicSnippetById_SharesInFlightLoadButCountsEveryView() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(snippetRepository.findPublicOrUnlistedById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(testSnippet);
+        });
+        ExecutorService viewers = Executors.newFixedThreadPool(2);
+
+        // When
+        Future<SnippetResponse> first = viewers.submit(() -> snippetService.getPublicSnippetById(1L, "ip:a"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<SnippetResponse> second = viewers.submit(() -> snippetService.getPublicSnippetById(1L, "ip:b"));
+        while (singleFlight.getCoalescedCount() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(first.get(5, TimeUnit.SECONDS).getId(), second.get(5, TimeUnit.SECONDS).getId());
+        viewers.shutdown();
+        verify(snippetRepository, times(1)).findPublicOrUnlistedById(1L);
+        verify(viewCounterService, times(2)).increment(1L);
+        verify(uniqueViewerService).recordViewer(1L, "ip:a");
+        verify(uniqueViewerService).recordViewer(1L, "ip:b");
     }
 
     @Test
@@ -205,7 +338,7 @@ class SnippetServiceTest {
         // Given
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
-        when(snippetRepository.save(any(Snippet.class))).thenReturn(testSnippet);
+        when(snippetRepository.saveAndFlush(any(Snippet.class))).thenReturn(testSnippet);
 
         // When
         SnippetResponse response = snippetService.updateSnippet(1L, updateRequest, "testuser");
@@ -214,7 +347,55 @@ class SnippetServiceTest {
         assertNotNull(response);
         verify(userRepository).findByUsername("testuser");
         verify(snippetRepository).findByIdAndAuthor(1L, testUser);
-        verify(snippetRepository).save(testSnippet);
+        verify(snippetRepository).saveAndFlush(testSnippet);
+        verify(revisionService).recordChange(1L, "console.log('Hello World');", updateRequest.getContent());
+        verify(cacheInvalidationService).snippetChanged(1L, null);
+    }
+
+    @Test
+    void updateSnippet_MatchingVersion() {
+        // Given
+        testSnippet.setVersion(3L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+        when(snippetRepository.saveAndFlush(any(Snippet.class))).thenReturn(testSnippet);
+
+        // When
+        SnippetResponse response = snippetService.updateSnippet(1L, updateRequest, "testuser", Set.of(2L, 3L));
+
+        // Then
+        assertEquals(3L, response.getVersion());
+        verify(snippetRepository).saveAndFlush(testSnippet);
+    }
+
+    @Test
+    void updateSnippet_StaleVersion() {
+        // Given
+        testSnippet.setVersion(4L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class,
+            () -> snippetService.updateSnippet(1L, updateRequest, "testuser", Set.of(3L)));
+        assertEquals("Test Snippet", testSnippet.getTitle());
+        verify(snippetRepository, never()).saveAndFlush(any(Snippet.class));
+    }
+
+    @Test
+    void updateSnippet_ConcurrentUpdate() {
+        // Given
+        testSnippet.setVersion(3L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+        when(snippetRepository.saveAndFlush(any(Snippet.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Snippet.class, 1L));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class,
+            () -> snippetService.updateSnippet(1L, updateRequest, "testuser", Set.of(3L)));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+            () -> snippetService.updateSnippet(1L, updateRequest, "testuser"));
     }
 
     @Test
@@ -228,7 +409,84 @@ class SnippetServiceTest {
             () -> snippetService.updateSnippet(1L, updateRequest, "otheruser"));
         verify(userRepository).findByUsername("otheruser");
         verify(snippetRepository).findByIdAndAuthor(1L, otherUser);
-        verify(snippetRepository, never()).save(any(Snippet.class));
+        verify(snippetRepository, never()).saveAndFlush(any(Snippet.class));
+    }
+
+    @Test
+    void patchSnippet_ChangesOnlyPresentFields() {
+        // Given
+        PatchSnippetRequest patch = new PatchSnippetRequest();
+        patch.setVisibility(VisibilityType.PRIVATE);
+        patch.setTags(null);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+        when(snippetRepository.saveAndFlush(any(Snippet.class))).thenReturn(testSnippet);
+
+        // When
+        SnippetSummaryResponse response = snippetService.patchSnippet(1L, patch, "testuser", null);
+
+        // Then
+        assertEquals(VisibilityType.PRIVATE, response.getVisibility());
+        assertNull(testSnippet.getTags());
+        assertEquals("Test Snippet", testSnippet.getTitle());
+        assertEquals("console.log('Hello World');", testSnippet.getContent());
+        verify(userStatsService).recordSnippetUpdated(testSnippet, VisibilityType.PUBLIC, "javascript");
+        verify(revisionService, never()).recordChange(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void getSnippetRevision_NotOwner() {
+        // Given
+        when(userRepository.findByUsername("otheruser")).thenReturn(Optional.of(otherUser));
+        when(snippetRepository.findByIdAndAuthor(1L, otherUser)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> snippetService.getSnippetRevision(1L, 1, "otheruser"));
+        verify(revisionService, never()).getRevision(anyLong(), anyInt());
+    }
+
+    @Test
+    void restoreSnippetRevision_Success() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+        when(revisionService.getRevision(1L, 1))
+            .thenReturn(new SnippetRevisionResponse(1L, 1, "console.log('first');", LocalDateTime.now()));
+        when(snippetRepository.saveAndFlush(testSnippet)).thenReturn(testSnippet);
+
+        // When
+        SnippetResponse response = snippetService.restoreSnippetRevision(1L, 1, "testuser", null);
+
+        // Then
+        assertEquals("console.log('first');", response.getContent());
+        verify(revisionService).recordChange(1L, "console.log('Hello World');", "console.log('first');");
+    }
+
+    @Test
+    void patchSnippet_CannotClearRequiredField() {
+        // Given
+        PatchSnippetRequest patch = new PatchSnippetRequest();
+        patch.setTitle(null);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> snippetService.patchSnippet(1L, patch, "testuser", null));
+        verify(snippetRepository, never()).saveAndFlush(any(Snippet.class));
+    }
+
+    @Test
+    void patchSnippet_StaleVersion() {
+        // Given
+        testSnippet.setVersion(2L);
+        PatchSnippetRequest patch = new PatchSnippetRequest();
+        patch.setTitle("Renamed");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> snippetService.patchSnippet(1L, patch, "testuser", Set.of(1L)));
+        assertEquals("Test Snippet", testSnippet.getTitle());
     }
 
     @Test
@@ -244,6 +502,7 @@ class SnippetServiceTest {
         verify(userRepository).findByUsername("testuser");
         verify(snippetRepository).findByIdAndAuthor(1L, testUser);
         verify(snippetRepository).delete(testSnippet);
+        verify(cacheInvalidationService).snippetChanged(1L, null);
     }
 
     @Test
@@ -486,4 +745,10 @@ class SnippetServiceTest {
         verify(userRepository).findByUsername("nonexistent");
         verify(snippetRepository, never()).searchUserSnippetsWithFilters(any(), any(), any(), any(), any(), any());
     }
-}
\ No newline at end of file
+
+    private static CacheProperties disabledCache() {
+        CacheProperties properties = new CacheProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+}
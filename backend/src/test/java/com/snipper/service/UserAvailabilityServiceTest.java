@@ -0,0 +1,91 @@
+package com.snipper.service;
+
+import com.snipper.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAvailabilityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserAvailabilityService userAvailabilityService;
+
+    @BeforeEach
+    void setUp() {
+        userAvailabilityService = new UserAvailabilityService(userRepository, 1000, 0.01, 2);
+    }
+
+    @Test
+    void testFallsBackToDatabaseBeforeFirstLoad() {
+        when(userRepository.existsByUsername("alice")).thenReturn(true);
+
+        assertFalse(userAvailabilityService.isLoaded());
+        assertFalse(userAvailabilityService.isUsernameAvailable("alice"));
+    }
+
+    @Test
+    void testAbsentNamesAreAnsweredFromMemory() {
+        loadUsers();
+
+        assertTrue(userAvailabilityService.isUsernameAvailable("newcomer"));
+        assertTrue(userAvailabilityService.isEmailAvailable("newcomer@example.com"));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void testPossibleHitsAreConfirmedInDatabase() {
+        loadUsers();
+        when(userRepository.existsByUsername("Alice")).thenReturn(true);
+        when(userRepository.existsByEmail("carol@example.com")).thenReturn(true);
+
+        // Case-insensitive match in the filter, decided by the database collation
+        assertFalse(userAvailabilityService.isUsernameAvailable("Alice"));
+        assertFalse(userAvailabilityService.isEmailAvailable("carol@example.com"));
+    }
+
+    @Test
+    void testMarkTakenIsVisibleImmediately() {
+        loadUsers();
+        userAvailabilityService.markTaken("dave", "dave@example.com");
+        when(userRepository.existsByUsername("dave")).thenReturn(true);
+
+        assertFalse(userAvailabilityService.isUsernameAvailable("dave"));
+        verify(userRepository).existsByUsername("dave");
+    }
+
+    @Test
+    void testFailedRebuildKeepsFallback() {
+        when(userRepository.count()).thenThrow(new RuntimeException("database down"));
+
+        userAvailabilityService.rebuild();
+
+        assertFalse(userAvailabilityService.isLoaded());
+    }
+
+    private void loadUsers() {
+        when(userRepository.count()).thenReturn(3L);
+        when(userRepository.findLoginsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{1L, "alice", "alice@example.com"},
+                new Object[]{2L, "bob", "bob@example.com"}));
+        when(userRepository.findLoginsAfter(eq(2L), any(Pageable.class))).thenReturn(Collections.singletonList(
+                new Object[]{3L, "carol", "carol@example.com"}));
+
+        userAvailabilityService.rebuild();
+
+        assertTrue(userAvailabilityService.isLoaded());
+    }
+}
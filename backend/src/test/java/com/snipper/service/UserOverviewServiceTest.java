@@ -0,0 +1,145 @@
+package com.snipper.service;
+
+import com.snipper.dto.common.PagedResponse;
+import com.snipper.dto.snippet.SnippetSummaryResponse;
+import com.snipper.dto.user.UserOverviewResponse;
+import com.snipper.dto.user.UserProfileResponse;
+import com.snipper.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserOverviewServiceTest {
+
+    private static final long BRANCH_DELAY_MS = 200;
+
+    @Mock
+    private UserService userService;
+
+    private UserOverviewService userOverviewService;
+    private UserProfileResponse profile;
+    private PagedResponse<SnippetSummaryResponse> snippets;
+
+    @BeforeEach
+    void setUp() {
+        userOverviewService = new UserOverviewService(userService, mock(PlatformTransactionManager.class), 4, 10, 1_000);
+        LocalDateTime now = LocalDateTime.now();
+        profile = new UserProfileResponse(1L, "testuser", "test@example.com", "Test User", "Test bio", now, now);
+        snippets = new PagedResponse<>(Collections.emptyList(), 0, 10, 0, 0, true, true, false, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userOverviewService.destroy();
+    }
+
+    @Test
+    void getUserOverview_RunsBranchesConcurrently() {
+        when(userService.getUserProfile("testuser")).thenAnswer(delayed(profile, BRANCH_DELAY_MS));
+        when(userService.getPublicStatisticsByUsername("testuser"))
+                .thenAnswer(delayed(new UserOverviewResponse.PublicStatistics(3, 42), BRANCH_DELAY_MS));
+        when(userService.getPublicLanguagesByUsername("testuser"))
+                .thenAnswer(delayed(List.of("java", "python"), BRANCH_DELAY_MS));
+        when(userService.getPublicSnippetsByUsername("testuser", 0, 10)).thenAnswer(delayed(snippets, BRANCH_DELAY_MS));
+
+        long start = System.nanoTime();
+        UserOverviewResponse overview = userOverviewService.getUserOverview("testuser", 10);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(overview.isPartial());
+        assertSame(profile, overview.getProfile());
+        assertEquals(3, overview.getStatistics().getPublicSnippets());
+        assertEquals(42, overview.getStatistics().getTotalViews());
+        assertEquals(List.of("java", "python"), overview.getLanguages());
+        assertSame(snippets, overview.getSnippets());
+        // Four sequential branches would take 800ms
+        assertTrue(elapsedMs < 3 * BRANCH_DELAY_MS, "took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void getUserOverview_ReturnsPartialResult_WhenBranchTimesOut() {
+        when(userService.getUserProfile("testuser")).thenReturn(profile);
+        when(userService.getPublicStatisticsByUsername("testuser"))
+                .thenReturn(new UserOverviewResponse.PublicStatistics(3, 42));
+        when(userService.getPublicLanguagesByUsername("testuser")).thenAnswer(delayed(List.of("java"), 5_000));
+        when(userService.getPublicSnippetsByUsername("testuser", 0, 10)).thenReturn(snippets);
+
+        long start = System.nanoTime();
+        UserOverviewResponse overview = userOverviewService.getUserOverview("testuser", 10);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(overview.isPartial());
+        assertEquals(List.of("languages"), overview.getMissingSections());
+        assertNull(overview.getLanguages());
+        assertSame(profile, overview.getProfile());
+        assertSame(snippets, overview.getSnippets());
+        assertTrue(elapsedMs < 2_000, "took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void getUserOverview_InterruptsBranchThatTimesOut() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(userService.getUserProfile("testuser")).thenReturn(profile);
+        when(userService.getPublicStatisticsByUsername("testuser"))
+                .thenReturn(new UserOverviewResponse.PublicStatistics(3, 42));
+        when(userService.getPublicLanguagesByUsername("testuser")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of("java");
+        });
+        when(userService.getPublicSnippetsByUsername("testuser", 0, 10)).thenReturn(snippets);
+
+        userOverviewService.getUserOverview("testuser", 10);
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void getUserOverview_ReturnsPartialResult_WhenBranchFails() {
+        when(userService.getUserProfile("testuser")).thenReturn(profile);
+        when(userService.getPublicStatisticsByUsername("testuser")).thenThrow(new IllegalStateException("boom"));
+        when(userService.getPublicLanguagesByUsername("testuser")).thenReturn(List.of("java"));
+        when(userService.getPublicSnippetsByUsername("testuser", 0, 10)).thenReturn(snippets);
+
+        UserOverviewResponse overview = userOverviewService.getUserOverview("testuser", 10);
+
+        assertEquals(List.of("statistics"), overview.getMissingSections());
+        assertNull(overview.getStatistics());
+        assertEquals(List.of("java"), overview.getLanguages());
+    }
+
+    @Test
+    void getUserOverview_ThrowsNotFound_WhenUserDoesNotExist() {
+        when(userService.getUserProfile("nobody"))
+                .thenThrow(new ResourceNotFoundException("User not found with username: nobody"));
+        lenient().when(userService.getPublicSnippetsByUsername("nobody", 0, 10))
+                .thenThrow(new ResourceNotFoundException("User not found with username: nobody"));
+
+        assertThrows(ResourceNotFoundException.class, () -> userOverviewService.getUserOverview("nobody", 10));
+    }
+
+    private static <T> Answer<T> delayed(T value, long delayMs) {
+        return invocation -> {
+            Thread.sleep(delayMs);
+            return value;
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package com.snipper.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snipper.cache.ResponseCache;
+import com.snipper.config.CacheProperties;
 import com.snipper.dto.common.PagedResponse;
 import com.snipper.dto.snippet.SnippetSummaryResponse;
 import com.snipper.dto.user.UpdateProfileRequest;
@@ -9,15 +12,21 @@ import com.snipper.exception.ResourceNotFoundException;
 import com.snipper.exception.UnauthorizedException;
 import com.snipper.model.Snippet;
 import com.snipper.model.User;
+import com.snipper.model.UserStats;
 import com.snipper.model.VisibilityType;
 import com.snipper.repository.SnippetRepository;
 import com.snipper.repository.UserRepository;
+import com.snipper.security.CurrentUserResolver;
 import com.snipper.security.CustomUserPrincipal;
+import com.snipper.security.PrincipalCache;
+import com.snipper.security.TokenVersionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -45,6 +54,39 @@ class UserServiceTest {
     @Mock
     private SnippetRepository snippetRepository;
 
+    @Mock
+    private UniqueViewerService uniqueViewerService;
+
+    @Mock
+    private ViewAnalyticsService viewAnalyticsService;
+
+    @Mock
+    private ViewCounterService viewCounterService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private SnippetRevisionService revisionService;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Mock
+    private UserAvailabilityService userAvailabilityService;
+
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Spy
+    private ResponseCache responseCache = new ResponseCache(disabledCache(), null, new ObjectMapper(), new SimpleMeterRegistry());
+
     @Mock
     private SecurityContext securityContext;
 
@@ -86,6 +128,8 @@ class UserServiceTest {
 
         // Mock security context - will be configured per test as needed
         SecurityContextHolder.setContext(securityContext);
+        lenient().when(currentUserResolver.usernameOf(any(User.class)))
+                .thenAnswer(invocation -> invocation.<User>getArgument(0).getUsername());
     }
 
     @Test
@@ -179,7 +223,10 @@ class UserServiceTest {
         assertNotNull(result);
         verify(userRepository).existsByUsernameAndIdNot("newusername", 1L);
         verify(userRepository).save(testUser);
+        verify(userAvailabilityService).markTaken("newusername", testUser.getEmail());
         assertEquals("newusername", testUser.getUsername());
+        verify(cacheInvalidationService).userChanged(1L, "testuser");
+        verify(snippetRepository).findIdsByAuthorId(1L);
     }
 
     @Test
@@ -264,6 +311,24 @@ class UserServiceTest {
         assertEquals("New bio", testUser.getBio());
     }
 
+    @Test
+    void updateProfile_ShouldEvictCachedPrincipal() {
+        // Given
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+        UpdateProfileRequest request = new UpdateProfileRequest();
+        request.setBio("Changed bio");
+
+        // When
+        userService.updateProfile(request);
+
+        // Then
+        verify(principalCache).evict(1L);
+    }
+
     @Test
     void getUserDashboard_ShouldReturnDashboardWithStatistics() {
         // Given
@@ -299,12 +364,41 @@ class UserServiceTest {
     }
 
     @Test
-    void getUserSnippets_ShouldReturnPagedSnippets() {
+    void getUserDashboard_ShouldReadMaterializedStats_WhenAvailable() {
         // Given
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
         when(authentication.getPrincipal()).thenReturn(userPrincipal);
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        UserStats stats = new UserStats(1L);
+        stats.adjustSnippet(VisibilityType.PUBLIC, "python", 1);
+        stats.adjustSnippet(VisibilityType.PRIVATE, "java", 1);
+        stats.setTotalViews(42L);
+        stats.setUniqueViewers(7L);
+        when(userStatsService.getStats(1L)).thenReturn(Optional.of(stats));
+
+        // When
+        UserDashboardResponse result = userService.getUserDashboard();
+
+        // Then
+        assertEquals(2L, result.getStatistics().getTotalSnippets());
+        assertEquals(1L, result.getStatistics().getPublicSnippets());
+        assertEquals(1L, result.getStatistics().getPrivateSnippets());
+        assertEquals(42L, result.getStatistics().getTotalViews());
+        assertEquals(7L, result.getStatistics().getUniqueViewers());
+        assertEquals(Arrays.asList("java", "python"), result.getRecentLanguages());
+
+        verify(snippetRepository, never()).getSnippetStatisticsByAuthor(any());
+        verify(snippetRepository, never()).findDistinctLanguagesByAuthor(any());
+    }
+
+    @Test
+    void getUserSnippets_ShouldReturnPagedSnippets() {
+        // Given
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         
         List<Snippet> snippets = Arrays.asList(testSnippet);
         Page<Snippet> snippetPage = new PageImpl<>(snippets, PageRequest.of(0, 10), 1);
@@ -329,7 +423,7 @@ class UserServiceTest {
         assertEquals(testSnippet.getTitle(), snippetSummary.getTitle());
         assertEquals(testSnippet.getLanguage(), snippetSummary.getLanguage());
 
-        verify(userRepository).findById(1L);
+        verify(userRepository).getReferenceById(1L);
         verify(snippetRepository).findByAuthorOrderByCreatedAtDesc(eq(testUser), any(Pageable.class));
     }
 
@@ -339,7 +433,7 @@ class UserServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
         when(authentication.getPrincipal()).thenReturn(userPrincipal);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         
         List<Snippet> snippets = Arrays.asList(testSnippet);
         Page<Snippet> snippetPage = new PageImpl<>(snippets, PageRequest.of(0, 10), 1);
@@ -387,16 +481,18 @@ class UserServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
         when(authentication.getPrincipal()).thenReturn(userPrincipal);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.of(testSnippet));
 
         // When
         userService.deleteUserSnippet(1L);
 
         // Then
-        verify(userRepository).findById(1L);
+        verify(userRepository).getReferenceById(1L);
         verify(snippetRepository).findByIdAndAuthor(1L, testUser);
         verify(snippetRepository).delete(testSnippet);
+        verify(viewCounterService).deleteShards(1L);
+        verify(revisionService).deleteRevisions(1L);
     }
 
     @Test
@@ -405,13 +501,19 @@ class UserServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
         when(authentication.getPrincipal()).thenReturn(userPrincipal);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         when(snippetRepository.findByIdAndAuthor(1L, testUser)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> userService.deleteUserSnippet(1L));
-        verify(userRepository).findById(1L);
+        verify(userRepository).getReferenceById(1L);
         verify(snippetRepository).findByIdAndAuthor(1L, testUser);
         verify(snippetRepository, never()).delete(any(Snippet.class));
     }
-}
\ No newline at end of file
+
+    private static CacheProperties disabledCache() {
+        CacheProperties properties = new CacheProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+}
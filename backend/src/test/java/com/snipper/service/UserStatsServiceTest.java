@@ -0,0 +1,157 @@
+package com.snipper.service;
+
+import com.snipper.model.Snippet;
+import com.snipper.model.User;
+import com.snipper.model.UserStats;
+import com.snipper.model.VisibilityType;
+import com.snipper.repository.SnippetRepository;
+import com.snipper.repository.SnippetUniqueViewersRepository;
+import com.snipper.repository.UserRepository;
+import com.snipper.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTest {
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SnippetRepository snippetRepository;
+
+    @Mock
+    private SnippetUniqueViewersRepository uniqueViewersRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserStatsService userStatsService;
+    private User testUser;
+    private Snippet testSnippet;
+    private UserStats stats;
+
+    @BeforeEach
+    void setUp() {
+        userStatsService = new UserStatsService(userStatsRepository, userRepository, snippetRepository,
+                uniqueViewersRepository, transactionManager, 500);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        testSnippet = new Snippet();
+        testSnippet.setId(10L);
+        testSnippet.setLanguage("java");
+        testSnippet.setVisibility(VisibilityType.PUBLIC);
+        testSnippet.setAuthor(testUser);
+        testSnippet.setViewCount(5L);
+
+        stats = new UserStats(1L);
+    }
+
+    @Test
+    void recordUserCreated_SavesEmptyRow() {
+        userStatsService.recordUserCreated(1L);
+
+        verify(userStatsRepository).save(argThat(saved -> saved.getUserId().equals(1L)
+                && saved.getTotalSnippets() == 0 && saved.getLanguageCounts().isEmpty()));
+    }
+
+    @Test
+    void recordSnippetCreated_IncrementsCountsAndLanguage() {
+        when(userStatsRepository.findForUpdate(1L)).thenReturn(Optional.of(stats));
+
+        userStatsService.recordSnippetCreated(testSnippet);
+
+        assertEquals(1L, stats.getTotalSnippets());
+        assertEquals(1L, stats.getPublicSnippets());
+        assertEquals(Map.of("java", 1L), stats.getLanguageCounts());
+        assertNotNull(stats.getLastActivity());
+        verify(userStatsRepository).save(stats);
+    }
+
+    @Test
+    void recordSnippetUpdated_MovesBetweenVisibilityAndLanguage() {
+        stats.adjustSnippet(VisibilityType.PUBLIC, "java", 1);
+        when(userStatsRepository.findForUpdate(1L)).thenReturn(Optional.of(stats));
+        testSnippet.setVisibility(VisibilityType.PRIVATE);
+        testSnippet.setLanguage("python");
+
+        userStatsService.recordSnippetUpdated(testSnippet, VisibilityType.PUBLIC, "java");
+
+        assertEquals(1L, stats.getTotalSnippets());
+        assertEquals(0L, stats.getPublicSnippets());
+        assertEquals(1L, stats.getPrivateSnippets());
+        assertEquals(Map.of("python", 1L), stats.getLanguageCounts());
+    }
+
+    @Test
+    void recordSnippetDeleted_SubtractsViewsAndUniqueViewers() {
+        stats.adjustSnippet(VisibilityType.PUBLIC, "java", 1);
+        stats.setTotalViews(5L);
+        stats.setUniqueViewers(3L);
+        when(userStatsRepository.findForUpdate(1L)).thenReturn(Optional.of(stats));
+        when(uniqueViewersRepository.findUniqueViewersBySnippetId(10L)).thenReturn(Optional.of(3L));
+
+        userStatsService.recordSnippetDeleted(testSnippet);
+
+        assertEquals(0L, stats.getTotalSnippets());
+        assertEquals(0L, stats.getTotalViews());
+        assertEquals(0L, stats.getUniqueViewers());
+        assertTrue(stats.getLanguageCounts().isEmpty());
+    }
+
+    @Test
+    void recordSnippetCreated_SkipsUsersWithoutStatsRow() {
+        when(userStatsRepository.findForUpdate(1L)).thenReturn(Optional.empty());
+
+        userStatsService.recordSnippetCreated(testSnippet);
+
+        verify(userStatsRepository, never()).save(any());
+    }
+
+    @Test
+    void recordViews_AddsToAuthorTotal() {
+        when(snippetRepository.findAuthorIdById(10L)).thenReturn(Optional.of(1L));
+
+        userStatsService.recordViews(10L, 12L);
+
+        verify(userStatsRepository).addViews(1L, 12L);
+    }
+
+    @Test
+    void reconcile_RebuildsMissingRowFromSnippets() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userStatsRepository.findForUpdate(1L)).thenReturn(Optional.empty());
+        when(snippetRepository.getSnippetStatisticsByAuthor(testUser)).thenReturn(new Object[]{3L, 2L, 1L, 0L, 40L});
+        when(snippetRepository.countSnippetsByLanguageForAuthor(testUser))
+                .thenReturn(Arrays.asList(new Object[]{"java", 2L}, new Object[]{"go", 1L}));
+        when(uniqueViewersRepository.sumUniqueViewersByAuthorId(1L)).thenReturn(9L);
+
+        assertTrue(userStatsService.reconcile(1L));
+
+        verify(userStatsRepository).save(argThat(saved ->
+                saved.getTotalSnippets() == 3L
+                        && saved.getPublicSnippets() == 2L
+                        && saved.getTotalViews() == 40L
+                        && saved.getUniqueViewers() == 9L
+                        && saved.getLanguageCounts().equals(Map.of("java", 2L, "go", 1L))));
+    }
+}
@@ -0,0 +1,109 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimitTest {
+
+    private static final long TARGET = 100_000_000L;
+
+    @Test
+    void testRejectsBeyondLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 0.5, TARGET);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    void testGrowsOnFastResponsesUnderLoad() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 3, 0.5, TARGET);
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        limit.release(TARGET / 2, false);
+        assertEquals(3, limit.getLimit());
+        limit.release(TARGET / 2, false);
+
+        // Capped at the maximum
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(TARGET / 2, false);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void testDoesNotGrowWhileMostlyIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 1, 20, 0.5, TARGET);
+        limit.tryAcquire();
+
+        limit.release(TARGET / 2, false);
+
+        assertEquals(8, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testBacksOffOnSlowOrFailedResponses() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 2, 20, 0.5, TARGET);
+
+        limit.tryAcquire();
+        limit.release(TARGET * 2, false);
+        assertEquals(4, limit.getLimit());
+
+        limit.tryAcquire();
+        limit.release(TARGET / 2, true);
+        assertEquals(2, limit.getLimit());
+
+        // Never below the minimum
+        limit.tryAcquire();
+        limit.release(TARGET * 2, false);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(1, 0, 10, 0.5, TARGET));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(1, 5, 4, 0.5, TARGET));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(1, 1, 4, 1.0, TARGET));
+    }
+
+    @Test
+    void testConcurrentAcquiresNeverExceedLimit() throws Exception {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 4, 4, 0.5, TARGET);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger active = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    if (limit.tryAcquire()) {
+                        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        active.decrementAndGet();
+                        limit.release(0, false);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertTrue(peak.get() <= 4);
+        assertEquals(0, limit.getInFlight());
+    }
+}
@@ -0,0 +1,38 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    @Test
+    void testCountsUpToFifteen() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(5, sketch.frequency("key"));
+
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(15, sketch.frequency("key"));
+        assertEquals(0, sketch.frequency("unseen"));
+    }
+
+    @Test
+    void testAgingHalvesCounts() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+
+        // Enough other keys to reach the sample size of ten times the width
+        for (int i = 0; i < 10 * 128; i++) {
+            sketch.increment("other-" + i);
+        }
+        assertTrue(sketch.frequency("hot") < 15, "frequency: " + sketch.frequency("hot"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEmptySketch() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0L, sketch.cardinality());
+        assertTrue(sketch.isSparse());
+    }
+
+    @Test
+    void testDuplicatesAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer("u:42");
+        }
+        assertEquals(1L, sketch.cardinality());
+    }
+
+    @Test
+    void testSmallCardinalityIsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.offer("u:" + i);
+        }
+        assertTrue(sketch.isSparse());
+        assertEquals(100L, sketch.cardinality(), 2);
+    }
+
+    @Test
+    void testLargeCardinalityWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 200_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.offer("ip:" + i);
+        }
+        assertFalse(sketch.isSparse());
+        // 1.6% standard error; allow three standard deviations
+        assertEquals(distinct, sketch.cardinality(), distinct * 0.05);
+    }
+
+    @Test
+    void testSparseSerializationRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50; i++) {
+            sketch.offer("u:" + i);
+        }
+        byte[] bytes = sketch.toBytes();
+        assertTrue(bytes.length < 200);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        assertTrue(restored.isSparse());
+        assertEquals(sketch.cardinality(), restored.cardinality());
+    }
+
+    @Test
+    void testDenseSerializationRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            sketch.offer("u:" + i);
+        }
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertFalse(restored.isSparse());
+        assertEquals(sketch.cardinality(), restored.cardinality());
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+    }
+
+    @Test
+    void testMergeCountsUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 3000; i++) {
+            first.offer("u:" + i);
+        }
+        for (int i = 2000; i < 5000; i++) {
+            second.offer("u:" + i);
+        }
+        first.merge(second);
+        assertEquals(5000L, first.cardinality(), 5000 * 0.05);
+    }
+
+    @Test
+    void testFromBytesRejectsUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{9, 0, 0}));
+    }
+}
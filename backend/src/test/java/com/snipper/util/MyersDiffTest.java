@@ -0,0 +1,93 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyersDiffTest {
+
+    @Test
+    void testDeltaReproducesTarget() {
+        String source = "function a() {\n  return 1;\n}\n";
+        String target = "function a() {\n  // one\n  return 1;\n}\n\nfunction b() {}\n";
+
+        String delta = MyersDiff.diff(source, target, 100);
+
+        assertEquals(target, MyersDiff.apply(source, delta));
+    }
+
+    @Test
+    void testDeltaOfSmallEditIsSmall() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            source.append("line ").append(i).append('\n');
+        }
+        String target = source.toString().replace("line 250\n", "line 250 changed\n");
+
+        String delta = MyersDiff.diff(source.toString(), target, 100);
+
+        assertEquals("=250\n-1\n+1\nline 250 changed\n=250", delta);
+        assertEquals(target, MyersDiff.apply(source.toString(), delta));
+    }
+
+    @Test
+    void testEdgeCases() {
+        assertRoundTrip("", "");
+        assertRoundTrip("", "a\nb");
+        assertRoundTrip("a\nb", "");
+        assertRoundTrip("a\nb", "a\nb\n");
+        assertRoundTrip("a\r\nb\r\n", "a\r\nc\r\n");
+        // Inserted lines that look like delta tokens
+        assertRoundTrip("x", "=1\n+2\n-3\nx");
+    }
+
+    @Test
+    void testRandomEditsRoundTrip() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> lines = randomLines(random, random.nextInt(40));
+            String source = String.join("\n", lines);
+            for (int edit = random.nextInt(8); edit >= 0; edit--) {
+                int at = lines.isEmpty() ? 0 : random.nextInt(lines.size());
+                switch (random.nextInt(3)) {
+                    case 0 -> lines.add(at, "new " + random.nextInt(5));
+                    case 1 -> { if (!lines.isEmpty()) lines.remove(at); }
+                    default -> { if (!lines.isEmpty()) lines.set(at, "changed " + random.nextInt(5)); }
+                }
+            }
+            assertRoundTrip(source, String.join("\n", lines));
+        }
+    }
+
+    @Test
+    void testGivesUpBeyondMaxEdits() {
+        assertNull(MyersDiff.diff("a\nb\nc", "x\ny\nz", 5));
+        assertNotNull(MyersDiff.diff("a\nb\nc", "x\ny\nz", 6));
+    }
+
+    @Test
+    void testApplyRejectsDeltaForOtherSource() {
+        String delta = MyersDiff.diff("a\nb\nc", "a\nc", 10);
+
+        assertThrows(IllegalArgumentException.class, () -> MyersDiff.apply("a", delta));
+        assertThrows(IllegalArgumentException.class, () -> MyersDiff.apply("a", "?1"));
+        assertThrows(IllegalArgumentException.class, () -> MyersDiff.apply("a", "+2\nb"));
+    }
+
+    private static void assertRoundTrip(String source, String target) {
+        String delta = MyersDiff.diff(source, target, Integer.MAX_VALUE);
+        assertEquals(target, MyersDiff.apply(source, delta));
+    }
+
+    private static List<String> randomLines(Random random, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + random.nextInt(6));
+        }
+        return lines;
+    }
+}
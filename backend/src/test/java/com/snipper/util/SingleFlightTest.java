@@ -0,0 +1,138 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private ExecutorService callers;
+
+    @AfterEach
+    void tearDown() {
+        if (callers != null) {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(5_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 16;
+        callers = Executors.newFixedThreadPool(threads);
+
+        Future<String> leader = callers.submit(() -> singleFlight.execute("snippet:1", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+        while (singleFlight.size() < 1) {
+            Thread.onSpinWait();
+        }
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            followers.add(callers.submit(() -> singleFlight.execute("snippet:1", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        while (singleFlight.getCoalescedCount() < threads - 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testSequentialCallsLoadAgain() {
+        SingleFlight singleFlight = new SingleFlight(5_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("recent:0:20", loads::incrementAndGet));
+        assertEquals(2, singleFlight.execute("recent:0:20", loads::incrementAndGet));
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void testDifferentKeysLoadIndependently() {
+        SingleFlight singleFlight = new SingleFlight(5_000);
+
+        String outer = singleFlight.execute("snippet:1", () -> "a" + singleFlight.execute("snippet:2", () -> "b"));
+
+        assertEquals("ab", outer);
+    }
+
+    @Test
+    void testFollowersReceiveLeadersException() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(5_000);
+        CountDownLatch release = new CountDownLatch(1);
+        callers = Executors.newFixedThreadPool(2);
+
+        Future<String> leader = callers.submit(() -> singleFlight.execute("snippet:404", () -> {
+            await(release);
+            throw new IllegalArgumentException("not found");
+        }));
+        while (singleFlight.size() < 1) {
+            Thread.onSpinWait();
+        }
+        Future<String> follower = callers.submit(() -> singleFlight.execute("snippet:404", () -> "loaded"));
+        while (singleFlight.getCoalescedCount() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, leaderError.getCause());
+        assertInstanceOf(IllegalArgumentException.class, followerError.getCause());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testFollowerLoadsItselfAfterTimeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(100);
+        CountDownLatch release = new CountDownLatch(1);
+        callers = Executors.newFixedThreadPool(1);
+
+        callers.submit(() -> singleFlight.execute("popular:views:0:20", () -> {
+            await(release);
+            return "slow";
+        }));
+        while (singleFlight.size() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Joins the slow load, gives up after the timeout and loads on its own
+        assertEquals("fast", singleFlight.execute("popular:views:0:20", () -> "fast"));
+        // The slow load is now too old to join at all
+        assertEquals("fresh", singleFlight.execute("popular:views:0:20", () -> "fresh"));
+        assertEquals(1, singleFlight.getCoalescedCount());
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
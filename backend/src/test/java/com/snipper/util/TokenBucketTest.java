@@ -0,0 +1,76 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testConsumesUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertFalse(bucket.tryConsume(0));
+        assertEquals(3, bucket.drainConsumed());
+        assertEquals(0, bucket.drainConsumed());
+    }
+
+    @Test
+    void testRefillsOverTimeUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertEquals(SECOND / 2, bucket.nanosUntilAvailable(0));
+        assertEquals(SECOND, bucket.nanosUntilFull(0));
+        assertTrue(bucket.tryConsume(SECOND / 2));
+        assertEquals(2, bucket.getTokens(10 * SECOND), 1e-9);
+    }
+
+    @Test
+    void testLimitTokensNeverRaises() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        bucket.limitTokens(4, 0);
+        assertEquals(4, bucket.getTokens(0), 1e-9);
+
+        bucket.limitTokens(8, 0);
+        assertEquals(4, bucket.getTokens(0), 1e-9);
+    }
+
+    @Test
+    void testConcurrentConsumersNeverOverdraw() throws Exception {
+        TokenBucket bucket = new TokenBucket(1000, 0.001, System.nanoTime());
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryConsume(System.nanoTime())) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // A few tokens may trickle in during the run at 0.001/s, never a whole one
+        assertEquals(1000, granted.get());
+    }
+}
@@ -0,0 +1,42 @@
+package com.snipper.util;
+
+import com.snipper.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionETagsTest {
+
+    @Test
+    void testETagRoundTrips() {
+        assertEquals("\"7\"", VersionETags.of(7L));
+        assertEquals(Set.of(7L), VersionETags.parseIfMatch(VersionETags.of(7L)));
+    }
+
+    @Test
+    void testParseIfMatchAcceptsUnquotedTags() {
+        assertEquals(Set.of(2L), VersionETags.parseIfMatch(" 2 "));
+    }
+
+    @Test
+    void testParseIfMatchAcceptsEveryStrongTagInList() {
+        assertEquals(Set.of(1L, 2L), VersionETags.parseIfMatch("\"1\", \"2\""));
+        assertEquals(Set.of(3L), VersionETags.parseIfMatch("\"abc\", W/\"2\", \"3\""));
+    }
+
+    @Test
+    void testParseIfMatchWithoutVersion() {
+        assertNull(VersionETags.parseIfMatch(null));
+        assertNull(VersionETags.parseIfMatch(""));
+        assertNull(VersionETags.parseIfMatch("*"));
+    }
+
+    @Test
+    void testParseIfMatchRejectsForeignTags() {
+        assertThrows(PreconditionFailedException.class, () -> VersionETags.parseIfMatch("\"abc\""));
+        // If-Match compares strongly, so a weak tag never matches
+        assertThrows(PreconditionFailedException.class, () -> VersionETags.parseIfMatch("W/\"2\""));
+    }
+}
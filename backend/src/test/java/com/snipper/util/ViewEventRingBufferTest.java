@@ -0,0 +1,95 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewEventRingBufferTest {
+
+    @Test
+    void testCapacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new ViewEventRingBuffer(5).capacity());
+        assertEquals(8, new ViewEventRingBuffer(8).capacity());
+    }
+
+    @Test
+    void testDrainReturnsEventsInOrder() {
+        ViewEventRingBuffer buffer = new ViewEventRingBuffer(8);
+        buffer.offer(1L, 100L);
+        buffer.offer(2L, 200L);
+        buffer.offer(3L, 300L);
+        assertEquals(3, buffer.size());
+
+        List<long[]> events = new ArrayList<>();
+        int drained = buffer.drain((snippetId, timestamp) -> events.add(new long[]{snippetId, timestamp}));
+
+        assertEquals(3, drained);
+        assertArrayEquals(new long[]{1L, 100L}, events.get(0));
+        assertArrayEquals(new long[]{3L, 300L}, events.get(2));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testFullBufferDropsAndCounts() {
+        ViewEventRingBuffer buffer = new ViewEventRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i, i));
+        }
+        assertFalse(buffer.offer(99L, 99L));
+        assertEquals(1L, buffer.getDroppedCount());
+
+        buffer.drain((snippetId, timestamp) -> { });
+        assertTrue(buffer.offer(5L, 5L));
+    }
+
+    @Test
+    void testWrapsAroundAcrossManyLaps() {
+        ViewEventRingBuffer buffer = new ViewEventRingBuffer(4);
+        AtomicLong sum = new AtomicLong();
+        for (int lap = 0; lap < 100; lap++) {
+            buffer.offer(lap, 0L);
+            buffer.offer(lap, 0L);
+            buffer.drain((snippetId, timestamp) -> sum.addAndGet(snippetId));
+        }
+        assertEquals(2L * (99 * 100 / 2), sum.get());
+    }
+
+    @Test
+    void testConcurrentProducersLoseNoAcceptedEvents() throws InterruptedException {
+        ViewEventRingBuffer buffer = new ViewEventRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        AtomicLong accepted = new AtomicLong();
+        for (int p = 0; p < producers; p++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(1L, i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        AtomicLong consumed = new AtomicLong();
+        while (done.getCount() > 0) {
+            buffer.drain((snippetId, timestamp) -> consumed.incrementAndGet());
+        }
+        buffer.drain((snippetId, timestamp) -> consumed.incrementAndGet());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(accepted.get(), consumed.get());
+        assertEquals((long) producers * perProducer, accepted.get() + buffer.getDroppedCount());
+    }
+}
@@ -0,0 +1,104 @@
+package com.snipper.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WTinyLfuCacheTest {
+
+    @Test
+    void testGetAndInvalidate() {
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, 100, value -> 1, 60_000);
+        cache.put("a", "1");
+
+        assertEquals("1", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.invalidate("a");
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    void testStaysWithinMaximumWeight() {
+        WTinyLfuCache<Integer, String> cache = new WTinyLfuCache<>(1_000, 100, String::length, 60_000);
+        for (int i = 0; i < 500; i++) {
+            cache.put(i, "x".repeat(10 + i % 20));
+        }
+
+        assertTrue(cache.weightedSize() <= 1_000, "weight: " + cache.weightedSize());
+        assertTrue(cache.getEvictionCount() > 0);
+        // Too heavy to keep at all
+        cache.put(-1, "x".repeat(1_001));
+        assertNull(cache.getIfPresent(-1));
+    }
+
+    @Test
+    void testFrequentlyReadEntriesSurviveScan() {
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, 100, value -> 1, 60_000);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, "v");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.getIfPresent("hot-" + i);
+            }
+        }
+
+        // A burst of one-off keys, twice the capacity, must not flush the hot set
+        for (int i = 0; i < 200; i++) {
+            cache.put("scan-" + i, "v");
+        }
+
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.getIfPresent("hot-" + i) != null) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 45, "hot entries retained: " + retained);
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    void testInvalidateAll() {
+        WTinyLfuCache<Integer, String> cache = new WTinyLfuCache<>(100, 100, value -> 1, 60_000);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "v");
+        }
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weightedSize());
+        cache.put(1, "again");
+        assertEquals("again", cache.getIfPresent(1));
+    }
+
+    @Test
+    void testEntriesExpire() throws InterruptedException {
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, 100, value -> 1, 20);
+        cache.put("a", "1");
+        assertEquals("1", cache.getIfPresent("a"));
+
+        Thread.sleep(40);
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testReplacingKeepsOneEntry() {
+        WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, 100, String::length, 60_000);
+        cache.put("a", "12345");
+        cache.put("a", "123");
+
+        assertEquals("123", cache.getIfPresent("a"));
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.weightedSize());
+        assertThrows(IllegalArgumentException.class, () -> new WTinyLfuCache<String, String>(0, 1, String::length, 1));
+    }
+}